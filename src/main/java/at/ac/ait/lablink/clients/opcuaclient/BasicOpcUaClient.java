@@ -8,37 +8,62 @@
 
 package at.ac.ait.lablink.clients.opcuaclient;
 
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.EBackpressurePolicy;
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.NotificationDispatcher;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.AdaptiveSamplingController;
 import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerBoolean;
 import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerDouble;
 import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerLong;
 import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerString;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerTable;
 import at.ac.ait.lablink.clients.opcuaclient.listeners.IDataChangeListener;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.PublishRateLimiter;
 import at.ac.ait.lablink.clients.opcuaclient.notifiers.InputDataNotifierBoolean;
 import at.ac.ait.lablink.clients.opcuaclient.notifiers.InputDataNotifierDouble;
 import at.ac.ait.lablink.clients.opcuaclient.notifiers.InputDataNotifierLong;
 import at.ac.ait.lablink.clients.opcuaclient.notifiers.InputDataNotifierString;
+import at.ac.ait.lablink.clients.opcuaclient.notifiers.WriteFilter;
+import at.ac.ait.lablink.clients.opcuaclient.pollers.CyclicReader;
+import at.ac.ait.lablink.clients.opcuaclient.pollers.EAcquisitionMode;
 import at.ac.ait.lablink.clients.opcuaclient.services.EDataServiceType;
+import at.ac.ait.lablink.clients.opcuaclient.writers.EWritePriority;
 
 import at.ac.ait.lablink.core.service.IImplementedService;
 import at.ac.ait.lablink.core.service.LlService;
 
 import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscriptionManager;
 import org.eclipse.milo.opcua.sdk.client.subscriptions.ManagedDataItem;
 import org.eclipse.milo.opcua.sdk.client.subscriptions.ManagedSubscription;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaSubscription;
+import org.eclipse.milo.opcua.sdk.core.AccessLevel;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Class BasicOpcUaClient.
@@ -57,6 +82,24 @@ public class BasicOpcUaClient extends OpcUaClientBase {
 
   // Tags for OPC UA client configuration.
   protected static final String OPCUA_DEFAULT_SAMPLING_INTERVAL_TAG = "DefaulSamplingInterval_ms";
+  protected static final String OPCUA_SUBSCRIPTION_GROUPS_TAG = "SubscriptionGroups";
+  protected static final String OPCUA_DISPATCH_QUEUE_SIZE_TAG = "DispatchQueueSize";
+  protected static final String OPCUA_DISPATCH_POLICY_TAG = "DispatchPolicy";
+  protected static final String OPCUA_BULK_PUBLISH_TAG = "BulkPublish";
+  protected static final String OPCUA_ADAPTIVE_SAMPLING_TAG = "AdaptiveSampling";
+  protected static final String OPCUA_ADAPTIVE_SAMPLING_MAX_INTERVAL_TAG =
+      "AdaptiveSamplingMaxInterval_ms";
+  protected static final String OPCUA_ADAPTIVE_SAMPLING_PERIOD_TAG = "AdaptiveSamplingPeriod_ms";
+
+  // Tags for subscription group configuration (default values can also be specified in the
+  // OPC UA client configuration).
+  protected static final String GROUP_PUBLISHING_INTERVAL_TAG = "PublishingInterval_ms";
+  protected static final String GROUP_MAX_KEEP_ALIVE_COUNT_TAG = "MaxKeepAliveCount";
+  protected static final String GROUP_LIFETIME_COUNT_TAG = "LifetimeCount";
+  protected static final String GROUP_MAX_NOTIFICATIONS_PER_PUBLISH_TAG =
+      "MaxNotificationsPerPublish";
+  protected static final String GROUP_PRIORITY_TAG = "Priority";
+  protected static final String GROUP_ACQUISITION_MODE_TAG = "AcquisitionMode";
 
   // Tags for input configuration.
   protected static final String INPUT_DATATYPE_TAG = "DataType";
@@ -64,6 +107,10 @@ public class BasicOpcUaClient extends OpcUaClientBase {
   protected static final String INPUT_NODE_ID_NUMERIC_TAG = "NodeIdNumeric";
   protected static final String INPUT_NODE_ID_STRING_TAG = "NodeIdString";
   protected static final String INPUT_UNIT_TAG = "Unit";
+  protected static final String INPUT_DEADBAND_TAG = "Deadband";
+  protected static final String INPUT_DEADBAND_TYPE_TAG = "DeadbandType";
+  protected static final String INPUT_WRITE_ON_CHANGE_TAG = "WriteOnChange";
+  protected static final String INPUT_PRIORITY_TAG = "Priority";
 
   // Tags for output configuration.
   protected static final String OUTPUT_DATATYPE_TAG = "DataType";
@@ -71,15 +118,57 @@ public class BasicOpcUaClient extends OpcUaClientBase {
   protected static final String OUTPUT_NODE_ID_NUMERIC_TAG = "NodeIdNumeric";
   protected static final String OUTPUT_NODE_ID_STRING_TAG = "NodeIdString";
   protected static final String OUTPUT_UNIT_TAG = "Unit";
+  protected static final String OUTPUT_SAMPLING_INTERVAL_TAG = "SamplingInterval_ms";
+  protected static final String OUTPUT_QUEUE_SIZE_TAG = "QueueSize";
+  protected static final String OUTPUT_DISCARD_OLDEST_TAG = "DiscardOldest";
+  protected static final String OUTPUT_DEADBAND_TAG = "Deadband";
+  protected static final String OUTPUT_DEADBAND_TYPE_TAG = "DeadbandType";
+  protected static final String OUTPUT_DATA_CHANGE_TRIGGER_TAG = "DataChangeTrigger";
+  protected static final String OUTPUT_SUBSCRIPTION_GROUP_TAG = "SubscriptionGroup";
+  protected static final String OUTPUT_MAX_PUBLISH_RATE_TAG = "MaxPublishRate";
+
+  /** Data change filter applied by the OPC UA server by default. */
+  private static final DataChangeFilter DEFAULT_DATA_CHANGE_FILTER =
+      MonitoringSettings.createDataChangeFilter("statusvalue", null, 0.0);
 
   /** Sampling interval for data subscriptions to OPC UA server. */
   private long defaultSamplingInterval;
 
-  /** Manager for data subscriptions to OPC UA server. */
-  private ManagedSubscription subscription;
+  /** Configuration of explicitly defined subscription groups (JSON format). */
+  private JSONObject subscriptionGroupsConfig;
 
-  /** Mapping of data subscription handles to data change listeners. */
-  private Map<UInteger, IDataChangeListener> dataChangeListeners;
+  /** Default parameters for all subscription groups (JSON format). */
+  private JSONObject subscriptionDefaultsConfig;
+
+  /** Statistics of the publish responses (indexed by subscription group). */
+  private Map<String, PublishStatistics> publishStatistics = new LinkedHashMap<>();
+
+  /** Number of failed publish requests. */
+  private final LongAdder publishFailures = new LongAdder();
+
+  /** Managers for data subscriptions to OPC UA server (indexed by subscription group). */
+  private Map<String, ManagedSubscription> subscriptions;
+
+  /** Cyclic readers for subscription groups in polling mode (indexed by subscription group). */
+  private Map<String, CyclicReader> cyclicReaders;
+
+  /**
+   * Mapping of data subscription handles to data change listeners (for each subscription,
+   * because handles are only unique within a subscription).
+   */
+  private Map<ManagedSubscription, DataChangeListenerTable> dataChangeListeners;
+
+  /** Dispatcher, which passes new values from the subscriptions to the data change listeners. */
+  private NotificationDispatcher<IDataChangeListener> notificationDispatcher;
+
+  /** Flag indicating that all values of a notification batch are dispatched at once. */
+  private boolean bulkPublish;
+
+  /** Rate limiter for outputs with a maximum publish rate (null if there are none). */
+  private PublishRateLimiter publishRateLimiter = null;
+
+  /** Controller for adapting the sampling intervals (null if not enabled). */
+  private AdaptiveSamplingController adaptiveSamplingController = null;
 
   /**
    * The main method.
@@ -213,21 +302,48 @@ public class BasicOpcUaClient extends OpcUaClientBase {
 
     logger.info("Start event loop");
 
-    for (IDataChangeListener dcl: dataChangeListeners.values()) {
-      // Get name of output data service associated to this data listener.
-      String outputServiceName = dcl.getServiceName();
+    for (Map.Entry<ManagedSubscription, DataChangeListenerTable> entry
+        : dataChangeListeners.entrySet()) {
+      DataChangeListenerTable listeners = entry.getValue();
 
-      // Retrieve implemented output data service from Lablink client.
-      IImplementedService dataService = client.getImplementedServices().get(outputServiceName);
+      for (IDataChangeListener dcl: listeners.values()) {
+        linkDataChangeListener(dcl);
+      }
 
-      // Link the data listener with the output data service.
-      dcl.setImplementedService(dataService);
+      // Add data change listener to subscription.
+      entry.getKey().addDataChangeListener(
+          (items, values) -> this.updateDataChangeListeners(listeners, items, values)
+      );
     }
 
-    // Add data change listener to subscription.
-    subscription.addDataChangeListener(
-        (items, values) -> this.updateDataChangeListeners(items, values)
-    );
+    for (CyclicReader reader : cyclicReaders.values()) {
+      for (IDataChangeListener dcl: reader.getListeners()) {
+        linkDataChangeListener(dcl);
+      }
+
+      // Start polling the outputs of the subscription group.
+      reader.start();
+    }
+
+    if (adaptiveSamplingController != null) {
+      adaptiveSamplingController.start();
+    }
+  }
+
+  /**
+   * Link a data change listener with its output data service.
+   *
+   * @param dcl data change listener
+   */
+  private void linkDataChangeListener(IDataChangeListener dcl) {
+    // Get name of output data service associated to this data listener.
+    String outputServiceName = dcl.getServiceName();
+
+    // Retrieve implemented output data service from Lablink client.
+    IImplementedService dataService = client.getImplementedServices().get(outputServiceName);
+
+    // Link the data listener with the output data service.
+    dcl.setImplementedService(dataService);
   }
 
   /**
@@ -242,6 +358,138 @@ public class BasicOpcUaClient extends OpcUaClientBase {
     defaultSamplingInterval = ConfigUtil.getOptionalConfigParam(
         opcuaClientConfig, OPCUA_DEFAULT_SAMPLING_INTERVAL_TAG, 1000L
     );
+
+    // Retrieve the (optional) configuration of the subscription groups, the subscriptions are
+    // created on demand when setting up the output data services.
+    subscriptionGroupsConfig = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_SUBSCRIPTION_GROUPS_TAG, new JSONObject()
+    );
+
+    // Parameters of the subscriptions (publishing interval, keep-alive count, etc.) may also
+    // be specified for all subscription groups at once.
+    subscriptionDefaultsConfig = opcuaClientConfig;
+
+    // Optionally, new values received via the subscriptions are passed to the data change
+    // listeners by a separate thread, such that slow output data services do not block the
+    // OPC UA stack. By default, they are passed directly on the thread of the OPC UA stack.
+    Number dispatchQueueSize = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_DISPATCH_QUEUE_SIZE_TAG, (Number) 0L
+    );
+    String dispatchPolicy = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_DISPATCH_POLICY_TAG, "block"
+    );
+
+    bulkPublish = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_BULK_PUBLISH_TAG, false
+    );
+
+    // Without dispatcher thread, the values are set directly on the thread of the OPC UA stack
+    // anyway, handing them over in bulk has no effect.
+    if (bulkPublish && dispatchQueueSize.intValue() <= 0) {
+      logger.warn("{} only takes effect with {} > 0, ignoring it",
+          OPCUA_BULK_PUBLISH_TAG, OPCUA_DISPATCH_QUEUE_SIZE_TAG);
+      bulkPublish = false;
+    }
+
+    // Optionally, the sampling intervals of the monitored items are adapted to how often their
+    // values actually change (between the configured sampling interval and an upper bound).
+    boolean adaptiveSampling = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_ADAPTIVE_SAMPLING_TAG, false
+    );
+
+    if (adaptiveSampling) {
+      Number maxInterval = ConfigUtil.getOptionalConfigParam(
+          opcuaClientConfig, OPCUA_ADAPTIVE_SAMPLING_MAX_INTERVAL_TAG, (Number) 10000L
+      );
+      Number period = ConfigUtil.getOptionalConfigParam(
+          opcuaClientConfig, OPCUA_ADAPTIVE_SAMPLING_PERIOD_TAG, (Number) 10000L
+      );
+
+      adaptiveSamplingController = new AdaptiveSamplingController(
+          maxInterval.doubleValue(), period.doubleValue());
+    }
+
+    notificationDispatcher = new NotificationDispatcher<>(
+        (dcl, value) -> this.updateDataChangeListener(dcl, value),
+        dispatchQueueSize.intValue(), EBackpressurePolicy.fromString(dispatchPolicy)
+    );
+  }
+
+  /**
+   * Retrieve the statistics of the publish responses of a subscription group (e.g., for
+   * monitoring late publish responses).
+   *
+   * @param group name of the subscription group
+   * @return publish statistics (null in case the subscription group does not exist)
+   */
+  public PublishStatistics getPublishStatistics(String group) {
+    return publishStatistics.get(group);
+  }
+
+  /**
+   * Retrieve the dispatcher, which passes new values from the subscriptions to the data change
+   * listeners (e.g., for monitoring its queue depth and drop counters).
+   *
+   * @return notification dispatcher
+   */
+  public NotificationDispatcher<IDataChangeListener> getNotificationDispatcher() {
+    return notificationDispatcher;
+  }
+
+  /**
+   * Retrieve the node IDs of the OPC UA server variables associated to the inputs and outputs.
+   * Implements {@link OpcUaClientBase#getConfiguredNodeIds(JSONArray, JSONArray)}.
+   *
+   * @param inputConfigList input configuration data (JSON format)
+   * @param outputConfigList output configuration data (JSON format)
+   * @return list of node IDs
+   */
+  @Override
+  protected List<NodeId> getConfiguredNodeIds(JSONArray inputConfigList,
+      JSONArray outputConfigList) {
+    List<NodeId> nodeIds = new ArrayList<>();
+
+    for (Object inputConfig : inputConfigList) {
+      NodeId nodeId = getNodeId((JSONObject) inputConfig,
+          INPUT_NODE_ID_NUMERIC_TAG, INPUT_NODE_ID_STRING_TAG);
+      if (nodeId != null) {
+        nodeIds.add(nodeId);
+      }
+    }
+
+    for (Object outputConfig : outputConfigList) {
+      NodeId nodeId = getNodeId((JSONObject) outputConfig,
+          OUTPUT_NODE_ID_NUMERIC_TAG, OUTPUT_NODE_ID_STRING_TAG);
+      if (nodeId != null) {
+        nodeIds.add(nodeId);
+      }
+    }
+
+    return nodeIds;
+  }
+
+  /**
+   * Retrieve the complete node ID of the OPC UA server variable associated to an input or
+   * output, which is specified either by a numeric value or a string.
+   *
+   * @param ioConfig input or output configuration data (JSON format)
+   * @param numericTag tag of the numeric node ID
+   * @param stringTag tag of the string node ID
+   * @return node ID (null in case no node ID has been specified)
+   */
+  private NodeId getNodeId(JSONObject ioConfig, String numericTag, String stringTag) {
+    Number numericNodeId = ConfigUtil.getOptionalConfigParam(
+        ioConfig, numericTag, (Number) null);
+    String strNodeId = ConfigUtil.getOptionalConfigParam(
+        ioConfig, stringTag, (String) null);
+
+    if (numericNodeId != null) {
+      return new NodeId(getNamespaceIndex(), numericNodeId.intValue());
+    } else if (strNodeId != null) {
+      return new NodeId(getNamespaceIndex(), strNodeId);
+    }
+
+    return null;
   }
 
   /**
@@ -271,12 +519,9 @@ public class BasicOpcUaClient extends OpcUaClientBase {
           String.format("name for input data service is missing (%1$s)", INPUT_ID_TAG));
 
       // Retrieve node ID of associated OPC UA server variable (either a numeric value or a string).
-      Number numericNodeId = ConfigUtil.getOptionalConfigParam(
-          inputConfig, INPUT_NODE_ID_NUMERIC_TAG, (Number) null);
-      String strNodeId = ConfigUtil.getOptionalConfigParam(
-          inputConfig, INPUT_NODE_ID_STRING_TAG, (String) null);
+      NodeId nodeId = getNodeId(inputConfig, INPUT_NODE_ID_NUMERIC_TAG, INPUT_NODE_ID_STRING_TAG);
 
-      if (numericNodeId == null && strNodeId == null) {
+      if (nodeId == null) {
         throw new NoSuchElementException(String.format(
             "node ID (numeric or string) for OPC UA variable is missing (%1$s or %2$s)", 
             INPUT_NODE_ID_NUMERIC_TAG, INPUT_NODE_ID_STRING_TAG
@@ -299,20 +544,27 @@ public class BasicOpcUaClient extends OpcUaClientBase {
       // Create and retrieve reference to new data service.
       LlService dataService = this.addDataService(inputId, serviceType, unit);
 
-      // Retrieve complete node ID of associated OPC UA server variable.
-      NodeId nodeId = null;
-      if (numericNodeId != null) {
-        nodeId = new NodeId(getNamespaceIndex(), numericNodeId.intValue());
-      } else if (strNodeId != null) {
-        nodeId = new NodeId(getNamespaceIndex(), strNodeId);
-      }
-
       // Retrieve data type ID of associated OPC UA server variable.
       int dataTypeId = getDataTypeId(nodeId);
 
+      // Check whether the associated OPC UA server variable is writable (if known).
+      int accessLevel = getAccessLevel(nodeId);
+      if (accessLevel >= 0 && (accessLevel & AccessLevel.CurrentWrite.getValue()) == 0) {
+        logger.warn("OPC UA server variable of input {} is not writable (access level: {})",
+            inputId, accessLevel);
+      }
+
+      // Retrieve filter for new values (optional).
+      WriteFilter writeFilter = getWriteFilter(inputConfig, inputId, serviceType);
+
+      // Retrieve priority class for writing new values (optional).
+      String priority = ConfigUtil.getOptionalConfigParam(inputConfig, INPUT_PRIORITY_TAG,
+          "normal");
+      setWritePriority(nodeId, EWritePriority.fromString(priority));
+
       // Add state change notifiers to data services. These notifiers will write new values to the
       // associated OPC UA server variables via method writeValue(...).
-      addStateChangeNotifier(dataService, serviceType, nodeId, dataTypeId);
+      addStateChangeNotifier(dataService, serviceType, nodeId, dataTypeId, writeFilter);
     }
   }
 
@@ -331,15 +583,26 @@ public class BasicOpcUaClient extends OpcUaClientBase {
 
     logger.info("Configuring client outputs...");
 
-    // Create a new managed data subscription for the OPC UA server).
-    subscription = ManagedSubscription.create(opcUaClient);
+    // Managed data subscriptions for the OPC UA server are created for each subscription
+    // group on demand (see method "getSubscription").
+    subscriptions = new LinkedHashMap<>();
 
-    // Set the sampling interval for the subscription.
-    subscription.setDefaultSamplingInterval(defaultSamplingInterval);
+    // Subscription groups in polling mode are read cyclically instead (see method
+    // "getCyclicReader").
+    cyclicReaders = new LinkedHashMap<>();
 
     // This map will associate the subscription handles to the data change listeners.
     dataChangeListeners = new HashMap<>();
 
+    // Outputs for which monitored items have to be created (indexed by subscription and
+    // monitoring parameters).
+    Map<ManagedSubscription, Map<MonitoringSettings, List<PendingDataItem>>> pendingDataItems =
+        new LinkedHashMap<>();
+
+    // Publish failures and lost notifications are reported for all subscriptions at once.
+    opcUaClient.getSubscriptionManager().addSubscriptionListener(
+        new PublishFailureListener());
+
     @SuppressWarnings("rawtypes")
     Iterator outputConfigListIter = outputConfigList.iterator();
 
@@ -352,12 +615,10 @@ public class BasicOpcUaClient extends OpcUaClientBase {
           String.format("name for output data serivce is missing (%1$s)", OUTPUT_ID_TAG));
 
       // Retrieve node ID of associated OPC UA server variable (either a numeric value or a string).
-      Number numericNodeId = ConfigUtil.getOptionalConfigParam(
-          outputConfig, OUTPUT_NODE_ID_NUMERIC_TAG, (Number) null);
-      String strNodeId = ConfigUtil.getOptionalConfigParam(
-          outputConfig, OUTPUT_NODE_ID_STRING_TAG, (String) null);
+      NodeId nodeId = getNodeId(
+          outputConfig, OUTPUT_NODE_ID_NUMERIC_TAG, OUTPUT_NODE_ID_STRING_TAG);
 
-      if (numericNodeId == null && strNodeId == null) {
+      if (nodeId == null) {
         throw new NoSuchElementException(String.format(
             "node ID (numeric or string) for OPC UA variable is missing (%1$s or %2$s)", 
             OUTPUT_NODE_ID_NUMERIC_TAG, OUTPUT_NODE_ID_STRING_TAG
@@ -380,28 +641,436 @@ public class BasicOpcUaClient extends OpcUaClientBase {
       // Create and retrieve reference to new data service.
       this.addDataService(outputId, serviceType, unit);
 
-      // Retrieve complete node ID of associated OPC UA server variable.
-      NodeId nodeId = null;
-      if (numericNodeId != null) {
-        nodeId = new NodeId(getNamespaceIndex(), numericNodeId.intValue());
-      } else if (strNodeId != null) {
-        nodeId = new NodeId(getNamespaceIndex(), strNodeId);
-      }
+      // Retrieve the parameters of the monitored item (sampling interval, queue size, etc.).
+      MonitoringSettings settings = getMonitoringSettings(outputConfig, outputId, serviceType);
 
-      // Create managed data item.
-      ManagedDataItem item = subscription.createDataItem(nodeId);
-
-      // Retrieve handle for monitored item.
-      UInteger handle = item.getMonitoredItem().getClientHandle();
+      // Retrieve the subscription group of this output, either explicitly configured or
+      // grouped by the requested sampling interval.
+      String group = ConfigUtil.getOptionalConfigParam(
+          outputConfig, OUTPUT_SUBSCRIPTION_GROUP_TAG, (String) null);
 
       // Retrieve data type ID of associated OPC UA server variable.
       int dataTypeId = getDataTypeId(nodeId);
 
-      // Add data change listeners to output services. These data changes listeners are called by
-      // the subscription callback (see methods "startEventLoop" and "updateDataChangeListeners")
-      // and will update their associated output data services.
-      addDataChangeListener(serviceType, outputId, dataTypeId, handle);
+      // Create data change listeners for output services. These data changes listeners are
+      // called by the subscription callback (see methods "startEventLoop" and
+      // "updateDataChangeListeners") or the cyclic reader and will update their associated
+      // output data services.
+      Number maxPublishRate = ConfigUtil.getOptionalConfigParam(
+          outputConfig, OUTPUT_MAX_PUBLISH_RATE_TAG, (Number) 0L);
+      IDataChangeListener dcl = createDataChangeListener(
+          serviceType, outputId, dataTypeId, maxPublishRate.doubleValue());
+
+      if (getAcquisitionMode(group) == EAcquisitionMode.POLLING) {
+        // Add the output to the cyclic reader of the subscription group.
+        getCyclicReader(group, settings).add(new ReadValueId(
+            nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE), dcl);
+      } else {
+        ManagedSubscription subscription = getSubscription(group, settings);
+
+        // The monitored items are created in bulk once all outputs have been configured,
+        // grouped by subscription and monitoring parameters.
+        pendingDataItems.computeIfAbsent(subscription, s -> new LinkedHashMap<>())
+            .computeIfAbsent(settings, s -> new ArrayList<>())
+            .add(new PendingDataItem(nodeId, dcl));
+      }
+    }
+
+    // Create managed data items.
+    createPendingDataItems(pendingDataItems);
+
+    for (Map.Entry<String, ManagedSubscription> entry : subscriptions.entrySet()) {
+      logger.info("subscription group {}: {} outputs, revised publishing interval {} ms",
+          entry.getKey(), entry.getValue().getDataItems().size(),
+          entry.getValue().getSubscription().getRevisedPublishingInterval());
+    }
+
+    for (Map.Entry<String, CyclicReader> entry : cyclicReaders.entrySet()) {
+      logger.info("subscription group {}: {} outputs, polling interval {} ms",
+          entry.getKey(), entry.getValue().getListeners().size(),
+          entry.getValue().getInterval());
+    }
+  }
+
+  /**
+   * Retrieve the name of a subscription group. Outputs without explicit subscription group are
+   * grouped by their sampling interval.
+   *
+   * @param group name of the subscription group (null for automatic grouping)
+   * @param settings parameters of the monitored item
+   * @return name of the subscription group
+   */
+  private static String getGroupName(String group, MonitoringSettings settings) {
+    return (group != null)
+        ? group : String.format("auto-%1$sms", settings.getSamplingInterval());
+  }
+
+  /**
+   * Retrieve the acquisition mode of a subscription group, either from the configuration of the
+   * group or from the OPC UA client configuration.
+   *
+   * @param group name of the subscription group (null for automatic grouping)
+   * @return acquisition mode
+   */
+  private EAcquisitionMode getAcquisitionMode(String group) {
+    JSONObject groupConfig = (group != null)
+        ? ConfigUtil.getOptionalConfigParam(subscriptionGroupsConfig, group, new JSONObject())
+        : new JSONObject();
+
+    String mode = ConfigUtil.getOptionalConfigParam(groupConfig, GROUP_ACQUISITION_MODE_TAG,
+        ConfigUtil.getOptionalConfigParam(
+            subscriptionDefaultsConfig, GROUP_ACQUISITION_MODE_TAG, "subscription"));
+
+    return EAcquisitionMode.fromString(mode);
+  }
+
+  /**
+   * Retrieve the cyclic reader for a subscription group in polling mode, create it if it does
+   * not exist yet. The outputs are polled with the publishing interval of the group.
+   *
+   * @param group name of the subscription group (null for automatic grouping)
+   * @param settings parameters of the monitored item
+   * @return cyclic reader
+   */
+  private CyclicReader getCyclicReader(String group, MonitoringSettings settings) {
+    String groupName = getGroupName(group, settings);
+
+    CyclicReader reader = cyclicReaders.get(groupName);
+
+    if (reader == null) {
+      SubscriptionSettings groupSettings = (group != null)
+          ? getSubscriptionSettings(getSubscriptionGroupConfig(group), defaultSamplingInterval)
+          : getSubscriptionSettings(new JSONObject(), settings.getSamplingInterval());
+
+      logger.info("create polled subscription group {}: polling interval {} ms",
+          groupName, groupSettings.getPublishingInterval());
+
+      reader = new CyclicReader(groupName, groupSettings.getPublishingInterval(),
+          this::readChunked, notificationDispatcher);
+      cyclicReaders.put(groupName, reader);
     }
+
+    return reader;
+  }
+
+  /**
+   * Retrieve the managed data subscription for a subscription group, create it if it does not
+   * exist yet. Outputs without explicit subscription group are grouped by their sampling
+   * interval, i.e., the subscription is published at the rate the items are sampled.
+   *
+   * @param group name of the subscription group (null for automatic grouping)
+   * @param settings parameters of the monitored item
+   * @return managed data subscription
+   * @throws org.eclipse.milo.opcua.stack.core.UaException
+   *   creation of subscription failed
+   */
+  private ManagedSubscription getSubscription(String group, MonitoringSettings settings)
+      throws org.eclipse.milo.opcua.stack.core.UaException {
+
+    String groupName = getGroupName(group, settings);
+
+    ManagedSubscription subscription = subscriptions.get(groupName);
+
+    if (subscription == null) {
+      SubscriptionSettings groupSettings = (group != null)
+          ? getSubscriptionSettings(getSubscriptionGroupConfig(group), defaultSamplingInterval)
+          : getSubscriptionSettings(new JSONObject(), settings.getSamplingInterval());
+
+      logger.info("create subscription group {}: {}", groupName, groupSettings);
+
+      subscription = createSubscription(groupSettings);
+      subscriptions.put(groupName, subscription);
+      dataChangeListeners.put(subscription, new DataChangeListenerTable());
+
+      // Record the delay of all publish responses of this subscription.
+      PublishStatistics statistics = new PublishStatistics();
+      publishStatistics.put(groupName, statistics);
+      subscription.getSubscription().addNotificationListener(
+          new PublishStatisticsListener(statistics));
+    }
+
+    return subscription;
+  }
+
+  /**
+   * Retrieve the configuration of an explicitly defined subscription group.
+   *
+   * @param group name of the subscription group
+   * @return configuration of the subscription group (JSON format)
+   */
+  private JSONObject getSubscriptionGroupConfig(String group) {
+    JSONObject groupConfig = ConfigUtil.getOptionalConfigParam(
+        subscriptionGroupsConfig, group, (JSONObject) null);
+
+    if (groupConfig == null) {
+      logger.warn("subscription group {} is not configured, using default parameters", group);
+      groupConfig = new JSONObject();
+    }
+
+    return groupConfig;
+  }
+
+  /**
+   * Retrieve the parameters of a subscription group. Parameters that are not specified in the
+   * configuration of the subscription group are taken from the OPC UA client configuration,
+   * otherwise they are set to default values.
+   *
+   * @param groupConfig configuration of the subscription group (JSON format)
+   * @param defaultPublishingInterval publishing interval in case none has been configured
+   * @return parameters of the subscription
+   */
+  private SubscriptionSettings getSubscriptionSettings(JSONObject groupConfig,
+      double defaultPublishingInterval) {
+    Number publishingInterval = getSubscriptionParam(
+        groupConfig, GROUP_PUBLISHING_INTERVAL_TAG, defaultPublishingInterval);
+    Number maxKeepAliveCount = getSubscriptionParam(
+        groupConfig, GROUP_MAX_KEEP_ALIVE_COUNT_TAG, null);
+    Number lifetimeCount = getSubscriptionParam(
+        groupConfig, GROUP_LIFETIME_COUNT_TAG, null);
+    Number maxNotificationsPerPublish = getSubscriptionParam(
+        groupConfig, GROUP_MAX_NOTIFICATIONS_PER_PUBLISH_TAG, 0L);
+    Number priority = getSubscriptionParam(groupConfig, GROUP_PRIORITY_TAG, 0L);
+
+    // Keep-alive and lifetime counts that have not been configured are set to defaults.
+    return SubscriptionSettings.forPublishingInterval(publishingInterval.doubleValue(),
+        (maxKeepAliveCount != null) ? maxKeepAliveCount.longValue() : null,
+        (lifetimeCount != null) ? lifetimeCount.longValue() : null,
+        maxNotificationsPerPublish.longValue(), priority.intValue());
+  }
+
+  /**
+   * Retrieve a parameter of a subscription group, either from the configuration of the group,
+   * from the OPC UA client configuration or the default value.
+   *
+   * @param groupConfig configuration of the subscription group (JSON format)
+   * @param tag tag of the parameter
+   * @param defaultValue default value (may be null)
+   * @return value of the parameter
+   */
+  private Number getSubscriptionParam(JSONObject groupConfig, String tag, Number defaultValue) {
+    return ConfigUtil.getOptionalConfigParam(groupConfig, tag,
+        ConfigUtil.getOptionalConfigParam(subscriptionDefaultsConfig, tag, defaultValue));
+  }
+
+  /**
+   * Create a managed data subscription on the OPC UA server.
+   *
+   * @param settings parameters of the subscription
+   * @return managed data subscription
+   * @throws org.eclipse.milo.opcua.stack.core.UaException
+   *   creation of subscription failed
+   */
+  private ManagedSubscription createSubscription(SubscriptionSettings settings)
+      throws org.eclipse.milo.opcua.stack.core.UaException {
+
+    try {
+      UaSubscription uaSubscription = opcUaClient.getSubscriptionManager().createSubscription(
+          settings.getPublishingInterval(),
+          UInteger.valueOf(settings.getLifetimeCount()),
+          UInteger.valueOf(settings.getMaxKeepAliveCount()),
+          UInteger.valueOf(settings.getMaxNotificationsPerPublish()),
+          true,
+          UByte.valueOf(settings.getPriority())
+      ).get();
+
+      return new ManagedSubscription(opcUaClient, (OpcUaSubscription) uaSubscription);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new UaException(StatusCodes.Bad_Shutdown, ex);
+    } catch (ExecutionException ex) {
+      throw UaException.extract(ex).orElseGet(
+          () -> new UaException(StatusCodes.Bad_UnexpectedError, ex.getCause()));
+    }
+  }
+
+  /**
+   * Retrieve the parameters of the monitored item associated to an output. Parameters that
+   * are not specified in the output configuration are set to default values.
+   * A data change filter is only created in case a deadband or a trigger has been configured,
+   * deadbands are only supported for numeric outputs.
+   *
+   * @param outputConfig output configuration data (JSON format)
+   * @param outputId name of output data service
+   * @param serviceType data type of output data service
+   * @return parameters of the monitored item
+   */
+  private MonitoringSettings getMonitoringSettings(JSONObject outputConfig, String outputId,
+      EDataServiceType serviceType) {
+    Number samplingInterval = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_SAMPLING_INTERVAL_TAG, (Number) defaultSamplingInterval);
+    Number queueSize = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_QUEUE_SIZE_TAG, (Number) ManagedSubscription.DEFAULT_QUEUE_SIZE);
+    boolean discardOldest = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_DISCARD_OLDEST_TAG, true);
+
+    Number deadband = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_DEADBAND_TAG, (Number) null);
+    String deadbandType = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_DEADBAND_TYPE_TAG, "absolute");
+    String trigger = ConfigUtil.getOptionalConfigParam(
+        outputConfig, OUTPUT_DATA_CHANGE_TRIGGER_TAG, (String) null);
+
+    if (deadband != null && serviceType != EDataServiceType.DOUBLE
+        && serviceType != EDataServiceType.LONG) {
+      logger.warn("deadband not supported for {} output {}, deadband ignored",
+          EDataServiceType.toString(serviceType), outputId);
+      deadband = null;
+    }
+
+    DataChangeFilter filter = null;
+    if (deadband != null || trigger != null) {
+      filter = MonitoringSettings.createDataChangeFilter(
+          (trigger != null) ? trigger : "statusvalue",
+          (deadband != null) ? WriteFilter.EDeadbandType.fromString(deadbandType) : null,
+          (deadband != null) ? deadband.doubleValue() : 0.0);
+    }
+
+    return new MonitoringSettings(
+        samplingInterval.doubleValue(), queueSize.longValue(), discardOldest, filter);
+  }
+
+  /**
+   * Create the managed data items of all pending outputs and associate their handles with the
+   * data change listeners. Failures of individual monitored items are reported, the outputs
+   * remain configured (but will not receive values).
+   *
+   * @param pendingDataItems outputs (indexed by subscription and monitoring parameters)
+   * @throws org.eclipse.milo.opcua.stack.core.UaException
+   *   creation of monitored items failed
+   */
+  private void createPendingDataItems(
+      Map<ManagedSubscription, Map<MonitoringSettings, List<PendingDataItem>>> pendingDataItems)
+      throws org.eclipse.milo.opcua.stack.core.UaException {
+
+    int total = 0;
+    int failed = 0;
+
+    for (Map.Entry<ManagedSubscription, Map<MonitoringSettings, List<PendingDataItem>>> entry
+        : pendingDataItems.entrySet()) {
+      ManagedSubscription subscription = entry.getKey();
+      DataChangeListenerTable listeners = dataChangeListeners.get(subscription);
+
+      for (Map.Entry<MonitoringSettings, List<PendingDataItem>> group
+          : entry.getValue().entrySet()) {
+        MonitoringSettings settings = group.getKey();
+        List<PendingDataItem> pending = group.getValue();
+
+        List<NodeId> nodeIds = new ArrayList<>(pending.size());
+        for (PendingDataItem output : pending) {
+          nodeIds.add(output.nodeId);
+        }
+
+        List<ManagedDataItem> items = createDataItems(subscription, nodeIds, settings);
+
+        for (int i = 0; i < items.size(); ++i) {
+          ManagedDataItem item = items.get(i);
+          IDataChangeListener dcl = pending.get(i).listener;
+
+          boolean good = item.getStatusCode().isGood();
+          if (!good) {
+            ++failed;
+          }
+
+          if (adaptiveSamplingController != null && good) {
+            // Count the notifications of the monitored item for adapting its sampling interval
+            // (items the OPC UA server has rejected cannot be modified).
+            dcl = adaptiveSamplingController.track(
+                dcl, subscription, item, settings.getSamplingInterval());
+          }
+
+          // Associate the handle of the monitored item with the data change listener.
+          listeners.put(item.getMonitoredItem().getClientHandle(), dcl);
+        }
+
+        total += items.size();
+      }
+    }
+
+    if (failed > 0) {
+      logger.warn("created {} monitored items, {} failed", total, failed);
+    } else {
+      logger.info("created {} monitored items", total);
+    }
+  }
+
+  /**
+   * Create managed data items for monitoring the values of OPC UA server variables. All items
+   * share the same monitoring parameters. The items are created with bulk requests, which are
+   * split into chunks according to the server's operation limits and sent concurrently.
+   *
+   * @param subscription managed data subscription the items are added to
+   * @param nodeIds node IDs of the OPC UA server variables
+   * @param settings parameters of the monitored items
+   * @return managed data items (same order as node IDs)
+   * @throws org.eclipse.milo.opcua.stack.core.UaException
+   *   creation of monitored items failed
+   */
+  private List<ManagedDataItem> createDataItems(ManagedSubscription subscription,
+      List<NodeId> nodeIds, MonitoringSettings settings)
+      throws org.eclipse.milo.opcua.stack.core.UaException {
+
+    // The queue size and discard policy are taken from the subscription's defaults.
+    subscription.setDefaultQueueSize(UInteger.valueOf(settings.getQueueSize()));
+    subscription.setDefaultDiscardOldest(settings.isDiscardOldest());
+
+    // The same applies to the data change filter. Once a filter has been set, outputs without
+    // filter explicitly use the default filter (report changes of status or value).
+    if (settings.getDataChangeFilter() != null) {
+      subscription.setDefaultDataFilter(settings.getDataChangeFilter());
+    } else if (subscription.getDefaultDataFilter() != null) {
+      subscription.setDefaultDataFilter(DEFAULT_DATA_CHANGE_FILTER);
+    }
+
+    List<ReadValueId> readValueIds = new ArrayList<>(nodeIds.size());
+    for (NodeId nodeId : nodeIds) {
+      readValueIds.add(new ReadValueId(
+          nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE));
+    }
+
+    // All chunks are sent before waiting for the first response. The requests are built
+    // immediately, hence they all use the subscription defaults set above.
+    List<ManagedDataItem> items;
+    try {
+      items = ChunkUtil.requestChunked(readValueIds.size(),
+          getOperationLimits().getMaxMonitoredItemsPerCall(),
+          (from, to) -> subscription.createDataItemsAsync(
+              settings.getSamplingInterval(), readValueIds.subList(from, to))
+      ).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new UaException(StatusCodes.Bad_Shutdown, ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof UaException) {
+        throw (UaException) ex.getCause();
+      }
+      throw new UaException(StatusCodes.Bad_UnexpectedError, ex.getCause());
+    }
+
+    int revised = 0;
+    for (int i = 0; i < items.size(); ++i) {
+      ManagedDataItem item = items.get(i);
+      NodeId nodeId = nodeIds.get(i);
+
+      // The OPC UA server may reject individual monitored items (e.g., unknown node) or their
+      // data change filter (e.g., percent deadbands require the variable to have an EU range).
+      if (!item.getStatusCode().isGood()) {
+        logger.warn("monitoring of node {} failed ({}): {}", nodeId.toParseableString(),
+            item.getStatusCode(), settings);
+      } else if (item.getSamplingInterval() != settings.getSamplingInterval()) {
+        // The OPC UA server may revise the requested sampling interval.
+        logger.debug("sampling interval for node {} revised by server: {} ms (requested: {} ms)",
+            nodeId.toParseableString(), item.getSamplingInterval(),
+            settings.getSamplingInterval());
+        ++revised;
+      }
+    }
+
+    if (revised > 0) {
+      logger.info("sampling interval revised by server for {} of {} monitored items "
+          + "(requested: {} ms)", revised, items.size(), settings.getSamplingInterval());
+    }
+
+    return items;
   }
 
   /**
@@ -409,78 +1078,178 @@ public class BasicOpcUaClient extends OpcUaClientBase {
    * server. Overwrites default implementation from {@link OpcUaClientRunner#shutdownHook()}.
    */
   protected void shutdownHook() {
-    List<ManagedDataItem> dataItems = subscription.getDataItems();
-    CompletableFuture<?> futureDeleteMonitoredItems = subscription.deleteDataItemsAsync(dataItems);
-    try {
-      futureDeleteMonitoredItems.get();
-    } catch (Exception ex) {
-      logger.warn(ex.toString());
+    if (adaptiveSamplingController != null) {
+      adaptiveSamplingController.close();
+    }
+
+    for (Map.Entry<String, CyclicReader> entry : cyclicReaders.entrySet()) {
+      entry.getValue().close();
+      logger.info("Polling statistics for subscription group {}: {}",
+          entry.getKey(), entry.getValue());
+    }
+
+    for (ManagedSubscription subscription : subscriptions.values()) {
+      List<ManagedDataItem> dataItems = subscription.getDataItems();
+      CompletableFuture<?> futureDeleteMonitoredItems =
+          subscription.deleteDataItemsAsync(dataItems);
+      try {
+        futureDeleteMonitoredItems.get();
+      } catch (Exception ex) {
+        logger.warn(ex.toString());
+      }
+    }
+
+    notificationDispatcher.close();
+    if (publishRateLimiter != null) {
+      publishRateLimiter.close();
+    }
+    logger.info("Notification dispatcher statistics: {}", notificationDispatcher);
+
+    for (Map.Entry<String, PublishStatistics> entry : publishStatistics.entrySet()) {
+      logger.info("Publish statistics for subscription group {}: {}",
+          entry.getKey(), entry.getValue());
     }
+    logger.info("Failed publish requests: {}", publishFailures.sum());
+
+    super.shutdownHook();
   }
 
   /**
-   * Callback function for the OPC UA server data subscription. Calls the data change listeners
-   * associated to each monitored item, which in turn updates the corresponding output data
-   * service.
+   * Callback function for the OPC UA server data subscription. Hands the new values to the
+   * notification dispatcher, which calls the data change listeners associated to each
+   * monitored item, which in turn update the corresponding output data service. In bulk
+   * publish mode, all values of the notification batch are handed over at once.
    *
+   * @param listeners data change listeners of the subscription (indexed by handle)
    * @param items list of changed data items
    * @param values list of corresponding new values
    */
-  private void updateDataChangeListeners(
+  private void updateDataChangeListeners(DataChangeListenerTable listeners,
       List<ManagedDataItem> items, List<DataValue> values
   ) {
+    if (bulkPublish) {
+      // Resolve the data change listeners of the whole batch and let the dispatcher update the
+      // output data services in a single pass.
+      List<IDataChangeListener> batch = new ArrayList<>(items.size());
+      for (ManagedDataItem item : items) {
+        batch.add(listeners.get(item.getMonitoredItem().getClientHandle()));
+      }
+
+      notificationDispatcher.dispatchAll(batch, values);
+      return;
+    }
+
     iterateSimultaneously(items, values,
         (ManagedDataItem item, DataValue value) -> {
 
-          logger.info(
-              "subscription value received: item={}, value={}, handle={}",
-              item.getNodeId(), value.getValue(), item.getMonitoredItem().getClientHandle()
-          );
-
           // Retrieve handle of associated monitored item.
           UInteger handle = item.getMonitoredItem().getClientHandle();
 
           // Use the handle to retrieve the corresponding data change listener.
-          IDataChangeListener dcl = dataChangeListeners.get(handle);
+          IDataChangeListener dcl = listeners.get(handle);
 
-          // Set new value to data change listener, which will in turn set the new value to the
-          // corresponding output data service.
-          dcl.setValue(value);
+          // The dispatcher will set the new value to the data change listener (see method
+          // "updateDataChangeListener").
+          notificationDispatcher.dispatch(dcl, value);
       }
     );
   }
 
   /**
-   * Add data change listeners to output services. These data changes listeners are called by
-   * the subscription callback (see methods {@link #startEventLoop()} and
-   * {@link #updateDataChangeListeners(List, List)}) and will update
-   * their associated output data services.
+   * Set a new value to a data change listener, which will in turn set the new value to the
+   * corresponding output data service. Called by the notification dispatcher.
+   *
+   * @param dcl data change listener
+   * @param value new value
+   */
+  private void updateDataChangeListener(IDataChangeListener dcl, DataValue value) {
+    logger.info("subscription value received: output={}, value={}",
+        dcl.getServiceName(), value.getValue());
+
+    dcl.setValue(value);
+  }
+
+  /**
+   * Create data change listeners for output services. These data changes listeners are called
+   * by the subscription callback (see methods {@link #startEventLoop()} and
+   * {@link #updateDataChangeListeners(DataChangeListenerTable, List, List)}) or the cyclic
+   * reader and will update their associated output data services.
    *
    * @param serviceType type of output service
    * @param outputId name of output service
    * @param dataTypeId data type of associated OPC UA server variable
-   * @param handle handle of asscociated monitored item
+   * @param maxPublishRate maximum rate of updates of the output service in Hz (0 for no limit)
+   * @return data change listener
    */
-  private void addDataChangeListener(EDataServiceType serviceType, String outputId, 
-      int dataTypeId, UInteger handle) {
+  private IDataChangeListener createDataChangeListener(EDataServiceType serviceType,
+      String outputId, int dataTypeId, double maxPublishRate) {
+    IDataChangeListener dcl;
+
     switch (serviceType) {
       case DOUBLE:
-        dataChangeListeners.put(handle, new DataChangeListenerDouble(outputId, dataTypeId));
+        dcl = new DataChangeListenerDouble(outputId, dataTypeId);
         break;
       case LONG:
-        dataChangeListeners.put(handle, new DataChangeListenerLong(outputId, dataTypeId));
+        dcl = new DataChangeListenerLong(outputId, dataTypeId);
         break;
       case BOOLEAN:
-        dataChangeListeners.put(handle, new DataChangeListenerBoolean(outputId, dataTypeId));
+        dcl = new DataChangeListenerBoolean(outputId, dataTypeId);
         break;
       case STRING:
-        dataChangeListeners.put(handle, new DataChangeListenerString(outputId, dataTypeId));
+        dcl = new DataChangeListenerString(outputId, dataTypeId);
         break;
       default:
         // This case cannot happen, method EDataServiceType.fromString(...) would have thrown
         // an exception.
-        break;
+        throw new IllegalArgumentException(
+            String.format("Data service type not supported: '%1$s'", serviceType));
+    }
+
+    if (maxPublishRate > 0) {
+      // Excess updates are conflated to the latest value and flushed by a shared timer.
+      if (publishRateLimiter == null) {
+        publishRateLimiter = new PublishRateLimiter();
+      }
+
+      dcl = publishRateLimiter.limit(dcl, maxPublishRate);
+    }
+
+    return dcl;
+  }
+
+  /**
+   * Retrieve the filter for new values of an input from its configuration. Inputs can be
+   * configured to be written only on change or to apply a deadband (absolute or percent),
+   * the latter is only supported for numeric inputs.
+   *
+   * @param inputConfig input configuration data (JSON format)
+   * @param inputId name of input data service
+   * @param serviceType data type of input data service
+   * @return write filter (null in case no filter has been configured)
+   */
+  private WriteFilter getWriteFilter(JSONObject inputConfig, String inputId,
+      EDataServiceType serviceType) {
+    boolean writeOnChange = ConfigUtil.getOptionalConfigParam(
+        inputConfig, INPUT_WRITE_ON_CHANGE_TAG, false);
+    Number deadband = ConfigUtil.getOptionalConfigParam(
+        inputConfig, INPUT_DEADBAND_TAG, (Number) null);
+    String deadbandType = ConfigUtil.getOptionalConfigParam(
+        inputConfig, INPUT_DEADBAND_TYPE_TAG, "absolute");
+
+    if (deadband != null && serviceType != EDataServiceType.DOUBLE
+        && serviceType != EDataServiceType.LONG) {
+      logger.warn("deadband not supported for {} input {}, write only on change",
+          EDataServiceType.toString(serviceType), inputId);
+      deadband = null;
+      writeOnChange = true;
+    }
+
+    if (deadband == null && !writeOnChange) {
+      return null;
     }
+
+    return new WriteFilter(WriteFilter.EDeadbandType.fromString(deadbandType),
+        (deadband != null) ? deadband.doubleValue() : 0.0, writeStatistics);
   }
 
   /**
@@ -491,29 +1260,30 @@ public class BasicOpcUaClient extends OpcUaClientBase {
    * @param serviceType data type of input data service
    * @param nodeId node ID of associated OPC UA server variable
    * @param dataTypeId data type ID of associated OPC UA server variable
+   * @param writeFilter filter for new values (null for no filter)
    */
   @SuppressWarnings("unchecked")
   private void addStateChangeNotifier(LlService dataService, EDataServiceType serviceType,
-      NodeId nodeId, int dataTypeId) {
+      NodeId nodeId, int dataTypeId, WriteFilter writeFilter) {
     switch (serviceType) {
       case DOUBLE:
         dataService.addStateChangeNotifier(
-            new InputDataNotifierDouble(this, nodeId, dataTypeId)
+            new InputDataNotifierDouble(this, nodeId, dataTypeId, writeFilter)
         );
         break;
       case LONG:
         dataService.addStateChangeNotifier(
-            new InputDataNotifierLong(this, nodeId, dataTypeId)
+            new InputDataNotifierLong(this, nodeId, dataTypeId, writeFilter)
         );
         break;
       case BOOLEAN:
         dataService.addStateChangeNotifier(
-            new InputDataNotifierBoolean(this, nodeId, dataTypeId)
+            new InputDataNotifierBoolean(this, nodeId, dataTypeId, writeFilter)
         );
         break;
       case STRING:
         dataService.addStateChangeNotifier(
-            new InputDataNotifierString(this, nodeId, dataTypeId)
+            new InputDataNotifierString(this, nodeId, dataTypeId, writeFilter)
         );
         break;
       default:
@@ -522,4 +1292,91 @@ public class BasicOpcUaClient extends OpcUaClientBase {
         break;
     }
   }
+
+  /**
+   * Notification listener, which records the delay of the publish responses of a subscription.
+   */
+  private static class PublishStatisticsListener implements UaSubscription.NotificationListener {
+
+    /** Statistics of the publish responses. */
+    private final PublishStatistics statistics;
+
+    /**
+     * Constructor.
+     *
+     * @param statistics statistics of the publish responses
+     */
+    PublishStatisticsListener(PublishStatistics statistics) {
+      this.statistics = statistics;
+    }
+
+    @Override
+    public void onDataChangeNotification(UaSubscription subscription,
+        List<UaMonitoredItem> items, List<DataValue> values, DateTime publishTime) {
+      record(subscription, publishTime, false);
+    }
+
+    @Override
+    public void onKeepAliveNotification(UaSubscription subscription, DateTime publishTime) {
+      record(subscription, publishTime, true);
+    }
+
+    /**
+     * Record the delay from the publish time until now (in units of 100 nanoseconds).
+     *
+     * @param subscription subscription
+     * @param publishTime publish time set by the OPC UA server
+     * @param keepAlive true in case of a keep-alive publish response
+     */
+    private void record(UaSubscription subscription, DateTime publishTime, boolean keepAlive) {
+      long delayMicros = (DateTime.now().getUtcTime() - publishTime.getUtcTime()) / 10;
+      statistics.record(Math.max(delayMicros, 0),
+          subscription.getRevisedPublishingInterval(), keepAlive);
+    }
+  }
+
+  /**
+   * Subscription listener, which counts failed publish requests and lost notifications.
+   */
+  private class PublishFailureListener implements UaSubscriptionManager.SubscriptionListener {
+
+    @Override
+    public void onPublishFailure(UaException exception) {
+      publishFailures.increment();
+      logger.warn("publish request failed: {}", exception.getMessage());
+    }
+
+    @Override
+    public void onNotificationDataLost(UaSubscription subscription) {
+      for (Map.Entry<String, ManagedSubscription> entry : subscriptions.entrySet()) {
+        if (entry.getValue().getSubscription() == subscription) {
+          publishStatistics.get(entry.getKey()).countDataLost();
+          logger.warn("notifications lost for subscription group {}", entry.getKey());
+        }
+      }
+    }
+  }
+
+  /**
+   * Output for which a monitored item has to be created.
+   */
+  private static class PendingDataItem {
+
+    /** Node ID of the OPC UA server variable. */
+    final NodeId nodeId;
+
+    /** Data change listener of the output. */
+    final IDataChangeListener listener;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId node ID of the OPC UA server variable
+     * @param listener data change listener of the output
+     */
+    PendingDataItem(NodeId nodeId, IDataChangeListener listener) {
+      this.nodeId = nodeId;
+      this.listener = listener;
+    }
+  }
 }
@@ -0,0 +1,69 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Collection of helper functions for splitting bulk requests into chunks.
+ */
+public class ChunkUtil {
+
+  /**
+   * Split a bulk request into chunks of at most the given size. All chunks are requested
+   * concurrently, the results are concatenated in the order of the original request.
+   *
+   * @param <R> data type of the results
+   * @param itemCount total number of items of the bulk request
+   * @param maxChunkSize maximum number of items per chunk (0 for no limit)
+   * @param request function that issues the request for the items within the range
+   *   {@code [from, to)}
+   * @return completable future with list of results
+   */
+  public static <R> CompletableFuture<List<R>> requestChunked(int itemCount, int maxChunkSize,
+      BiFunction<Integer, Integer, CompletableFuture<List<R>>> request) {
+
+    if (maxChunkSize <= 0 || itemCount <= maxChunkSize) {
+      return request.apply(0, itemCount);
+    }
+
+    List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+
+    for (int from = 0; from < itemCount; from += maxChunkSize) {
+      chunks.add(request.apply(from, Math.min(from + maxChunkSize, itemCount)));
+    }
+
+    return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignore -> {
+          List<R> results = new ArrayList<>(itemCount);
+          for (CompletableFuture<List<R>> chunk : chunks) {
+            results.addAll(chunk.join());
+          }
+          return results;
+        });
+  }
+
+  /**
+   * Retrieve the number of chunks needed for a bulk request.
+   *
+   * @param itemCount total number of items of the bulk request
+   * @param maxChunkSize maximum number of items per chunk (0 for no limit)
+   * @return number of chunks
+   */
+  public static int getChunkCount(int itemCount, int maxChunkSize) {
+    if (maxChunkSize <= 0 || itemCount <= maxChunkSize) {
+      return (itemCount > 0) ? 1 : 0;
+    }
+
+    return (itemCount + maxChunkSize - 1) / maxChunkSize;
+  }
+}
@@ -465,6 +465,281 @@ public class DataTypeUtil {
     return Double.valueOf(str);
   }
 
+  /**
+   * Convert primitive double to boolean (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Boolean doubleToBoolean(double val) {
+    return ((int) val != 0);
+  }
+
+  /**
+   * Convert primitive double to byte (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Byte doubleToByte(double val) {
+    return (byte) val;
+  }
+
+  /**
+   * Convert primitive double to unsigned byte (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static UByte doubleToUByte(double val) {
+    return ubyte((byte) val);
+  }
+
+  /**
+   * Convert primitive double to short (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Short doubleToShort(double val) {
+    return (short) val;
+  }
+
+  /**
+   * Convert primitive double to unsigned short (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static UShort doubleToUShort(double val) {
+    return ushort((short) val);
+  }
+
+  /**
+   * Convert primitive double to integer (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Integer doubleToInt(double val) {
+    return (int) val;
+  }
+
+  /**
+   * Convert primitive double to unsigned integer (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static UInteger doubleToUInt(double val) {
+    return uint((int) val);
+  }
+
+  /**
+   * Convert primitive double to long (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Long doubleToLong(double val) {
+    return (long) val;
+  }
+
+  /**
+   * Convert primitive double to unsigned long (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static ULong doubleToULong(double val) {
+    return ulong((long) val);
+  }
+
+  /**
+   * Convert primitive double to float (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static Float doubleToFloat(double val) {
+    return (float) val;
+  }
+
+  /**
+   * Convert primitive double to string (without intermediate boxing).
+   * @param val double value
+   * @return converted value
+   */
+  public static String doubleToString(double val) {
+    return Double.toString(val);
+  }
+
+  /**
+   * Convert primitive long to boolean (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Boolean longToBoolean(long val) {
+    return ((int) val != 0);
+  }
+
+  /**
+   * Convert primitive long to byte (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Byte longToByte(long val) {
+    return (byte) val;
+  }
+
+  /**
+   * Convert primitive long to unsigned byte (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static UByte longToUByte(long val) {
+    return ubyte((byte) val);
+  }
+
+  /**
+   * Convert primitive long to short (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Short longToShort(long val) {
+    return (short) val;
+  }
+
+  /**
+   * Convert primitive long to unsigned short (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static UShort longToUShort(long val) {
+    return ushort((short) val);
+  }
+
+  /**
+   * Convert primitive long to integer (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Integer longToInt(long val) {
+    return (int) val;
+  }
+
+  /**
+   * Convert primitive long to unsigned integer (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static UInteger longToUInt(long val) {
+    return uint((int) val);
+  }
+
+  /**
+   * Convert primitive long to unsigned long (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static ULong longToULong(long val) {
+    return ulong((long) val);
+  }
+
+  /**
+   * Convert primitive long to float (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Float longToFloat(long val) {
+    return (float) val;
+  }
+
+  /**
+   * Convert primitive long to double (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static Double longToDouble(long val) {
+    return (double) val;
+  }
+
+  /**
+   * Convert primitive long to string (without intermediate boxing).
+   * @param val long value
+   * @return converted value
+   */
+  public static String longToString(long val) {
+    return Long.toString(val);
+  }
+
+  /**
+   * Extract primitive double from a numeric object (without intermediate boxing).
+   * @param obj data object (instance of Number)
+   * @return converted value
+   */
+  public static double numberToDoubleValue(Object obj) {
+    return ((Number) obj).doubleValue();
+  }
+
+  /**
+   * Extract primitive double from a boolean object (without intermediate boxing).
+   * @param obj data object (instance of Boolean)
+   * @return converted value
+   */
+  public static double booleanToDoubleValue(Object obj) {
+    return ((Boolean) obj) ? 1.d : 0.d;
+  }
+
+  /**
+   * Extract primitive double from a string object (without intermediate boxing).
+   * @param obj data object (instance of String)
+   * @return converted value
+   */
+  public static double stringToDoubleValue(Object obj) {
+    return Double.parseDouble((String) obj);
+  }
+
+  /**
+   * Extract primitive long from a numeric object (without intermediate boxing).
+   * @param obj data object (instance of Number)
+   * @return converted value
+   */
+  public static long numberToLongValue(Object obj) {
+    return ((Number) obj).longValue();
+  }
+
+  /**
+   * Extract primitive long from a boolean object (without intermediate boxing).
+   * @param obj data object (instance of Boolean)
+   * @return converted value
+   */
+  public static long booleanToLongValue(Object obj) {
+    return ((Boolean) obj) ? 1L : 0L;
+  }
+
+  /**
+   * Extract primitive long from a string object (without intermediate boxing).
+   * @param obj data object (instance of String)
+   * @return converted value
+   */
+  public static long stringToLongValue(Object obj) {
+    try {
+      return Long.parseLong((String) obj);
+    } catch (NumberFormatException ex) {
+      // The string probably contains a decimal point, try to convert to double first.
+      return (long) Double.parseDouble((String) obj);
+    }
+  }
+
+  /**
+   * Extract primitive boolean from a numeric object (without intermediate boxing).
+   * @param obj data object (instance of Number)
+   * @return converted value
+   */
+  public static boolean numberToBooleanValue(Object obj) {
+    return (((Number) obj).intValue() != 0);
+  }
+
+  /**
+   * Extract primitive boolean from a string object.
+   * @param obj data object (instance of String)
+   * @return converted value
+   */
+  public static boolean stringToBooleanValue(Object obj) {
+    return Boolean.parseBoolean((String) obj);
+  }
+
   /**
    * Convert object to string.
    * @param obj data object
@@ -0,0 +1,196 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import at.ac.ait.lablink.clients.opcuaclient.notifiers.WriteFilter.EDeadbandType;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
+
+import java.util.Objects;
+
+/**
+ * Class MonitoringSettings.
+ *
+ * <p>Parameters of the monitored item associated to an output, which are passed to the
+ * OPC UA server when the monitored item is created. Optionally, a data change filter (trigger
+ * and deadband) is applied by the OPC UA server, such that only relevant changes are reported
+ * to the client.
+ */
+public class MonitoringSettings {
+
+  /** Sampling interval (in milliseconds). */
+  private final double samplingInterval;
+
+  /** Size of the queue of the monitored item on the OPC UA server. */
+  private final long queueSize;
+
+  /** Discard the oldest (true) or the newest (false) value in case the queue is full. */
+  private final boolean discardOldest;
+
+  /** Data change filter (null in case no filter has been configured). */
+  private final DataChangeFilter dataChangeFilter;
+
+  /**
+   * Constructor (without data change filter).
+   *
+   * @param samplingInterval sampling interval (in milliseconds)
+   * @param queueSize size of the queue of the monitored item on the OPC UA server
+   * @param discardOldest discard the oldest value in case the queue is full
+   */
+  public MonitoringSettings(double samplingInterval, long queueSize, boolean discardOldest) {
+    this(samplingInterval, queueSize, discardOldest, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param samplingInterval sampling interval (in milliseconds)
+   * @param queueSize size of the queue of the monitored item on the OPC UA server
+   * @param discardOldest discard the oldest value in case the queue is full
+   * @param dataChangeFilter data change filter (null for no filter)
+   */
+  public MonitoringSettings(double samplingInterval, long queueSize, boolean discardOldest,
+      DataChangeFilter dataChangeFilter) {
+    if (samplingInterval < 0 || queueSize < 1) {
+      throw new IllegalArgumentException(
+          String.format("Invalid monitoring parameters (sampling interval: %1$s ms, "
+          + "queue size: %2$d)", samplingInterval, queueSize)
+      );
+    }
+
+    this.samplingInterval = samplingInterval;
+    this.queueSize = queueSize;
+    this.discardOldest = discardOldest;
+    this.dataChangeFilter = dataChangeFilter;
+  }
+
+  /**
+   * Create a data change filter.
+   *
+   * @param trigger label of the data change trigger (<code>status</code>,
+   *   <code>statusvalue</code> or <code>statusvaluetimestamp</code>)
+   * @param deadbandType type of deadband (null for no deadband)
+   * @param deadband deadband (absolute value or percentage of the EU range)
+   * @return data change filter
+   */
+  public static DataChangeFilter createDataChangeFilter(String trigger,
+      EDeadbandType deadbandType, double deadband) {
+    if (deadband < 0) {
+      throw new IllegalArgumentException(
+          String.format("Invalid deadband: %1$s", deadband)
+      );
+    }
+
+    DeadbandType type = DeadbandType.None;
+    if (deadbandType == EDeadbandType.ABSOLUTE) {
+      type = DeadbandType.Absolute;
+    } else if (deadbandType == EDeadbandType.PERCENT) {
+      type = DeadbandType.Percent;
+    }
+
+    return new DataChangeFilter(triggerFromString(trigger),
+        UInteger.valueOf(type.getValue()), (type != DeadbandType.None) ? deadband : 0.0);
+  }
+
+  /**
+   * Map data change trigger label (string) to data change trigger (enum).
+   *
+   * @param strTrigger data change trigger label (string)
+   * @return data change trigger (enum)
+   */
+  static DataChangeTrigger triggerFromString(String strTrigger) {
+    if (strTrigger.toLowerCase().equals("status")) {
+      return DataChangeTrigger.Status;
+    } else if (strTrigger.toLowerCase().equals("statusvalue")) {
+      return DataChangeTrigger.StatusValue;
+    } else if (strTrigger.toLowerCase().equals("statusvaluetimestamp")) {
+      return DataChangeTrigger.StatusValueTimestamp;
+    }
+
+    throw new IllegalArgumentException(
+        String.format("Data change trigger not supported: '%1$s'", strTrigger)
+    );
+  }
+
+  /**
+   * Get the sampling interval.
+   *
+   * @return sampling interval (in milliseconds)
+   */
+  public double getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Get the size of the queue of the monitored item on the OPC UA server.
+   *
+   * @return queue size
+   */
+  public long getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * Check whether the oldest value is discarded in case the queue is full.
+   *
+   * @return true if the oldest value is discarded, false if the newest value is discarded
+   */
+  public boolean isDiscardOldest() {
+    return discardOldest;
+  }
+
+  /**
+   * Get the data change filter.
+   *
+   * @return data change filter (null in case no filter has been configured)
+   */
+  public DataChangeFilter getDataChangeFilter() {
+    return dataChangeFilter;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof MonitoringSettings)) {
+      return false;
+    }
+
+    MonitoringSettings other = (MonitoringSettings) obj;
+    return Double.compare(samplingInterval, other.samplingInterval) == 0
+        && queueSize == other.queueSize
+        && discardOldest == other.discardOldest
+        && Objects.equals(dataChangeFilter, other.dataChangeFilter);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(samplingInterval, queueSize, discardOldest, dataChangeFilter);
+  }
+
+  @Override
+  public String toString() {
+    String str = String.format("SamplingInterval=%1$s ms, QueueSize=%2$d, DiscardOldest=%3$b",
+        samplingInterval, queueSize, discardOldest);
+
+    if (dataChangeFilter != null) {
+      str += String.format(", Trigger=%1$s, DeadbandType=%2$s, Deadband=%3$s",
+          dataChangeFilter.getTrigger(),
+          DeadbandType.from(dataChangeFilter.getDeadbandType().intValue()),
+          dataChangeFilter.getDeadbandValue());
+    }
+
+    return str;
+  }
+}
@@ -0,0 +1,254 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class NodeMetadataCache.
+ *
+ * <p>On-disk cache of the metadata of OPC UA server variables (data type and access level),
+ * which allows to skip the metadata discovery when the client is restarted. The cache is
+ * associated to an endpoint URL and a namespace URI. It is only valid as long as the server's
+ * namespace array and start time are unchanged, i.e., it is invalidated whenever the server
+ * restarts (its address space may have changed).
+ */
+public class NodeMetadataCache {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("NodeMetadataCache");
+
+  // Tags of the cache file (JSON format).
+  private static final String ENDPOINT_URL_TAG = "EndpointURL";
+  private static final String NAMESPACE_URI_TAG = "NamespaceURI";
+  private static final String NAMESPACE_ARRAY_TAG = "NamespaceArray";
+  private static final String SERVER_START_TIME_TAG = "ServerStartTime";
+  private static final String NODES_TAG = "Nodes";
+  private static final String DATA_TYPE_TAG = "DataType";
+  private static final String ACCESS_LEVEL_TAG = "AccessLevel";
+
+  /** Endpoint URL of the OPC UA server. */
+  private final String endpointUrl;
+
+  /** Namespace URI. */
+  private final String namespaceUri;
+
+  /** Namespace array of the OPC UA server. */
+  private final List<String> namespaceArray;
+
+  /** Start time of the OPC UA server (UTC time, in units of 100 nanoseconds). */
+  private final long serverStartTime;
+
+  /** Data type IDs (indexed by node ID). */
+  private final Map<NodeId, Integer> dataTypeIds = new LinkedHashMap<>();
+
+  /** Access levels (indexed by node ID). */
+  private final Map<NodeId, Integer> accessLevels = new LinkedHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param endpointUrl endpoint URL of the OPC UA server
+   * @param namespaceUri namespace URI
+   * @param namespaceArray namespace array of the OPC UA server
+   * @param serverStartTime start time of the OPC UA server (UTC time, in units of 100 ns)
+   */
+  public NodeMetadataCache(String endpointUrl, String namespaceUri, List<String> namespaceArray,
+      long serverStartTime) {
+    this.endpointUrl = endpointUrl;
+    this.namespaceUri = namespaceUri;
+    this.namespaceArray = new ArrayList<>(namespaceArray);
+    this.serverStartTime = serverStartTime;
+  }
+
+  /**
+   * Load the cache from a file.
+   *
+   * @param path path of the cache file
+   * @return cache (null in case the file does not exist or cannot be read)
+   */
+  public static NodeMetadataCache load(Path path) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      JSONObject json = (JSONObject) new JSONParser().parse(reader);
+
+      List<String> namespaceArray = new ArrayList<>();
+      for (Object namespace : (JSONArray) json.get(NAMESPACE_ARRAY_TAG)) {
+        namespaceArray.add((String) namespace);
+      }
+
+      NodeMetadataCache cache = new NodeMetadataCache(
+          (String) json.get(ENDPOINT_URL_TAG), (String) json.get(NAMESPACE_URI_TAG),
+          namespaceArray, ((Number) json.get(SERVER_START_TIME_TAG)).longValue());
+
+      JSONObject nodes = (JSONObject) json.get(NODES_TAG);
+      for (Object key : nodes.keySet()) {
+        JSONObject node = (JSONObject) nodes.get(key);
+        cache.put(NodeId.parse((String) key),
+            ((Number) node.get(DATA_TYPE_TAG)).intValue(),
+            ((Number) node.get(ACCESS_LEVEL_TAG)).intValue());
+      }
+
+      return cache;
+    } catch (IOException | ParseException | RuntimeException ex) {
+      logger.warn("Failed to load node metadata cache {}: {}", path, ex.toString());
+    }
+
+    return null;
+  }
+
+  /**
+   * Save the cache to a file. The file is replaced atomically.
+   *
+   * @param path path of the cache file
+   * @throws IOException writing the file failed
+   */
+  @SuppressWarnings("unchecked")
+  public void save(Path path) throws IOException {
+    JSONObject nodes = new JSONObject();
+    for (Map.Entry<NodeId, Integer> entry : dataTypeIds.entrySet()) {
+      JSONObject node = new JSONObject();
+      node.put(DATA_TYPE_TAG, entry.getValue());
+      node.put(ACCESS_LEVEL_TAG, accessLevels.get(entry.getKey()));
+      nodes.put(entry.getKey().toParseableString(), node);
+    }
+
+    JSONArray namespaces = new JSONArray();
+    namespaces.addAll(namespaceArray);
+
+    JSONObject json = new JSONObject();
+    json.put(ENDPOINT_URL_TAG, endpointUrl);
+    json.put(NAMESPACE_URI_TAG, namespaceUri);
+    json.put(NAMESPACE_ARRAY_TAG, namespaces);
+    json.put(SERVER_START_TIME_TAG, serverStartTime);
+    json.put(NODES_TAG, nodes);
+
+    Path absolutePath = path.toAbsolutePath();
+    Path tmpPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+
+    try (Writer writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+      json.writeJSONString(writer);
+    }
+
+    Files.move(tmpPath, absolutePath, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Check whether the cache is valid for the OPC UA server.
+   *
+   * @param endpointUrl endpoint URL of the OPC UA server
+   * @param namespaceUri namespace URI
+   * @param namespaceArray current namespace array of the OPC UA server
+   * @param serverStartTime current start time of the OPC UA server (UTC time, in units of
+   *   100 ns)
+   * @return true in case the cache is valid
+   */
+  public boolean isValidFor(String endpointUrl, String namespaceUri,
+      List<String> namespaceArray, long serverStartTime) {
+    return Objects.equals(this.endpointUrl, endpointUrl)
+        && Objects.equals(this.namespaceUri, namespaceUri)
+        && this.namespaceArray.equals(namespaceArray)
+        && this.serverStartTime == serverStartTime;
+  }
+
+  /**
+   * Get the namespace array of the OPC UA server.
+   *
+   * @return namespace array
+   */
+  public List<String> getNamespaceArray() {
+    return namespaceArray;
+  }
+
+  /**
+   * Get the start time of the OPC UA server.
+   *
+   * @return start time (UTC time, in units of 100 nanoseconds)
+   */
+  public long getServerStartTime() {
+    return serverStartTime;
+  }
+
+  /**
+   * Check whether the cache contains the metadata of all given nodes.
+   *
+   * @param nodeIds node IDs
+   * @return true in case the metadata of all nodes is cached
+   */
+  public boolean containsAll(Collection<NodeId> nodeIds) {
+    return dataTypeIds.keySet().containsAll(nodeIds);
+  }
+
+  /**
+   * Add the metadata of a node.
+   *
+   * @param nodeId node ID
+   * @param dataTypeId data type ID (OPC UA data type scheme)
+   * @param accessLevel access level
+   */
+  public void put(NodeId nodeId, int dataTypeId, int accessLevel) {
+    dataTypeIds.put(nodeId, dataTypeId);
+    accessLevels.put(nodeId, accessLevel);
+  }
+
+  /**
+   * Get the data type ID of a node.
+   *
+   * @param nodeId node ID
+   * @return data type ID (null in case the node is not cached)
+   */
+  public Integer getDataTypeId(NodeId nodeId) {
+    return dataTypeIds.get(nodeId);
+  }
+
+  /**
+   * Get the access level of a node.
+   *
+   * @param nodeId node ID
+   * @return access level (null in case the node is not cached)
+   */
+  public Integer getAccessLevel(NodeId nodeId) {
+    return accessLevels.get(nodeId);
+  }
+
+  /**
+   * Get the number of cached nodes.
+   *
+   * @return number of nodes
+   */
+  public int size() {
+    return dataTypeIds.size();
+  }
+}
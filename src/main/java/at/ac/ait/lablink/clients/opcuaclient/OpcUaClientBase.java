@@ -13,6 +13,16 @@ import at.ac.ait.lablink.clients.opcuaclient.services.DataServiceDouble;
 import at.ac.ait.lablink.clients.opcuaclient.services.DataServiceLong;
 import at.ac.ait.lablink.clients.opcuaclient.services.DataServiceString;
 import at.ac.ait.lablink.clients.opcuaclient.services.EDataServiceType;
+import at.ac.ait.lablink.clients.opcuaclient.writers.AsyncValueWriter;
+import at.ac.ait.lablink.clients.opcuaclient.writers.BatchingValueWriter;
+import at.ac.ait.lablink.clients.opcuaclient.writers.EWritePriority;
+import at.ac.ait.lablink.clients.opcuaclient.writers.PriorityValueWriter;
+import at.ac.ait.lablink.clients.opcuaclient.writers.StoreAndForwardBuffer;
+import at.ac.ait.lablink.clients.opcuaclient.writers.SyncValueWriter;
+import at.ac.ait.lablink.clients.opcuaclient.writers.ValueWriterBase;
+import at.ac.ait.lablink.clients.opcuaclient.writers.WriteJournal;
+import at.ac.ait.lablink.clients.opcuaclient.writers.WriteLatencyStatistics;
+import at.ac.ait.lablink.clients.opcuaclient.writers.WriteStatistics;
 
 import at.ac.ait.lablink.core.client.ci.mqtt.impl.MqttCommInterfaceUtility;
 import at.ac.ait.lablink.core.client.ex.ClientNotReadyException;
@@ -40,13 +50,21 @@ import org.apache.logging.log4j.Logger;
 
 // import org.eclipse.milo.opcua.sdk.client.DataTypeTreeBuilder;
 import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.SessionActivityListener;
+import org.eclipse.milo.opcua.sdk.client.api.UaSession;
 import org.eclipse.milo.opcua.sdk.client.nodes.UaVariableNode;
 // import org.eclipse.milo.opcua.sdk.core.DataTypeTree;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
 import org.eclipse.milo.opcua.stack.core.UaException;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
 import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -57,12 +75,27 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 /**
  * Class OpcUaClientBase.
@@ -94,12 +127,66 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
   protected static final String OPCUA_INPUT_CONFIG_TAG = "Input";
   protected static final String OPCUA_OUTPUT_CONFIG_TAG = "Output";
 
+  // Tags for writing values to the OPC UA server.
+  protected static final String OPCUA_ASYNC_WRITE_TAG = "AsyncWrite";
+  protected static final String OPCUA_MAX_PENDING_WRITES_TAG = "MaxPendingWrites";
+  protected static final String OPCUA_WRITE_BATCH_WINDOW_TAG = "WriteBatchWindow_ms";
+  protected static final String OPCUA_WRITE_BATCH_MAX_SIZE_TAG = "WriteBatchMaxSize";
+  protected static final String OPCUA_WRITE_CONFLATION_TAG = "WriteConflation";
+  protected static final String OPCUA_HIGH_PRIORITY_WRITE_BATCH_WINDOW_TAG =
+      "HighPriorityWriteBatchWindow_ms";
+
+  // Tags for buffering values while the connection to the OPC UA server is down.
+  protected static final String OPCUA_STORE_AND_FORWARD_TAG = "StoreAndForward";
+  protected static final String OPCUA_STORE_AND_FORWARD_MAX_BYTES_TAG =
+      "StoreAndForwardMaxBytes";
+  protected static final String OPCUA_STORE_AND_FORWARD_HISTORY_TAG = "StoreAndForwardHistory";
+  protected static final String OPCUA_STORE_AND_FORWARD_OVERFLOW_TAG =
+      "StoreAndForwardOverflow";
+
+  // Tags for the persistent journal of values written to the OPC UA server.
+  protected static final String OPCUA_WRITE_JOURNAL_TAG = "WriteJournal";
+  protected static final String OPCUA_WRITE_JOURNAL_MAX_BYTES_TAG = "WriteJournalMaxBytes";
+  protected static final String OPCUA_WRITE_JOURNAL_COMPACTION_THRESHOLD_TAG =
+      "WriteJournalCompactionThreshold";
+
+  // Tags for the persistent cache of node metadata.
+  protected static final String OPCUA_METADATA_CACHE_TAG = "MetadataCache";
+
   /** Flag for testing (write config and exit). */
   private static boolean writeConfigAndExitFlag;
 
   /** Lablink client instance. */
   protected LlClient client;
 
+  /** Writer for forwarding input values to the OPC UA server (one lane per priority). */
+  protected PriorityValueWriter valueWriter;
+
+  /** Counters for values written to the OPC UA server. */
+  protected final WriteStatistics writeStatistics = new WriteStatistics();
+
+  /** Buffer for values that cannot be written while the connection is down (optional). */
+  protected StoreAndForwardBuffer storeAndForwardBuffer;
+
+  /** Journal of values written to the OPC UA server, for replay after a restart (optional). */
+  protected WriteJournal writeJournal;
+
+  /** Data type IDs of OPC UA server variables, resolved at startup (indexed by node ID). */
+  private final Map<NodeId, Integer> dataTypeIds = new HashMap<>();
+
+  /** Access levels of OPC UA server variables, resolved at startup (indexed by node ID). */
+  private final Map<NodeId, Integer> accessLevels = new HashMap<>();
+
+  /** Path of the node metadata cache (null if not enabled). */
+  private Path metadataCachePath = null;
+
+  /** Name of the Lablink client (from the configuration). */
+  private String clientName;
+
+  /** Durations of the startup phases (in milliseconds, in order of completion). */
+  private final Map<String, Long> startupTimes =
+      Collections.synchronizedMap(new LinkedHashMap<>());
+
   /**
    * Constructor.
    *
@@ -146,52 +233,142 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
       java.lang.Exception,
       java.util.NoSuchElementException {
 
+    long startupStart = System.nanoTime();
+
     // Retrieve basic client configuration.
     JSONObject clientConfig = ConfigUtil.<JSONObject>getRequiredConfigParam(jsonConfig,
         CLIENT_CONFIG_TAG, String.format("Client configuration (JSON object with tag '%1$s') "
         + "is missing", CLIENT_CONFIG_TAG));
 
-    // Basic Lablink client configuration.
-    configureClient(clientConfig);
+    // The client name is taken directly from the configuration, because the Lablink client
+    // may not exist yet when the OPC UA client is created.
+    clientName = ConfigUtil.<String>getRequiredConfigParam(clientConfig,
+        CLIENT_NAME_TAG, String.format("Client name missing (%1$s)", CLIENT_NAME_TAG));
 
     // Retrieve config for OPC UA client.
     JSONObject opcuaClientConfig = ConfigUtil.<JSONObject>getRequiredConfigParam(jsonConfig,
         OPCUA_CONFIG_TAG, String.format("OPC UA client configuration (JSON object with tag "
         + "'%1$s') is missing", OPCUA_CONFIG_TAG));
 
-    // Basic configuration the OPC UA client.
-    configureOpcUaClient(opcuaClientConfig);
-
-    // Create and connect the OPC UA client.
-    createAndConnectOpcUaClient();
-
-    // Initialize and customized the newly created OPC UA client (implemented by child class).
-    initOpcUaClient(opcuaClientConfig);
-
     // Retrieve config for inputs.
     JSONArray inputConfigList = ConfigUtil.<JSONArray>getRequiredConfigParam(jsonConfig,
         OPCUA_INPUT_CONFIG_TAG, String.format("Lablink client input data service definitions "
         + "(JSON array with tag '%1$s') are missing", OPCUA_INPUT_CONFIG_TAG));
 
-    // Add inputs to the client (implemented by child class).
-    configureInputs(inputConfigList);
-
     // Retrieve config for outputs.
     JSONArray outputConfigList = ConfigUtil.<JSONArray>getRequiredConfigParam(jsonConfig,
         OPCUA_OUTPUT_CONFIG_TAG, String.format("Lablink client output data service definitions "
         + "(JSON array with tag '%1$s') are missing", OPCUA_OUTPUT_CONFIG_TAG));
 
+    // The basic Lablink client configuration does not depend on the OPC UA server, hence it
+    // is done by a separate thread while the OPC UA client connects to the server.
+    ExecutorService startupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "LablinkClientStartup");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    try {
+      Future<?> clientSetup = startupExecutor.submit(() -> {
+        runStartupPhase("configure Lablink client", () -> configureClient(clientConfig));
+        return null;
+      });
+
+      // Basic configuration the OPC UA client.
+      runStartupPhase("configure OPC UA client",
+          () -> configureOpcUaClient(opcuaClientConfig));
+
+      // Create and connect the OPC UA client.
+      runStartupPhase("connect OPC UA client", this::createAndConnectOpcUaClient);
+
+      // Initialize and customized the newly created OPC UA client (implemented by child class).
+      runStartupPhase("initialize OPC UA client", () -> initOpcUaClient(opcuaClientConfig));
+
+      // Configure how input values are written to the OPC UA server.
+      runStartupPhase("configure value writer", () -> configureValueWriter(opcuaClientConfig));
+
+      // Retrieve the data types of all configured OPC UA server variables at once (optionally
+      // from the node metadata cache).
+      String metadataCache = ConfigUtil.getOptionalConfigParam(
+          opcuaClientConfig, OPCUA_METADATA_CACHE_TAG, (String) null);
+      if (metadataCache != null) {
+        metadataCachePath = Paths.get(metadataCache);
+      }
+
+      runStartupPhase("resolve data types", () ->
+          resolveDataTypeIds(getConfiguredNodeIds(inputConfigList, outputConfigList)));
+
+      // The data services are added to the Lablink client, hence its configuration has to be
+      // completed at this point.
+      try {
+        clientSetup.get();
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof Exception) {
+          throw (Exception) ex.getCause();
+        }
+        throw ex;
+      }
+    } finally {
+      startupExecutor.shutdownNow();
+    }
+
+    // Add inputs to the client (implemented by child class).
+    runStartupPhase("configure inputs", () -> configureInputs(inputConfigList));
+
     // Add outputs to the client (implemented by child class).
-    configureOutputs(outputConfigList);
+    runStartupPhase("configure outputs", () -> configureOutputs(outputConfigList));
 
-    // Create the Lablink client.
-    client.create();
+    // Create, initialize and start the Lablink client (requires all data services).
+    runStartupPhase("start Lablink client", () -> {
+      client.create();
+      client.init();
+      client.start();
+    });
 
-    // Initialize the Lablink client.
-    client.init();
+    logger.info("startup of client {} completed in {} ms ({})", clientName,
+        (System.nanoTime() - startupStart) / 1000000, getStartupTimes());
+  }
 
-    // Start the Lablink client.
-    client.start();
+  /**
+   * Run a phase of the startup and record how long it took.
+   *
+   * @param name name of the phase
+   * @param phase startup phase
+   * @throws java.lang.Exception startup phase failed
+   */
+  private void runStartupPhase(String name, StartupPhase phase) throws Exception {
+    long start = System.nanoTime();
+    phase.run();
+    long duration = (System.nanoTime() - start) / 1000000;
+
+    logger.info("startup phase '{}' completed in {} ms", name, duration);
+    startupTimes.put(name, duration);
+  }
+
+  /**
+   * Get the durations of the startup phases completed so far.
+   *
+   * @return durations of the startup phases (in milliseconds, in order of completion)
+   */
+  private String getStartupTimes() {
+    StringBuilder times = new StringBuilder();
+    synchronized (startupTimes) {
+      for (Map.Entry<String, Long> entry : startupTimes.entrySet()) {
+        if (times.length() > 0) {
+          times.append(", ");
+        }
+        times.append(entry.getKey()).append(": ").append(entry.getValue()).append(" ms");
+      }
+    }
+    return times.toString();
+  }
+
+  /**
+   * Phase of the startup of the client.
+   */
+  @FunctionalInterface
+  private interface StartupPhase {
+    void run() throws Exception;
   }
 
   /**
@@ -223,6 +400,20 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
       at.ac.ait.lablink.core.client.ex.ServiceTypeDoesNotMatchClientType,
       org.eclipse.milo.opcua.stack.core.UaException;
 
+  /**
+   * Retrieve the node IDs of the OPC UA server variables associated to the inputs and outputs,
+   * whose data types are resolved before the inputs and outputs are configured. The default
+   * implementation returns an empty list, i.e., the data types are resolved on demand.
+   *
+   * @param inputConfigList input configuration data (JSON format)
+   * @param outputConfigList output configuration data (JSON format)
+   * @return list of node IDs
+   */
+  protected List<NodeId> getConfiguredNodeIds(JSONArray inputConfigList,
+      JSONArray outputConfigList) {
+    return new ArrayList<>();
+  }
+
   /**
    * Basic configuration of the Lablink client.
    *
@@ -278,6 +469,218 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
         scenarioName, groupName, clientName, llPropUri, llSyncUri, null);
   }
 
+  /**
+   * Configure the writer that forwards input values to the OPC UA server. By default, each
+   * write blocks until the OPC UA server has responded. In asynchronous mode, writes return
+   * immediately and the number of writes in flight is bounded. In case a batch window is
+   * specified, the values of all inputs are collected and written with a single request.
+   * Optionally, only the latest value per node is written (conflation), which requires
+   * batching (a default batch window is used if none is specified). Writes of high-priority
+   * inputs use a separate lane with its own batch window. In case a write journal
+   * is configured, values that have not been acknowledged by the OPC UA server before the
+   * last shutdown are written again.
+   *
+   * @param opcuaClientConfig configuration data (JSON format)
+   * @throws java.io.IOException write journal cannot be opened
+   */
+  protected void configureValueWriter(JSONObject opcuaClientConfig)
+      throws java.io.IOException {
+    writeJournal = configureWriteJournal(opcuaClientConfig);
+
+    BiFunction<List<NodeId>, List<DataValue>, CompletableFuture<List<StatusCode>>>
+        writeFunction = this::writeValue;
+
+    if (writeJournal != null) {
+      writeFunction = writeJournal.wrap(writeFunction);
+    }
+
+    boolean asyncWrite = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_ASYNC_WRITE_TAG, false);
+
+    long maxPendingWrites = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_MAX_PENDING_WRITES_TAG, 100L);
+
+    long batchWindow = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_BATCH_WINDOW_TAG, 0L);
+
+    long maxBatchSize = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_BATCH_MAX_SIZE_TAG, 1000L);
+
+    boolean conflate = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_CONFLATION_TAG, false);
+
+    if (conflate && batchWindow <= 0) {
+      batchWindow = 10L;
+    }
+
+    long highPriorityBatchWindow = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_HIGH_PRIORITY_WRITE_BATCH_WINDOW_TAG, 0L);
+
+    storeAndForwardBuffer = configureStoreAndForwardBuffer(opcuaClientConfig, writeFunction);
+
+    final long normalPriorityBatchWindow = batchWindow;
+
+    // Each priority class has its own lane, the lane for high-priority writes is only
+    // created in case there are high-priority inputs.
+    valueWriter = new PriorityValueWriter(writeFunction, (priority, laneWriteFunction) -> {
+      boolean highPriority = (priority == EWritePriority.HIGH);
+
+      ValueWriterBase writer = createValueWriter(laneWriteFunction,
+          highPriority ? highPriorityBatchWindow : normalPriorityBatchWindow,
+          maxBatchSize, maxPendingWrites, conflate, asyncWrite,
+          highPriority ? "high-priority" : "normal-priority");
+
+      writer.setStoreAndForwardBuffer(storeAndForwardBuffer);
+
+      return writer;
+    });
+
+    if (writeJournal != null) {
+      List<NodeId> ids = writeJournal.getRecoveredIds();
+      List<DataValue> dvs = writeJournal.getRecoveredValues();
+
+      if (!ids.isEmpty()) {
+        logger.info("Replaying {} value(s) from write journal", ids.size());
+      }
+
+      // The values are already recorded in the journal, do not append them again.
+      for (int i = 0; i < ids.size(); ++i) {
+        valueWriter.write(ids.get(i), dvs.get(i));
+      }
+    }
+  }
+
+  /**
+   * Create a value writer according to the configuration.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @param batchWindow time window for collecting values (in ms, 0 to disable batching)
+   * @param maxBatchSize maximum number of values per batch
+   * @param maxPendingWrites maximum number of writes (or batches) in flight
+   * @param conflate only write the latest value per node (requires batching)
+   * @param asyncWrite do not wait for the OPC UA server to respond
+   * @param label label used for logging
+   * @return value writer
+   */
+  protected ValueWriterBase createValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction, long batchWindow, long maxBatchSize,
+      long maxPendingWrites, boolean conflate, boolean asyncWrite, String label) {
+
+    if (batchWindow > 0) {
+      logger.info("Batched {} writes enabled (batch window: {} ms, max. batch size: {}, "
+          + "max. pending batches: {}, conflation: {})",
+          label, batchWindow, maxBatchSize, maxPendingWrites, conflate);
+
+      return new BatchingValueWriter(writeFunction, (int) maxPendingWrites,
+          batchWindow, (int) maxBatchSize, conflate);
+    } else if (asyncWrite) {
+      logger.info("Asynchronous {} writes enabled (max. pending writes: {})",
+          label, maxPendingWrites);
+
+      return new AsyncValueWriter(writeFunction, (int) maxPendingWrites);
+    }
+
+    return new SyncValueWriter(writeFunction);
+  }
+
+  /**
+   * Set the priority class for writing the values of an input to the OPC UA server.
+   *
+   * @param id node ID of the OPC UA server variable associated to the input
+   * @param priority priority class
+   */
+  protected void setWritePriority(NodeId id, EWritePriority priority) {
+    valueWriter.setPriority(id, priority);
+  }
+
+  /**
+   * Get the latency statistics for writing values of a priority class to the OPC UA server.
+   *
+   * @param priority priority class
+   * @return latency statistics
+   */
+  public WriteLatencyStatistics getWriteLatencyStatistics(EWritePriority priority) {
+    return valueWriter.getLatencyStatistics(priority);
+  }
+
+  /**
+   * Configure the journal of values written to the OPC UA server.
+   *
+   * @param opcuaClientConfig OPC UA client configuration (JSON format)
+   * @return write journal (null if not enabled)
+   * @throws java.io.IOException write journal cannot be opened
+   */
+  protected WriteJournal configureWriteJournal(JSONObject opcuaClientConfig)
+      throws java.io.IOException {
+    String journalPath = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_JOURNAL_TAG, "");
+
+    if (journalPath.isEmpty()) {
+      return null;
+    }
+
+    long maxBytes = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_JOURNAL_MAX_BYTES_TAG, 4194304L);
+
+    long compactionThreshold = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_WRITE_JOURNAL_COMPACTION_THRESHOLD_TAG, maxBytes / 2);
+
+    logger.info("Write journal enabled (file: {}, size: {} bytes, compaction threshold: {} "
+        + "bytes)", journalPath, maxBytes, compactionThreshold);
+
+    return new WriteJournal(Paths.get(journalPath), (int) maxBytes, (int) compactionThreshold,
+        writeStatistics);
+  }
+
+  /**
+   * Configure the buffer for values that cannot be written while the connection to the
+   * OPC UA server is down.
+   *
+   * @param opcuaClientConfig OPC UA client configuration (JSON format)
+   * @param writeFunction function for writing buffered values to the OPC UA server
+   * @return store-and-forward buffer (null if not enabled)
+   */
+  protected StoreAndForwardBuffer configureStoreAndForwardBuffer(JSONObject opcuaClientConfig,
+      BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction) {
+    boolean storeAndForward = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_STORE_AND_FORWARD_TAG, false);
+
+    if (!storeAndForward) {
+      return null;
+    }
+
+    long maxBytes = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_STORE_AND_FORWARD_MAX_BYTES_TAG, 16777216L);
+
+    long historySize = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_STORE_AND_FORWARD_HISTORY_TAG, 1L);
+
+    String overflow = ConfigUtil.getOptionalConfigParam(opcuaClientConfig,
+        OPCUA_STORE_AND_FORWARD_OVERFLOW_TAG, "drop-oldest");
+
+    logger.info("Store-and-forward enabled (memory budget: {} bytes, values per node: {}, "
+        + "overflow: {})", maxBytes, historySize, overflow);
+
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(writeFunction,
+        (int) historySize, maxBytes, StoreAndForwardBuffer.EOverflowPolicy.fromString(overflow),
+        writeStatistics);
+
+    opcUaClient.addSessionActivityListener(new SessionActivityListener() {
+      @Override
+      public void onSessionActive(UaSession session) {
+        buffer.onConnectionRestored();
+      }
+
+      @Override
+      public void onSessionInactive(UaSession session) {
+        buffer.onConnectionLost();
+      }
+    });
+
+    return buffer;
+  }
+
   /**
    * Create a new data service for this client (input or output).
    *
@@ -423,19 +826,204 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
    * @return the client name
    */
   protected String getClientName() {
-    return client.getName();
+    return clientName;
   }
 
   /**
-   * Write a new value for the variable associated to the given node ID to the OPC UA server.
+   * Write new values for the variables associated to the given node IDs to the OPC UA server.
+   * This method does not block and may be called concurrently, the OPC UA stack takes care of
+   * sending the requests. Requests exceeding the server's operation limits are split into
+   * chunks automatically.
    *
    * @param ids list of node IDs of the OPC UA server variables
    * @param dvs new data values
    * @return completable future with list of status codes
    */
-  public synchronized CompletableFuture<List<StatusCode>> 
-      writeValue(List<NodeId> ids, List<DataValue> dvs) {
-    return opcUaClient.writeValues(ids, dvs);
+  public CompletableFuture<List<StatusCode>> writeValue(List<NodeId> ids, List<DataValue> dvs) {
+    return writeValuesChunked(ids, dvs);
+  }
+
+  /**
+   * Write a new value for the variable associated to the given node ID to the OPC UA server.
+   * The value is forwarded to the configured value writer, which decides whether this call
+   * blocks until the OPC UA server has responded.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param dv new data value
+   */
+  public void writeValue(NodeId id, DataValue dv) {
+    if (writeJournal != null) {
+      writeJournal.append(id, dv);
+    }
+
+    valueWriter.write(id, dv);
+  }
+
+  /**
+   * Custom shutdown hook, which waits for pending writes to the OPC UA server. Overwrites
+   * default implementation from {@link OpcUaClientRunner#shutdownHook()}.
+   */
+  protected void shutdownHook() {
+    if (valueWriter != null) {
+      valueWriter.close();
+    }
+
+    if (storeAndForwardBuffer != null && storeAndForwardBuffer.getBufferedValueCount() > 0) {
+      logger.warn("Discarding {} buffered value(s) that could not be written",
+          storeAndForwardBuffer.getBufferedValueCount());
+    }
+
+    if (writeJournal != null) {
+      writeJournal.close();
+    }
+
+    logger.info("Write statistics: {}", writeStatistics);
+
+    super.shutdownHook();
+  }
+
+  /**
+   * Get the counters for values written to the OPC UA server.
+   *
+   * @return write statistics
+   */
+  public WriteStatistics getWriteStatistics() {
+    return writeStatistics;
+  }
+
+  /**
+   * Retrieve the data types and access levels of OPC UA server variables with a single
+   * (chunked) read request. The results are used by {@link #getDataTypeId(NodeId)} and
+   * {@link #getAccessLevel(NodeId)}, data types that could not be resolved this way are
+   * retrieved on demand. In case the node metadata cache is enabled and valid for the
+   * server, the metadata is taken from the cache instead.
+   *
+   * @param nodeIds node IDs of the OPC UA server variables
+   */
+  protected void resolveDataTypeIds(List<NodeId> nodeIds) {
+    List<NodeId> uniqueNodeIds = new ArrayList<>(new LinkedHashSet<>(nodeIds));
+    if (uniqueNodeIds.isEmpty()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+
+    // Identify the current state of the server (namespace array and start time), which
+    // determines whether the node metadata cache is valid.
+    NodeMetadataCache cache = null;
+    if (metadataCachePath != null) {
+      cache = createMetadataCache();
+      NodeMetadataCache cached = NodeMetadataCache.load(metadataCachePath);
+
+      if (cache != null && cached != null && cached.containsAll(uniqueNodeIds)
+          && cached.isValidFor(getEndpointUrl(), getNamespaceUri(),
+              cache.getNamespaceArray(), cache.getServerStartTime())) {
+        for (NodeId nodeId : uniqueNodeIds) {
+          dataTypeIds.put(nodeId, cached.getDataTypeId(nodeId));
+          accessLevels.put(nodeId, cached.getAccessLevel(nodeId));
+        }
+
+        logger.info("node metadata of {} nodes taken from cache in {} ms",
+            uniqueNodeIds.size(), (System.nanoTime() - start) / 1000000);
+        return;
+      }
+    }
+
+    // Read the DataType and AccessLevel attributes of each node.
+    List<ReadValueId> readValueIds = new ArrayList<>(2 * uniqueNodeIds.size());
+    for (NodeId nodeId : uniqueNodeIds) {
+      readValueIds.add(new ReadValueId(
+          nodeId, AttributeId.DataType.uid(), null, QualifiedName.NULL_VALUE));
+      readValueIds.add(new ReadValueId(
+          nodeId, AttributeId.AccessLevel.uid(), null, QualifiedName.NULL_VALUE));
+    }
+
+    List<DataValue> values;
+    try {
+      values = readChunked(readValueIds).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException ex) {
+      logger.warn("reading data types failed, resolving them on demand: {}",
+          ex.getCause().toString());
+      return;
+    }
+
+    for (int i = 0; i < uniqueNodeIds.size(); ++i) {
+      NodeId nodeId = uniqueNodeIds.get(i);
+      DataValue dataTypeValue = values.get(2 * i);
+      DataValue accessLevelValue = values.get(2 * i + 1);
+      Object dataType = dataTypeValue.getValue().getValue();
+      Object accessLevel = accessLevelValue.getValue().getValue();
+
+      if (dataTypeValue.getStatusCode().isGood() && dataType instanceof NodeId
+          && ((NodeId) dataType).getIdentifier() instanceof UInteger) {
+        UInteger dataTypeId = (UInteger) ((NodeId) dataType).getIdentifier();
+        dataTypeIds.put(nodeId, dataTypeId.intValue());
+
+        int accessLevelId = (accessLevelValue.getStatusCode().isGood()
+            && accessLevel instanceof Number) ? ((Number) accessLevel).intValue() : -1;
+        accessLevels.put(nodeId, accessLevelId);
+
+        if (cache != null) {
+          cache.put(nodeId, dataTypeId.intValue(), accessLevelId);
+        }
+      }
+    }
+
+    logger.info("resolved data types of {} of {} nodes with {} read requests in {} ms",
+        dataTypeIds.size(), uniqueNodeIds.size(),
+        ChunkUtil.getChunkCount(readValueIds.size(), getOperationLimits().getMaxNodesPerRead()),
+        (System.nanoTime() - start) / 1000000);
+
+    // Only complete metadata is cached, otherwise the discovery is repeated at the next start.
+    if (cache != null && cache.size() == uniqueNodeIds.size()) {
+      try {
+        cache.save(metadataCachePath);
+      } catch (IOException ex) {
+        logger.warn("Failed to save node metadata cache {}: {}", metadataCachePath,
+            ex.toString());
+      }
+    }
+  }
+
+  /**
+   * Create an empty node metadata cache for the current state of the OPC UA server, i.e.,
+   * read the server's namespace array and start time.
+   *
+   * @return node metadata cache (null in case the state of the server could not be read)
+   */
+  private NodeMetadataCache createMetadataCache() {
+    try {
+      List<DataValue> values = opcUaClient.readValues(0, TimestampsToReturn.Neither,
+          Arrays.asList(Identifiers.Server_NamespaceArray,
+              Identifiers.Server_ServerStatus_StartTime)).get();
+
+      String[] namespaces = (String[]) values.get(0).getValue().getValue();
+      DateTime startTime = (DateTime) values.get(1).getValue().getValue();
+
+      return new NodeMetadataCache(getEndpointUrl(), getNamespaceUri(),
+          Arrays.asList(namespaces), startTime.getUtcTime());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | RuntimeException ex) {
+      logger.warn("Failed to identify OPC UA server state, node metadata cache disabled: {}",
+          ex.toString());
+    }
+
+    return null;
+  }
+
+  /**
+   * Retrieve the access level of an OPC UA server variable, as resolved at startup.
+   *
+   * @param varNodeId node ID of the OPC UA server variable
+   * @return access level (-1 in case the access level is unknown)
+   */
+  public int getAccessLevel(NodeId varNodeId) {
+    Integer accessLevel = accessLevels.get(varNodeId);
+    return (accessLevel != null) ? accessLevel : -1;
   }
 
   /**
@@ -445,6 +1033,11 @@ public abstract class OpcUaClientBase extends OpcUaClientRunner {
    * @return data type ID (OPC UA data type scheme)
    */
   public int getDataTypeId(NodeId varNodeId) {
+    Integer resolvedDataTypeId = dataTypeIds.get(varNodeId);
+    if (resolvedDataTypeId != null) {
+      return resolvedDataTypeId;
+    }
+
     try {
       UaVariableNode varNode = opcUaClient.getAddressSpace().getVariableNode(varNodeId);
       NodeId varDataType = varNode.getDataType();
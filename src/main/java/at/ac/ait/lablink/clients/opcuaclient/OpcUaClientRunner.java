@@ -9,6 +9,7 @@
 package at.ac.ait.lablink.clients.opcuaclient;
 
 import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.eclipse.milo.opcua.stack.core.util.ConversionUtil.l;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -25,9 +26,11 @@ import org.eclipse.milo.opcua.stack.core.security.SecurityPolicy;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 
 import org.json.simple.JSONObject;
 
@@ -35,6 +38,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.Security;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
@@ -58,6 +62,8 @@ public abstract class OpcUaClientRunner {
   protected static final String OPCUA_CLIENT_URI_TAG = "ClientURI";
   protected static final String OPCUA_USER_TAG = "Username";
   protected static final String OPCUA_PWD_TAG = "Password";
+  protected static final String OPCUA_MAX_PENDING_PUBLISH_REQUESTS_TAG =
+      "MaxPendingPublishRequests";
 
   /** Logger. */
   protected static final Logger logger = LogManager.getLogger("OpcUaClientRunner");
@@ -86,6 +92,12 @@ public abstract class OpcUaClientRunner {
   /** Client URI. */
   private String password;
 
+  /** Maximum number of publish requests kept outstanding at the OPC UA server. */
+  private long maxPendingPublishRequests;
+
+  /** Operation limits of the OPC UA server (retrieved after connecting). */
+  private OperationLimits operationLimits = OperationLimits.UNLIMITED;
+
   /**
    * Start the event loop of the Lablink client.
    *
@@ -135,6 +147,21 @@ public abstract class OpcUaClientRunner {
     password = ConfigUtil.getOptionalConfigParam(
         opcuaClientConfig, OPCUA_PWD_TAG, null
     );
+
+    // Retrieve the number of outstanding publish requests. More outstanding requests allow
+    // the server to publish without delay in case of high network latency or many
+    // subscriptions.
+    Number maxPendingRequests = ConfigUtil.getOptionalConfigParam(
+        opcuaClientConfig, OPCUA_MAX_PENDING_PUBLISH_REQUESTS_TAG, (Number) 2L
+    );
+
+    if (maxPendingRequests.longValue() < 1) {
+      throw new IllegalArgumentException(String.format(
+          "invalid number of pending publish requests ('%1$s'): %2$s",
+          OPCUA_MAX_PENDING_PUBLISH_REQUESTS_TAG, maxPendingRequests));
+    }
+
+    maxPendingPublishRequests = maxPendingRequests.longValue();
   }
 
   /**
@@ -167,12 +194,15 @@ public abstract class OpcUaClientRunner {
               .setKeyPair(loader.getClientKeyPair())
               .setIdentityProvider(this.getIdentityProvider())
               .setRequestTimeout(uint(10000))
+              .setMaxPendingPublishRequests(uint(maxPendingPublishRequests))
               .build()
     );
     
     opcUaClient.connect().get();
     
     retrieveNamespaceIndexFromServer();
+
+    operationLimits = OperationLimits.read(opcUaClient);
   }
 
   /**
@@ -206,6 +236,34 @@ public abstract class OpcUaClientRunner {
     }
   }
 
+  /**
+   * Write new values to the OPC UA server. In case the number of values exceeds the server's
+   * operation limits, the request is split into compliant chunks, which are sent concurrently.
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs new data values
+   * @return completable future with list of status codes (same order as node IDs)
+   */
+  protected CompletableFuture<List<StatusCode>> writeValuesChunked(
+      List<NodeId> ids, List<DataValue> dvs) {
+    return ChunkUtil.requestChunked(ids.size(), operationLimits.getMaxNodesPerWrite(),
+        (from, to) -> opcUaClient.writeValues(ids.subList(from, to), dvs.subList(from, to)));
+  }
+
+  /**
+   * Read attributes from the OPC UA server. In case the number of attributes exceeds the
+   * server's operation limits, the request is split into compliant chunks, which are sent
+   * concurrently.
+   *
+   * @param readValueIds attributes to be read
+   * @return completable future with list of values (same order as read value IDs)
+   */
+  protected CompletableFuture<List<DataValue>> readChunked(List<ReadValueId> readValueIds) {
+    return ChunkUtil.requestChunked(readValueIds.size(), operationLimits.getMaxNodesPerRead(),
+        (from, to) -> opcUaClient.read(0, TimestampsToReturn.Neither,
+            readValueIds.subList(from, to)).thenApply(response -> l(response.getResults())));
+  }
+
   /**
    * Run the OPC UA client.
    */
@@ -261,10 +319,18 @@ public abstract class OpcUaClientRunner {
     return endpointUrl;
   }
 
+  protected String getNamespaceUri() {
+    return namespaceUri;
+  }
+
   protected int getNamespaceIndex() {
     return namespaceIndex.intValue();
   }
 
+  protected OperationLimits getOperationLimits() {
+    return operationLimits;
+  }
+
   protected Predicate<EndpointDescription> endpointFilter() {
     return ef -> true;  // FIXME: make configurable via configureOpcUaClient(...)
   }
@@ -0,0 +1,146 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class OperationLimits.
+ *
+ * <p>Operation limits of an OPC UA server, i.e., the maximum number of nodes per service
+ * call. A value of zero means that the server does not impose a limit.
+ */
+public class OperationLimits {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("OperationLimits");
+
+  /** Operation limits in case the server does not impose any limits. */
+  public static final OperationLimits UNLIMITED = new OperationLimits(0, 0, 0);
+
+  /** Maximum number of nodes per read request. */
+  private final int maxNodesPerRead;
+
+  /** Maximum number of nodes per write request. */
+  private final int maxNodesPerWrite;
+
+  /** Maximum number of monitored items per create/modify/delete request. */
+  private final int maxMonitoredItemsPerCall;
+
+  /**
+   * Constructor.
+   *
+   * @param maxNodesPerRead maximum number of nodes per read request (0 for no limit)
+   * @param maxNodesPerWrite maximum number of nodes per write request (0 for no limit)
+   * @param maxMonitoredItemsPerCall maximum number of monitored items per call (0 for no limit)
+   */
+  public OperationLimits(int maxNodesPerRead, int maxNodesPerWrite,
+      int maxMonitoredItemsPerCall) {
+    this.maxNodesPerRead = maxNodesPerRead;
+    this.maxNodesPerWrite = maxNodesPerWrite;
+    this.maxMonitoredItemsPerCall = maxMonitoredItemsPerCall;
+  }
+
+  /**
+   * Read the operation limits from the OPC UA server. Limits that cannot be read are
+   * treated as unlimited.
+   *
+   * @param opcUaClient connected OPC UA client
+   * @return operation limits of the OPC UA server
+   */
+  public static OperationLimits read(OpcUaClient opcUaClient) {
+    List<NodeId> limitNodeIds = Arrays.asList(
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerRead,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerWrite,
+        Identifiers.Server_ServerCapabilities_OperationLimits_MaxMonitoredItemsPerCall
+    );
+
+    try {
+      List<DataValue> values = opcUaClient.readValues(
+          0, TimestampsToReturn.Neither, limitNodeIds).get();
+
+      OperationLimits limits = new OperationLimits(
+          toLimit(values.get(0)), toLimit(values.get(1)), toLimit(values.get(2))
+      );
+
+      logger.info("OPC UA server operation limits: {}", limits);
+
+      return limits;
+    } catch (Exception ex) {
+      logger.warn("Failed to read OPC UA server operation limits: {}", ex.toString());
+    }
+
+    return UNLIMITED;
+  }
+
+  /**
+   * Get the maximum number of nodes per read request.
+   *
+   * @return maximum number of nodes (0 for no limit)
+   */
+  public int getMaxNodesPerRead() {
+    return maxNodesPerRead;
+  }
+
+  /**
+   * Get the maximum number of nodes per write request.
+   *
+   * @return maximum number of nodes (0 for no limit)
+   */
+  public int getMaxNodesPerWrite() {
+    return maxNodesPerWrite;
+  }
+
+  /**
+   * Get the maximum number of monitored items per create/modify/delete request.
+   *
+   * @return maximum number of monitored items (0 for no limit)
+   */
+  public int getMaxMonitoredItemsPerCall() {
+    return maxMonitoredItemsPerCall;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MaxNodesPerRead=%1$d, MaxNodesPerWrite=%2$d, "
+        + "MaxMonitoredItemsPerCall=%3$d", maxNodesPerRead, maxNodesPerWrite,
+        maxMonitoredItemsPerCall);
+  }
+
+  /**
+   * Convert the value of an operation limit variable to a limit.
+   *
+   * @param value value read from the OPC UA server
+   * @return limit (0 for no limit)
+   */
+  private static int toLimit(DataValue value) {
+    if (value.getStatusCode() == null || !value.getStatusCode().isGood()) {
+      return 0;
+    }
+
+    Object limit = value.getValue().getValue();
+
+    if (limit instanceof Number) {
+      long longLimit = ((Number) limit).longValue();
+      return (longLimit > 0 && longLimit < Integer.MAX_VALUE) ? (int) longLimit : 0;
+    }
+
+    return 0;
+  }
+}
@@ -0,0 +1,140 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class PublishStatistics.
+ *
+ * <p>Statistics of the publish responses received for a subscription. For each publish
+ * response (data change notifications or keep-alive), the delay from the publish time set by
+ * the OPC UA server until the response has been received by the client is recorded. This
+ * delay includes the transmission time of the response and the time the response waited for
+ * an outstanding publish request on the server (as well as the clock offset between server
+ * and client). Publish responses with a delay exceeding the publishing interval are counted
+ * as late, which indicates that more publish requests should be kept outstanding. The
+ * statistics may be updated concurrently.
+ */
+public class PublishStatistics {
+
+  /** Number of publish responses with data change notifications. */
+  private final LongAdder notifications = new LongAdder();
+
+  /** Number of keep-alive publish responses. */
+  private final LongAdder keepAlives = new LongAdder();
+
+  /** Number of late publish responses. */
+  private final LongAdder late = new LongAdder();
+
+  /** Number of times notifications have been lost (sequence number gaps). */
+  private final LongAdder dataLost = new LongAdder();
+
+  /** Sum of the delays (in microseconds). */
+  private final LongAdder totalMicros = new LongAdder();
+
+  /** Maximum delay (in microseconds). */
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Record a publish response.
+   *
+   * @param delayMicros delay from publish time until receipt (in microseconds)
+   * @param publishingInterval revised publishing interval of the subscription (in ms)
+   * @param keepAlive true in case of a keep-alive publish response
+   */
+  public void record(long delayMicros, double publishingInterval, boolean keepAlive) {
+    if (keepAlive) {
+      keepAlives.increment();
+    } else {
+      notifications.increment();
+    }
+
+    if (delayMicros > publishingInterval * 1000) {
+      late.increment();
+    }
+
+    totalMicros.add(delayMicros);
+
+    long max = maxMicros.get();
+    while (delayMicros > max && !maxMicros.compareAndSet(max, delayMicros)) {
+      max = maxMicros.get();
+    }
+  }
+
+  /**
+   * Count a loss of notifications.
+   */
+  public void countDataLost() {
+    dataLost.increment();
+  }
+
+  /**
+   * Get the number of publish responses with data change notifications.
+   *
+   * @return number of publish responses
+   */
+  public long getNotificationCount() {
+    return notifications.sum();
+  }
+
+  /**
+   * Get the number of keep-alive publish responses.
+   *
+   * @return number of keep-alive responses
+   */
+  public long getKeepAliveCount() {
+    return keepAlives.sum();
+  }
+
+  /**
+   * Get the number of late publish responses.
+   *
+   * @return number of late publish responses
+   */
+  public long getLateCount() {
+    return late.sum();
+  }
+
+  /**
+   * Get the number of times notifications have been lost.
+   *
+   * @return number of losses
+   */
+  public long getDataLostCount() {
+    return dataLost.sum();
+  }
+
+  /**
+   * Get the mean delay of the publish responses.
+   *
+   * @return mean delay (in milliseconds)
+   */
+  public double getMeanDelay() {
+    long responses = notifications.sum() + keepAlives.sum();
+    return (responses > 0) ? totalMicros.sum() / 1000.0 / responses : 0;
+  }
+
+  /**
+   * Get the maximum delay of the publish responses.
+   *
+   * @return maximum delay (in milliseconds)
+   */
+  public double getMaxDelay() {
+    return maxMicros.get() / 1000.0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("notifications=%1$d, keepAlives=%2$d, late=%3$d, dataLost=%4$d, "
+        + "meanDelay=%5$.3f ms, maxDelay=%6$.3f ms", getNotificationCount(), getKeepAliveCount(),
+        getLateCount(), getDataLostCount(), getMeanDelay(), getMaxDelay());
+  }
+}
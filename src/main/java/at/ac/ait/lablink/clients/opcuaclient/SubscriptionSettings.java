@@ -0,0 +1,159 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+/**
+ * Class SubscriptionSettings.
+ *
+ * <p>Parameters of a subscription to the OPC UA server, which are passed to the server when
+ * the subscription is created. Outputs are grouped into several subscriptions, such that
+ * each group is published at its own rate.
+ */
+public class SubscriptionSettings {
+
+  /** Targeted period between keep-alive messages (in milliseconds). */
+  static final double KEEP_ALIVE_PERIOD_MS = 10000;
+
+  /** Minimum ratio between lifetime count and keep-alive count (see OPC UA part 4). */
+  static final long LIFETIME_TO_KEEP_ALIVE_RATIO = 3;
+
+  /** Publishing interval (in milliseconds). */
+  private final double publishingInterval;
+
+  /** Number of publishing intervals without notifications before a keep-alive is sent. */
+  private final long maxKeepAliveCount;
+
+  /** Number of publishing intervals without publish requests before the subscription expires. */
+  private final long lifetimeCount;
+
+  /** Maximum number of notifications per publish response (0 for no limit). */
+  private final long maxNotificationsPerPublish;
+
+  /** Relative priority of the subscription (0 to 255). */
+  private final int priority;
+
+  /**
+   * Constructor.
+   *
+   * @param publishingInterval publishing interval (in milliseconds)
+   * @param maxKeepAliveCount maximum keep-alive count
+   * @param lifetimeCount lifetime count
+   * @param maxNotificationsPerPublish maximum number of notifications per publish response
+   *   (0 for no limit)
+   * @param priority relative priority of the subscription (0 to 255)
+   */
+  public SubscriptionSettings(double publishingInterval, long maxKeepAliveCount,
+      long lifetimeCount, long maxNotificationsPerPublish, int priority) {
+    if (publishingInterval < 0 || maxKeepAliveCount < 1
+        || lifetimeCount < LIFETIME_TO_KEEP_ALIVE_RATIO * maxKeepAliveCount
+        || maxNotificationsPerPublish < 0 || priority < 0 || priority > 255) {
+      throw new IllegalArgumentException(
+          String.format("Invalid subscription parameters (publishing interval: %1$s ms, "
+          + "keep-alive count: %2$d, lifetime count: %3$d, max. notifications per publish: "
+          + "%4$d, priority: %5$d)", publishingInterval, maxKeepAliveCount, lifetimeCount,
+          maxNotificationsPerPublish, priority)
+      );
+    }
+
+    this.publishingInterval = publishingInterval;
+    this.maxKeepAliveCount = maxKeepAliveCount;
+    this.lifetimeCount = lifetimeCount;
+    this.maxNotificationsPerPublish = maxNotificationsPerPublish;
+    this.priority = priority;
+  }
+
+  /**
+   * Create the parameters of a subscription. Keep-alive and lifetime counts that are not
+   * specified are set to default values: a keep-alive approximately every 10 seconds and a
+   * lifetime count of three times the keep-alive count.
+   *
+   * @param publishingInterval publishing interval (in milliseconds)
+   * @param maxKeepAliveCount maximum keep-alive count (null for default)
+   * @param lifetimeCount lifetime count (null for default)
+   * @param maxNotificationsPerPublish maximum number of notifications per publish response
+   *   (0 for no limit)
+   * @param priority relative priority of the subscription (0 to 255)
+   * @return parameters of the subscription
+   */
+  public static SubscriptionSettings forPublishingInterval(double publishingInterval,
+      Long maxKeepAliveCount, Long lifetimeCount, long maxNotificationsPerPublish,
+      int priority) {
+    long keepAlive = (maxKeepAliveCount != null)
+        ? maxKeepAliveCount : defaultMaxKeepAliveCount(publishingInterval);
+    long lifetime = (lifetimeCount != null)
+        ? lifetimeCount : LIFETIME_TO_KEEP_ALIVE_RATIO * keepAlive;
+
+    return new SubscriptionSettings(publishingInterval, keepAlive, lifetime,
+        maxNotificationsPerPublish, priority);
+  }
+
+  /**
+   * Calculate the default keep-alive count for a publishing interval, such that a keep-alive
+   * message is sent approximately every 10 seconds.
+   *
+   * @param publishingInterval publishing interval (in milliseconds)
+   * @return maximum keep-alive count
+   */
+  public static long defaultMaxKeepAliveCount(double publishingInterval) {
+    return Math.max(1, (long) Math.ceil(KEEP_ALIVE_PERIOD_MS / Math.max(publishingInterval, 1)));
+  }
+
+  /**
+   * Get the publishing interval.
+   *
+   * @return publishing interval (in milliseconds)
+   */
+  public double getPublishingInterval() {
+    return publishingInterval;
+  }
+
+  /**
+   * Get the maximum keep-alive count.
+   *
+   * @return maximum keep-alive count
+   */
+  public long getMaxKeepAliveCount() {
+    return maxKeepAliveCount;
+  }
+
+  /**
+   * Get the lifetime count.
+   *
+   * @return lifetime count
+   */
+  public long getLifetimeCount() {
+    return lifetimeCount;
+  }
+
+  /**
+   * Get the maximum number of notifications per publish response.
+   *
+   * @return maximum number of notifications (0 for no limit)
+   */
+  public long getMaxNotificationsPerPublish() {
+    return maxNotificationsPerPublish;
+  }
+
+  /**
+   * Get the relative priority of the subscription.
+   *
+   * @return priority (0 to 255)
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("PublishingInterval=%1$s ms, MaxKeepAliveCount=%2$d, "
+        + "LifetimeCount=%3$d, MaxNotificationsPerPublish=%4$d, Priority=%5$d",
+        publishingInterval, maxKeepAliveCount, lifetimeCount, maxNotificationsPerPublish,
+        priority);
+  }
+}
@@ -0,0 +1,39 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.dispatchers;
+
+/**
+ * Enumeration of backpressure policies, which determine how the notification dispatcher
+ * behaves in case its queue is full.
+ */
+public enum EBackpressurePolicy {
+
+  BLOCK,
+  DROP_OLDEST,
+  CONFLATE;
+
+  /**
+   * Map backpressure policy label (string) to backpressure policy (enum).
+   * @param strPolicy backpressure policy label (string)
+   * @return backpressure policy (enum)
+   */
+  public static EBackpressurePolicy fromString(String strPolicy) {
+    if (strPolicy.toLowerCase().equals("block")) {
+      return BLOCK;
+    } else if (strPolicy.toLowerCase().equals("drop-oldest")) {
+      return DROP_OLDEST;
+    } else if (strPolicy.toLowerCase().equals("conflate")) {
+      return CONFLATE;
+    }
+
+    throw new IllegalArgumentException(
+        String.format("Backpressure policy not supported: '%1$s'", strPolicy)
+    );
+  }
+}
@@ -0,0 +1,384 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.dispatchers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Class NotificationDispatcher.
+ *
+ * <p>Decouples the handling of data change notifications from the threads of the OPC UA
+ * stack. Notifications received from the OPC UA server are put into a bounded queue and
+ * handed to the handler (i.e., the data change listeners, which update the output data
+ * services) by a dedicated dispatcher thread. Hence, slow consumers do not delay the
+ * processing of publish responses.
+ *
+ * <p>In case the queue is full, the backpressure policy determines whether the OPC UA stack
+ * thread is blocked until there is room in the queue or the oldest notification is dropped.
+ * Alternatively, pending notifications are conflated, i.e., only the latest value per key
+ * (output) is kept. Conflation never blocks: the queue holds at most one notification per
+ * key, hence it is bounded by the number of keys instead of the capacity. With a queue
+ * capacity of zero, notifications are handled directly by the calling thread.
+ *
+ * @param <K> type of the key associated to a notification (e.g., a data change listener)
+ */
+public class NotificationDispatcher<K> {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("NotificationDispatcher");
+
+  /** Maximum time to wait for the dispatcher thread to finish when closing (in ms). */
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  /** Handler for notifications. */
+  private final BiConsumer<K, DataValue> handler;
+
+  /** Maximum number of pending notifications. */
+  private final int capacity;
+
+  /** Behavior in case the queue is full. */
+  private final EBackpressurePolicy policy;
+
+  /** Pending notifications (policies block and drop-oldest). */
+  private final ArrayDeque<K> queuedKeys = new ArrayDeque<>();
+  private final ArrayDeque<DataValue> queuedValues = new ArrayDeque<>();
+
+  /** Pending notifications, latest value per key (policy conflate). */
+  private final LinkedHashMap<K, DataValue> conflated = new LinkedHashMap<>();
+
+  /** Dispatcher thread (null in case notifications are handled directly). */
+  private final Thread dispatcherThread;
+
+  /** Flag indicating that the dispatcher has been closed. */
+  private boolean closed = false;
+
+  /** Maximum number of pending notifications observed. */
+  private int maxQueueDepth = 0;
+
+  /** Number of notifications passed to the handler. */
+  private long dispatchedCount = 0;
+
+  /** Number of notifications dropped because the queue was full. */
+  private long droppedCount = 0;
+
+  /** Number of notifications replaced by a more recent value for the same key. */
+  private long conflatedCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param handler handler for notifications
+   * @param capacity maximum number of pending notifications (zero for direct handling), not
+   *   applied in case of conflation
+   * @param policy behavior in case the queue is full
+   */
+  public NotificationDispatcher(BiConsumer<K, DataValue> handler, int capacity,
+      EBackpressurePolicy policy) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException(
+          String.format("Invalid dispatcher queue capacity: %1$d", capacity)
+      );
+    }
+
+    this.handler = handler;
+    this.capacity = capacity;
+    this.policy = policy;
+
+    if (capacity > 0) {
+      dispatcherThread = new Thread(this::run, "NotificationDispatcher");
+      dispatcherThread.setDaemon(true);
+      dispatcherThread.start();
+    } else {
+      dispatcherThread = null;
+    }
+  }
+
+  /**
+   * Dispatch a notification.
+   *
+   * @param key key associated to the notification
+   * @param value new value
+   */
+  public void dispatch(K key, DataValue value) {
+    if (dispatcherThread == null) {
+      handle(key, value);
+      synchronized (this) {
+        ++dispatchedCount;
+      }
+      return;
+    }
+
+    synchronized (this) {
+      enqueue(key, value);
+    }
+  }
+
+  /**
+   * Dispatch all notifications of a batch (e.g., of one publish response) at once. The
+   * notifications are queued in a single pass and are handed to the handler by the dispatcher
+   * thread in a single pass, instead of waking up the dispatcher thread for each notification.
+   *
+   * @param keys keys associated to the notifications
+   * @param values new values
+   */
+  public void dispatchAll(List<K> keys, List<DataValue> values) {
+    if (dispatcherThread == null) {
+      for (int i = 0; i < keys.size(); ++i) {
+        handle(keys.get(i), values.get(i));
+      }
+      synchronized (this) {
+        dispatchedCount += keys.size();
+      }
+      return;
+    }
+
+    synchronized (this) {
+      for (int i = 0; i < keys.size(); ++i) {
+        enqueue(keys.get(i), values.get(i));
+      }
+    }
+  }
+
+  /**
+   * Get the number of pending notifications.
+   *
+   * @return queue depth
+   */
+  public synchronized int getQueueDepth() {
+    return size();
+  }
+
+  /**
+   * Get the maximum number of pending notifications observed so far.
+   *
+   * @return maximum queue depth
+   */
+  public synchronized int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  /**
+   * Get the number of notifications passed to the handler.
+   *
+   * @return number of dispatched notifications
+   */
+  public synchronized long getDispatchedCount() {
+    return dispatchedCount;
+  }
+
+  /**
+   * Get the number of notifications dropped because the queue was full (or the dispatcher
+   * has been closed).
+   *
+   * @return number of dropped notifications
+   */
+  public synchronized long getDroppedCount() {
+    return droppedCount;
+  }
+
+  /**
+   * Get the number of notifications that have been replaced by a more recent value.
+   *
+   * @return number of conflated notifications
+   */
+  public synchronized long getConflatedCount() {
+    return conflatedCount;
+  }
+
+  /**
+   * Close the dispatcher. Pending notifications are handled before the dispatcher thread
+   * terminates, new notifications are dropped.
+   */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+    }
+
+    if (dispatcherThread != null) {
+      try {
+        dispatcherThread.join(CLOSE_TIMEOUT_MS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "policy=%1$s, depth=%2$d, maxDepth=%3$d, dispatched=%4$d, dropped=%5$d, conflated=%6$d",
+        policy.toString().toLowerCase(), size(), maxQueueDepth, dispatchedCount, droppedCount,
+        conflatedCount);
+  }
+
+  /**
+   * Main loop of the dispatcher thread.
+   */
+  private void run() {
+    List<K> keys = new ArrayList<>();
+    List<DataValue> values = new ArrayList<>();
+
+    while (true) {
+      synchronized (this) {
+        while (size() == 0 && !closed) {
+          try {
+            wait();
+          } catch (InterruptedException ex) {
+            return;
+          }
+        }
+
+        if (size() == 0) {
+          return;
+        }
+
+        // Retrieve all pending notifications at once.
+        if (policy == EBackpressurePolicy.CONFLATE) {
+          Iterator<Map.Entry<K, DataValue>> iter = conflated.entrySet().iterator();
+          while (iter.hasNext()) {
+            Map.Entry<K, DataValue> entry = iter.next();
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+            iter.remove();
+          }
+        } else {
+          keys.addAll(queuedKeys);
+          values.addAll(queuedValues);
+          queuedKeys.clear();
+          queuedValues.clear();
+        }
+
+        // Producers may be waiting for room in the queue.
+        notifyAll();
+      }
+
+      for (int i = 0; i < keys.size(); ++i) {
+        handle(keys.get(i), values.get(i));
+      }
+
+      synchronized (this) {
+        dispatchedCount += keys.size();
+      }
+
+      keys.clear();
+      values.clear();
+    }
+  }
+
+  /**
+   * Pass a notification to the handler.
+   *
+   * @param key key associated to the notification
+   * @param value new value
+   */
+  private void handle(K key, DataValue value) {
+    try {
+      handler.accept(key, value);
+    } catch (RuntimeException ex) {
+      logger.warn("handling of notification failed: {}", ex.toString());
+    }
+  }
+
+  /**
+   * Put a notification into the queue. Has to be called while holding the lock.
+   *
+   * @param key key associated to the notification
+   * @param value new value
+   */
+  private void enqueue(K key, DataValue value) {
+    if (closed) {
+      countDropped();
+      return;
+    }
+
+    if (policy == EBackpressurePolicy.CONFLATE) {
+      // The number of pending notifications is bounded by the number of keys, hence the
+      // OPC UA stack thread is never blocked.
+      if (conflated.put(key, value) != null) {
+        ++conflatedCount;
+        return;
+      }
+    } else {
+      if (size() >= capacity) {
+        if (policy == EBackpressurePolicy.DROP_OLDEST) {
+          queuedKeys.poll();
+          queuedValues.poll();
+          countDropped();
+        } else if (!awaitRoom()) {
+          countDropped();
+          return;
+        }
+      }
+
+      queuedKeys.add(key);
+      queuedValues.add(value);
+    }
+
+    int depth = size();
+    maxQueueDepth = Math.max(maxQueueDepth, depth);
+
+    if (depth == 1) {
+      // The dispatcher thread may be waiting for new notifications.
+      notifyAll();
+    }
+  }
+
+  /**
+   * Wait until there is room in the queue. Has to be called while holding the lock.
+   *
+   * @return false in case the dispatcher has been closed or the thread has been interrupted
+   */
+  private boolean awaitRoom() {
+    while (size() >= capacity) {
+      if (closed) {
+        return false;
+      }
+
+      try {
+        wait();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    return !closed;
+  }
+
+  /**
+   * Count a dropped notification. Has to be called while holding the lock.
+   */
+  private void countDropped() {
+    if (droppedCount++ == 0) {
+      logger.warn("dispatcher queue full, dropping notifications (policy: {})",
+          policy.toString().toLowerCase());
+    }
+  }
+
+  /**
+   * Get the number of pending notifications. Has to be called while holding the lock.
+   *
+   * @return queue depth
+   */
+  private int size() {
+    return (policy == EBackpressurePolicy.CONFLATE) ? conflated.size() : queuedKeys.size();
+  }
+}
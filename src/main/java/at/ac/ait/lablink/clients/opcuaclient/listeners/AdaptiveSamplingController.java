@@ -0,0 +1,236 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.sdk.client.subscriptions.BatchModifyMonitoredItems;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.ManagedDataItem;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.ManagedSubscription;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class AdaptiveSamplingController.
+ *
+ * <p>Adapts the sampling intervals of monitored items to how often their values actually
+ * change. The notifications of each monitored item are counted (see
+ * {@link ChangeCountingDataChangeListener}) and evaluated periodically:
+ * <ul>
+ *   <li>the sampling interval of items without notifications is doubled (up to the maximum
+ *   sampling interval),</li>
+ *   <li>the sampling interval of items with notifications in at least half of their samples
+ *   is reset to the configured sampling interval of the output (lower bound).</li>
+ * </ul>
+ * The modifications of all monitored items of a subscription are sent to the OPC UA server
+ * at once (ModifyMonitoredItems service).
+ */
+public class AdaptiveSamplingController {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("AdaptiveSamplingController");
+
+  /** Fraction of samples with notifications, above which an item is considered active. */
+  static final double ACTIVE_RATIO = 0.5;
+
+  /** Upper bound for the sampling intervals (in milliseconds). */
+  private final double maxSamplingInterval;
+
+  /** Period between evaluations (in milliseconds). */
+  private final double evaluationPeriod;
+
+  /** Monitored items (indexed by subscription). */
+  private final Map<ManagedSubscription, List<ChangeCountingDataChangeListener>> items =
+      new LinkedHashMap<>();
+
+  /** Timer for the evaluations (null before the controller is started). */
+  private ScheduledExecutorService timer = null;
+
+  /** Number of raised sampling intervals. */
+  private final LongAdder raised = new LongAdder();
+
+  /** Number of lowered sampling intervals. */
+  private final LongAdder lowered = new LongAdder();
+
+  /** Number of failed modifications. */
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param maxSamplingInterval upper bound for the sampling intervals (in milliseconds)
+   * @param evaluationPeriod period between evaluations (in milliseconds)
+   */
+  public AdaptiveSamplingController(double maxSamplingInterval, double evaluationPeriod) {
+    if (maxSamplingInterval <= 0 || evaluationPeriod <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid adaptive sampling parameters (max. sampling interval: %1$s ms, "
+          + "evaluation period: %2$s ms)", maxSamplingInterval, evaluationPeriod)
+      );
+    }
+
+    this.maxSamplingInterval = maxSamplingInterval;
+    this.evaluationPeriod = evaluationPeriod;
+  }
+
+  /**
+   * Wrap the data change listener of a monitored item, such that its sampling interval is
+   * adapted to the rate of its notifications.
+   *
+   * @param listener data change listener
+   * @param subscription managed data subscription of the monitored item
+   * @param item monitored item
+   * @param minSamplingInterval lower bound for the sampling interval (in milliseconds)
+   * @return wrapped data change listener
+   */
+  public IDataChangeListener track(IDataChangeListener listener,
+      ManagedSubscription subscription, ManagedDataItem item, double minSamplingInterval) {
+    ChangeCountingDataChangeListener tracked =
+        new ChangeCountingDataChangeListener(listener, item, minSamplingInterval);
+
+    tracked.setSamplingInterval(item.getSamplingInterval());
+    items.computeIfAbsent(subscription, s -> new ArrayList<>()).add(tracked);
+
+    return tracked;
+  }
+
+  /**
+   * Start the periodic evaluations.
+   */
+  public synchronized void start() {
+    if (timer != null) {
+      return;
+    }
+
+    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "AdaptiveSamplingController");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long periodNanos = (long) (evaluationPeriod * 1e6);
+    timer.scheduleAtFixedRate(this::evaluate, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stop the periodic evaluations.
+   */
+  public synchronized void close() {
+    if (timer != null) {
+      timer.shutdownNow();
+    }
+    logger.info("Adaptive sampling: {}", this);
+  }
+
+  /**
+   * Get the number of raised sampling intervals.
+   *
+   * @return number of raised sampling intervals
+   */
+  public long getRaisedCount() {
+    return raised.sum();
+  }
+
+  /**
+   * Get the number of lowered sampling intervals.
+   *
+   * @return number of lowered sampling intervals
+   */
+  public long getLoweredCount() {
+    return lowered.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("raised=%1$d, lowered=%2$d, failures=%3$d",
+        raised.sum(), lowered.sum(), failures.sum());
+  }
+
+  /**
+   * Calculate the new sampling interval of a monitored item.
+   *
+   * @param current current sampling interval (in milliseconds)
+   * @param min lower bound for the sampling interval (in milliseconds)
+   * @param max upper bound for the sampling interval (in milliseconds)
+   * @param changes number of notifications since the last evaluation
+   * @param period period since the last evaluation (in milliseconds)
+   * @return new sampling interval (in milliseconds)
+   */
+  static double nextSamplingInterval(double current, double min, double max, long changes,
+      double period) {
+    if (changes == 0) {
+      // Quiet item, sample less often.
+      return Math.max(min, Math.min(2 * Math.max(current, 1), max));
+    }
+
+    // Fraction of the samples (during the last period) that resulted in a notification.
+    double ratio = changes * Math.max(current, 1) / period;
+    if (ratio >= ACTIVE_RATIO) {
+      // Active item, return to the configured sampling interval.
+      return min;
+    }
+
+    return current;
+  }
+
+  /**
+   * Evaluate the notifications of all monitored items and modify the sampling intervals.
+   */
+  void evaluate() {
+    for (Map.Entry<ManagedSubscription, List<ChangeCountingDataChangeListener>> entry
+        : items.entrySet()) {
+      BatchModifyMonitoredItems batch = null;
+
+      for (ChangeCountingDataChangeListener tracked : entry.getValue()) {
+        double current = tracked.getSamplingInterval();
+        double next = nextSamplingInterval(current, tracked.getMinSamplingInterval(),
+            Math.max(maxSamplingInterval, tracked.getMinSamplingInterval()),
+            tracked.resetChanges(), evaluationPeriod);
+
+        // Do not repeat requests the OPC UA server has already revised.
+        if (next == current || next == tracked.getRequestedSamplingInterval()) {
+          continue;
+        }
+
+        if (batch == null) {
+          batch = new BatchModifyMonitoredItems(entry.getKey());
+        }
+
+        (next > current ? raised : lowered).increment();
+
+        // The requested sampling interval is only recorded once the OPC UA server has accepted
+        // the modification, such that a failed request is retried at the next evaluation.
+        tracked.getItem().setSamplingIntervalAsync(next, batch).whenComplete((revised, ex) -> {
+          if (ex != null) {
+            failures.increment();
+            logger.debug("modification of sampling interval failed: {}", ex.toString());
+          } else {
+            tracked.setRequestedSamplingInterval(next);
+            tracked.setSamplingInterval(revised);
+          }
+        });
+      }
+
+      if (batch != null) {
+        batch.executeAsync().exceptionally(ex -> {
+          logger.warn("modification of sampling intervals failed: {}", ex.toString());
+          return null;
+        });
+      }
+    }
+  }
+}
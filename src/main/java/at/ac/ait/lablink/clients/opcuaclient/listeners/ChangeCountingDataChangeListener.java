@@ -0,0 +1,140 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.sdk.client.subscriptions.ManagedDataItem;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class ChangeCountingDataChangeListener.
+ *
+ * <p>Wraps a data change listener and counts the notifications of its monitored item, which
+ * are used by the {@link AdaptiveSamplingController} to adapt the sampling interval of the
+ * monitored item.
+ */
+public class ChangeCountingDataChangeListener implements IDataChangeListener {
+
+  /** Wrapped data change listener. */
+  private final IDataChangeListener listener;
+
+  /** Monitored item. */
+  private final ManagedDataItem item;
+
+  /** Lower bound for the sampling interval (in milliseconds). */
+  private final double minSamplingInterval;
+
+  /** Number of notifications since the last evaluation. */
+  private final AtomicLong changes = new AtomicLong();
+
+  /** Current sampling interval (in milliseconds). */
+  private volatile double samplingInterval;
+
+  /** Sampling interval requested most recently (in milliseconds). */
+  private volatile double requestedSamplingInterval;
+
+  /**
+   * Constructor.
+   *
+   * @param listener wrapped data change listener
+   * @param item monitored item
+   * @param minSamplingInterval lower bound for the sampling interval (in milliseconds)
+   */
+  ChangeCountingDataChangeListener(IDataChangeListener listener, ManagedDataItem item,
+      double minSamplingInterval) {
+    this.listener = listener;
+    this.item = item;
+    this.minSamplingInterval = minSamplingInterval;
+    this.samplingInterval = minSamplingInterval;
+    this.requestedSamplingInterval = minSamplingInterval;
+  }
+
+  @Override
+  public String getServiceName() {
+    return listener.getServiceName();
+  }
+
+  @Override
+  public void setImplementedService(IImplementedService service) {
+    listener.setImplementedService(service);
+  }
+
+  @Override
+  public void setValue(DataValue newVal) {
+    changes.incrementAndGet();
+    listener.setValue(newVal);
+  }
+
+  /**
+   * Retrieve the monitored item.
+   *
+   * @return monitored item
+   */
+  ManagedDataItem getItem() {
+    return item;
+  }
+
+  /**
+   * Get the lower bound for the sampling interval.
+   *
+   * @return minimum sampling interval (in milliseconds)
+   */
+  double getMinSamplingInterval() {
+    return minSamplingInterval;
+  }
+
+  /**
+   * Get the current sampling interval.
+   *
+   * @return sampling interval (in milliseconds)
+   */
+  double getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Set the current sampling interval (after it has been revised by the OPC UA server).
+   *
+   * @param samplingInterval sampling interval (in milliseconds)
+   */
+  void setSamplingInterval(double samplingInterval) {
+    this.samplingInterval = samplingInterval;
+  }
+
+  /**
+   * Get the sampling interval requested most recently. The OPC UA server may have revised it,
+   * i.e., it may differ from the current sampling interval.
+   *
+   * @return requested sampling interval (in milliseconds)
+   */
+  double getRequestedSamplingInterval() {
+    return requestedSamplingInterval;
+  }
+
+  /**
+   * Set the sampling interval requested most recently.
+   *
+   * @param requestedSamplingInterval requested sampling interval (in milliseconds)
+   */
+  void setRequestedSamplingInterval(double requestedSamplingInterval) {
+    this.requestedSamplingInterval = requestedSamplingInterval;
+  }
+
+  /**
+   * Retrieve the number of notifications since the last call and reset the counter.
+   *
+   * @return number of notifications
+   */
+  long resetChanges() {
+    return changes.getAndSet(0);
+  }
+}
@@ -0,0 +1,68 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Class DataChangeListenerBase.
+ *
+ * <p>Base class for data change listeners, which holds the reference to the associated data
+ * service. Derived classes extract the new value from the subscription callback and pass it
+ * to the data service via method {@link #publish(Object)}.
+ *
+ * @param <T> type of the associated data service
+ */
+public abstract class DataChangeListenerBase<T> implements IDataChangeListener {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("DataChangeListener");
+
+  /** Name of the associated data service. */
+  private final String serviceName;
+
+  /** Associated data service. */
+  private IImplementedService<T> dataService = null;
+
+  /**
+   * Constructor.
+   *
+   * @param name name of the associated Lablink data service
+   */
+  protected DataChangeListenerBase(String name) {
+    serviceName = name;
+  }
+
+  @Override
+  public String getServiceName() {
+    return serviceName;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void setImplementedService(IImplementedService service) {
+    dataService = (IImplementedService<T>) service;
+  }
+
+  /**
+   * Set a new value to the associated data service.
+   *
+   * @param value new value
+   */
+  protected void publish(T value) {
+    if (dataService != null) {
+      dataService.setValue(value);
+    } else {
+      logger.warn("Lablink data service has not been set ({})", serviceName);
+    }
+  }
+}
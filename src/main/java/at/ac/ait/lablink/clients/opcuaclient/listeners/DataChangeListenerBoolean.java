@@ -6,28 +6,27 @@
 // which is available at: https://www.eclipse.org/legal/epl-2.0/
 //
 
+
 package at.ac.ait.lablink.clients.opcuaclient.listeners;
 
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
-import at.ac.ait.lablink.core.service.IImplementedService;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 
-import java.util.function.Function;
-
-
-public class DataChangeListenerBoolean implements IDataChangeListener {
-
-  private IImplementedService<Boolean> dataService;
+import java.util.function.Predicate;
 
-  private String serviceName;
+/**
+ * Class DataChangeListenerBoolean.
+ *
+ * <p>Data change listener for output data services of type boolean. The new value is
+ * extracted from the variant as primitive boolean (depending on the data type of the OPC UA
+ * variable) without intermediate boxing. In case the OPC UA variable is of type Boolean, the
+ * boxed value of the variant is passed to the data service as it is.
+ */
+public class DataChangeListenerBoolean extends DataChangeListenerBase<Boolean> {
 
-  private Function<Object, Boolean> dataTypeCaster;
-
-  private static final Logger logger = LogManager.getLogger("DataChangeListenerBoolean");
+  /** Extracts the primitive value from the variant (null for type Boolean). */
+  private final Predicate<Object> extractor;
 
   /**
    * Constructor.
@@ -36,12 +35,11 @@ public class DataChangeListenerBoolean implements IDataChangeListener {
    * @param dataTypeId data type ID of the associated OPC UA variable
    */
   public DataChangeListenerBoolean(String name, int dataTypeId) {
-    serviceName = name;
-    dataService = null;
+    super(name);
 
     switch (dataTypeId) {
       case DataTypeUtil.BOOLEAN:
-        dataTypeCaster = DataTypeUtil::booleanToBoolean;
+        extractor = null;
         break;
       case DataTypeUtil.SBYTE:
       case DataTypeUtil.BYTE:
@@ -53,40 +51,40 @@ public class DataChangeListenerBoolean implements IDataChangeListener {
       case DataTypeUtil.INT64:
       case DataTypeUtil.FLOAT:
       case DataTypeUtil.DOUBLE:
-        dataTypeCaster = DataTypeUtil::numberToBoolean;
+        extractor = DataTypeUtil::numberToBooleanValue;
         break;
       case DataTypeUtil.STRING:
-        dataTypeCaster = DataTypeUtil::stringToBoolean;
+        extractor = DataTypeUtil::stringToBooleanValue;
         break;
       default:
         throw new RuntimeException(
           String.format(
-              "Casting of Double to specified data type (%1$d) not supported.", dataTypeId
+              "Casting of Boolean to specified data type (%1$d) not supported.", dataTypeId
           )
         );
     }
   }
 
-  @Override
-  public String getServiceName() {
-    return serviceName;
-  }
-
-  @Override
-  @SuppressWarnings("unchecked")
-  public void setImplementedService(IImplementedService service) {
-    dataService = (IImplementedService<Boolean>) service;
-  }
-
   @Override
   public void setValue(DataValue newVal) {
     // Retrieve value as Object.
     Object objectNewVal = newVal.getValue().getValue();
 
-    if (dataService != null) {
-      dataService.setValue(dataTypeCaster.apply(objectNewVal));
+    if (extractor == null) {
+      publish((Boolean) objectNewVal);
     } else {
-      logger.warn("Lablink data service has not been set");
+      setBooleanValue(extractor.test(objectNewVal));
     }
   }
+
+  /**
+   * Set a new primitive value to the associated data service.
+   *
+   * <p>Boxing does not allocate, the cached instances of class Boolean are used.
+   *
+   * @param val new value
+   */
+  public void setBooleanValue(boolean val) {
+    publish(Boolean.valueOf(val));
+  }
 }
@@ -6,28 +6,27 @@
 // which is available at: https://www.eclipse.org/legal/epl-2.0/
 //
 
+
 package at.ac.ait.lablink.clients.opcuaclient.listeners;
 
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
-import at.ac.ait.lablink.core.service.IImplementedService;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 
-import java.util.function.Function;
-
-
-public class DataChangeListenerDouble implements IDataChangeListener {
-
-  private IImplementedService<Double> dataService;
-
-  private String serviceName;
+import java.util.function.ToDoubleFunction;
 
-  private Function<Object, Double> dataTypeCaster;
+/**
+ * Class DataChangeListenerDouble.
+ *
+ * <p>Data change listener for output data services of type double. The new value is
+ * extracted from the variant as primitive double (depending on the data type of the OPC UA
+ * variable) without intermediate boxing. In case the OPC UA variable is of type Double, the
+ * boxed value of the variant is passed to the data service as it is.
+ */
+public class DataChangeListenerDouble extends DataChangeListenerBase<Double> {
 
-  private static final Logger logger = LogManager.getLogger("DataChangeListenerDouble");
+  /** Extracts the primitive value from the variant (null for type Double). */
+  private final ToDoubleFunction<Object> extractor;
 
   /**
    * Constructor.
@@ -36,12 +35,14 @@ public class DataChangeListenerDouble implements IDataChangeListener {
    * @param dataTypeId data type ID of the associated OPC UA variable
    */
   public DataChangeListenerDouble(String name, int dataTypeId) {
-    serviceName = name;
-    dataService = null;
+    super(name);
 
     switch (dataTypeId) {
+      case DataTypeUtil.DOUBLE:
+        extractor = null;
+        break;
       case DataTypeUtil.BOOLEAN:
-        dataTypeCaster = DataTypeUtil::booleanToDouble;
+        extractor = DataTypeUtil::booleanToDoubleValue;
         break;
       case DataTypeUtil.SBYTE:
       case DataTypeUtil.BYTE:
@@ -52,11 +53,10 @@ public class DataChangeListenerDouble implements IDataChangeListener {
       case DataTypeUtil.INT32:
       case DataTypeUtil.INT64:
       case DataTypeUtil.FLOAT:
-      case DataTypeUtil.DOUBLE:
-        dataTypeCaster = DataTypeUtil::numberToDouble;
+        extractor = DataTypeUtil::numberToDoubleValue;
         break;
       case DataTypeUtil.STRING:
-        dataTypeCaster = DataTypeUtil::stringToDouble;
+        extractor = DataTypeUtil::stringToDoubleValue;
         break;
       default:
         throw new RuntimeException(
@@ -67,26 +67,27 @@ public class DataChangeListenerDouble implements IDataChangeListener {
     }
   }
 
-  @Override
-  public String getServiceName() {
-    return serviceName;
-  }
-
-  @Override
-  @SuppressWarnings("unchecked")
-  public void setImplementedService(IImplementedService service) {
-    dataService = (IImplementedService<Double>) service;
-  }
-
   @Override
   public void setValue(DataValue newVal) {
     // Retrieve value as Object.
     Object objectNewVal = newVal.getValue().getValue();
 
-    if (dataService != null) {
-      dataService.setValue(dataTypeCaster.apply(objectNewVal));
+    if (extractor == null) {
+      publish((Double) objectNewVal);
     } else {
-      logger.warn("Lablink data service has not been set");
+      setDoubleValue(extractor.applyAsDouble(objectNewVal));
     }
   }
+
+  /**
+   * Set a new primitive value to the associated data service.
+   *
+   * <p>The value is boxed once when it is set to the data service, because the Lablink data
+   * services only accept boxed values.
+   *
+   * @param val new value
+   */
+  public void setDoubleValue(double val) {
+    publish(Double.valueOf(val));
+  }
 }
@@ -6,28 +6,27 @@
 // which is available at: https://www.eclipse.org/legal/epl-2.0/
 //
 
+
 package at.ac.ait.lablink.clients.opcuaclient.listeners;
 
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
-import at.ac.ait.lablink.core.service.IImplementedService;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 
-import java.util.function.Function;
-
-
-public class DataChangeListenerLong implements IDataChangeListener {
-
-  private IImplementedService<Long> dataService;
-
-  private String serviceName;
+import java.util.function.ToLongFunction;
 
-  private Function<Object, Long> dataTypeCaster;
+/**
+ * Class DataChangeListenerLong.
+ *
+ * <p>Data change listener for output data services of type long. The new value is
+ * extracted from the variant as primitive long (depending on the data type of the OPC UA
+ * variable) without intermediate boxing. In case the OPC UA variable is of type Int64, the
+ * boxed value of the variant is passed to the data service as it is.
+ */
+public class DataChangeListenerLong extends DataChangeListenerBase<Long> {
 
-  private static final Logger logger = LogManager.getLogger("DataChangeListenerLong");
+  /** Extracts the primitive value from the variant (null for type Int64). */
+  private final ToLongFunction<Object> extractor;
 
   /**
    * Constructor.
@@ -36,12 +35,14 @@ public class DataChangeListenerLong implements IDataChangeListener {
    * @param dataTypeId data type ID of the associated OPC UA variable
    */
   public DataChangeListenerLong(String name, int dataTypeId) {
-    serviceName = name;
-    dataService = null;
+    super(name);
 
     switch (dataTypeId) {
+      case DataTypeUtil.INT64:
+        extractor = null;
+        break;
       case DataTypeUtil.BOOLEAN:
-        dataTypeCaster = DataTypeUtil::booleanToLong;
+        extractor = DataTypeUtil::booleanToLongValue;
         break;
       case DataTypeUtil.SBYTE:
       case DataTypeUtil.BYTE:
@@ -50,43 +51,43 @@ public class DataChangeListenerLong implements IDataChangeListener {
       case DataTypeUtil.UINT64:
       case DataTypeUtil.INT16:
       case DataTypeUtil.INT32:
-      case DataTypeUtil.INT64:
       case DataTypeUtil.FLOAT:
       case DataTypeUtil.DOUBLE:
-        dataTypeCaster = DataTypeUtil::numberToLong;
+        extractor = DataTypeUtil::numberToLongValue;
         break;
       case DataTypeUtil.STRING:
-        dataTypeCaster = DataTypeUtil::stringToLong;
+        extractor = DataTypeUtil::stringToLongValue;
         break;
       default:
         throw new RuntimeException(
           String.format(
-              "Casting of Double to specified data type (%1$d) not supported.", dataTypeId
+              "Casting of Long to specified data type (%1$d) not supported.", dataTypeId
           )
         );
     }
   }
 
-  @Override
-  public String getServiceName() {
-    return serviceName;
-  }
-
-  @Override
-  @SuppressWarnings("unchecked")
-  public void setImplementedService(IImplementedService service) {
-    dataService = (IImplementedService<Long>) service;
-  }
-
   @Override
   public void setValue(DataValue newVal) {
     // Retrieve value as Object.
     Object objectNewVal = newVal.getValue().getValue();
 
-    if (dataService != null) {
-      dataService.setValue(dataTypeCaster.apply(objectNewVal));
+    if (extractor == null) {
+      publish((Long) objectNewVal);
     } else {
-      logger.warn("Lablink data service has not been set");
+      setLongValue(extractor.applyAsLong(objectNewVal));
     }
   }
+
+  /**
+   * Set a new primitive value to the associated data service.
+   *
+   * <p>The value is boxed once when it is set to the data service, because the Lablink data
+   * services only accept boxed values (small values are taken from the cache of class Long).
+   *
+   * @param val new value
+   */
+  public void setLongValue(long val) {
+    publish(Long.valueOf(val));
+  }
 }
@@ -0,0 +1,107 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class DataChangeListenerTable.
+ *
+ * <p>Dispatch table, which maps the client handles of monitored items to the associated data
+ * change listeners. Client handles are assigned densely by the OPC UA client when the
+ * monitored items are created, hence the listeners are stored in a flat array indexed by
+ * handle. This avoids hashing and boxing of the handles for every notification. Handles
+ * beyond the maximum array size (not expected in practice) are stored in a hash map.
+ *
+ * <p>The table is filled when the outputs are configured and is read-only afterwards, it is
+ * not safe to add listeners while notifications are being dispatched.
+ */
+public class DataChangeListenerTable {
+
+  /** Initial size of the listener array. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** Maximum size of the listener array (handles beyond are stored in a hash map). */
+  static final int MAX_CAPACITY = 1 << 22;
+
+  /** Listeners indexed by handle. */
+  private IDataChangeListener[] listeners = new IDataChangeListener[INITIAL_CAPACITY];
+
+  /** Listeners with handles beyond the maximum array size. */
+  private final Map<Long, IDataChangeListener> overflow = new HashMap<>();
+
+  /** All listeners in the order in which they have been added. */
+  private final List<IDataChangeListener> allListeners = new ArrayList<>();
+
+  /**
+   * Add a listener.
+   *
+   * @param handle client handle of the monitored item
+   * @param listener data change listener
+   */
+  public void put(UInteger handle, IDataChangeListener listener) {
+    long index = handle.longValue();
+
+    if (index < MAX_CAPACITY) {
+      if (index >= listeners.length) {
+        int capacity = listeners.length;
+        while (capacity <= index) {
+          capacity *= 2;
+        }
+        listeners = Arrays.copyOf(listeners, capacity);
+      }
+
+      listeners[(int) index] = listener;
+    } else {
+      overflow.put(index, listener);
+    }
+
+    allListeners.add(listener);
+  }
+
+  /**
+   * Retrieve the listener associated to a handle.
+   *
+   * @param handle client handle of the monitored item
+   * @return data change listener (null in case no listener has been added for this handle)
+   */
+  public IDataChangeListener get(UInteger handle) {
+    long index = handle.longValue();
+
+    if (index < listeners.length) {
+      return listeners[(int) index];
+    }
+
+    return overflow.isEmpty() ? null : overflow.get(index);
+  }
+
+  /**
+   * Retrieve all listeners.
+   *
+   * @return list of data change listeners
+   */
+  public List<IDataChangeListener> values() {
+    return allListeners;
+  }
+
+  /**
+   * Get the number of listeners.
+   *
+   * @return number of listeners
+   */
+  public int size() {
+    return allListeners.size();
+  }
+}
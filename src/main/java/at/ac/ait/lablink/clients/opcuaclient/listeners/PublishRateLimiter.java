@@ -0,0 +1,103 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class PublishRateLimiter.
+ *
+ * <p>Limits the rate at which new values are set to output data services. Data change
+ * listeners of rate-limited outputs are wrapped (see {@link RateLimitedDataChangeListener}),
+ * updates exceeding the maximum rate are conflated to the latest value and flushed by a timer
+ * thread, which is shared by all rate-limited outputs of a client.
+ */
+public class PublishRateLimiter {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("PublishRateLimiter");
+
+  /** Shared timer for flushing conflated values. */
+  private final ScheduledExecutorService timer;
+
+  /** Number of values replaced by a more recent value before being published. */
+  private final LongAdder conflated = new LongAdder();
+
+  /**
+   * Constructor.
+   */
+  public PublishRateLimiter() {
+    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "PublishRateLimiter");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Wrap a data change listener, such that new values are set to its data service at most
+   * with the given rate.
+   *
+   * @param listener data change listener
+   * @param maxRate maximum publish rate (in Hz)
+   * @return rate-limited data change listener
+   */
+  public IDataChangeListener limit(IDataChangeListener listener, double maxRate) {
+    if (maxRate <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Invalid maximum publish rate: %1$s Hz", maxRate)
+      );
+    }
+
+    return new RateLimitedDataChangeListener(listener, (long) (1e9 / maxRate), this);
+  }
+
+  /**
+   * Get the number of values that have been replaced by a more recent value before being
+   * published.
+   *
+   * @return number of conflated values
+   */
+  public long getConflatedCount() {
+    return conflated.sum();
+  }
+
+  /**
+   * Stop the timer, pending values are not published anymore.
+   */
+  public void close() {
+    timer.shutdownNow();
+    logger.info("Publish rate limiter: {} values conflated", conflated.sum());
+  }
+
+  /**
+   * Schedule the flush of a rate-limited listener.
+   *
+   * @param listener rate-limited data change listener
+   * @param delayNanos delay (in nanoseconds)
+   */
+  void schedule(RateLimitedDataChangeListener listener, long delayNanos) {
+    if (!timer.isShutdown()) {
+      timer.schedule(listener::flush, delayNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Count a value that has been replaced by a more recent value.
+   */
+  void countConflated() {
+    conflated.increment();
+  }
+}
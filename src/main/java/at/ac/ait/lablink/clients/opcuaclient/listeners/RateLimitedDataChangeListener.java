@@ -0,0 +1,98 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+
+/**
+ * Class RateLimitedDataChangeListener.
+ *
+ * <p>Wraps a data change listener, such that new values are passed on at most with a given
+ * rate. A new value is passed on immediately in case the minimum interval since the last
+ * update has elapsed. Otherwise it is kept as pending value (replacing any previous pending
+ * value) and passed on by the timer of the {@link PublishRateLimiter} once the minimum
+ * interval has elapsed.
+ */
+public class RateLimitedDataChangeListener implements IDataChangeListener {
+
+  /** Wrapped data change listener. */
+  private final IDataChangeListener listener;
+
+  /** Minimum interval between updates (in nanoseconds). */
+  private final long minIntervalNanos;
+
+  /** Rate limiter providing the timer. */
+  private final PublishRateLimiter limiter;
+
+  /** Time of the last update (in nanoseconds). */
+  private long lastUpdateNanos;
+
+  /** Latest value not yet passed on (null if there is none). */
+  private DataValue pending = null;
+
+  /**
+   * Constructor.
+   *
+   * @param listener wrapped data change listener
+   * @param minIntervalNanos minimum interval between updates (in nanoseconds)
+   * @param limiter rate limiter providing the timer
+   */
+  RateLimitedDataChangeListener(IDataChangeListener listener, long minIntervalNanos,
+      PublishRateLimiter limiter) {
+    this.listener = listener;
+    this.minIntervalNanos = minIntervalNanos;
+    this.limiter = limiter;
+    this.lastUpdateNanos = System.nanoTime() - minIntervalNanos;
+  }
+
+  @Override
+  public String getServiceName() {
+    return listener.getServiceName();
+  }
+
+  @Override
+  public void setImplementedService(IImplementedService service) {
+    listener.setImplementedService(service);
+  }
+
+  @Override
+  public synchronized void setValue(DataValue newVal) {
+    if (pending != null) {
+      // A flush has already been scheduled, only the latest value will be passed on.
+      pending = newVal;
+      limiter.countConflated();
+      return;
+    }
+
+    long now = System.nanoTime();
+    long elapsed = now - lastUpdateNanos;
+
+    if (elapsed >= minIntervalNanos) {
+      lastUpdateNanos = now;
+      listener.setValue(newVal);
+    } else {
+      pending = newVal;
+      limiter.schedule(this, minIntervalNanos - elapsed);
+    }
+  }
+
+  /**
+   * Pass on the pending value. Called by the timer of the rate limiter.
+   */
+  synchronized void flush() {
+    if (pending != null) {
+      lastUpdateNanos = System.nanoTime();
+      DataValue value = pending;
+      pending = null;
+      listener.setValue(value);
+    }
+  }
+}
@@ -8,26 +8,17 @@
 
 package at.ac.ait.lablink.clients.opcuaclient.notifiers;
 
-import com.google.common.collect.ImmutableList;
-
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
 import at.ac.ait.lablink.clients.opcuaclient.OpcUaClientBase;
 
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlService;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
-import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.function.Function;
+import java.util.function.DoubleFunction;
 
 /**
  * Class InputDataNotifierDouble.
@@ -36,9 +27,9 @@ public class InputDataNotifierDouble implements IServiceStateChangeNotifier<LlSe
 
   private final OpcUaClientBase client;
   private final NodeId id;
-  private Function<Double, Object> dataTypeCaster;
-
-  private static final Logger logger = LogManager.getLogger("InputDataNotifierString");
+  // Conversion of the primitive value, null if the boxed input value can be used directly.
+  private DoubleFunction<Object> dataTypeCaster;
+  private final WriteFilter writeFilter;
 
   /**
    * Constructor.
@@ -48,45 +39,59 @@ public class InputDataNotifierDouble implements IServiceStateChangeNotifier<LlSe
    * @param dataTypeId data type ID of variable associated to node ID
    */
   public InputDataNotifierDouble(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId) {
+    this(opcuaClient, nodeId, dataTypeId, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param opcuaClient Lablink OPC UA client
+   * @param nodeId associated OPC UA node ID
+   * @param dataTypeId data type ID of variable associated to node ID
+   * @param filter filter applied to new values before writing them (null for no filter)
+   */
+  public InputDataNotifierDouble(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId,
+      WriteFilter filter) {
     client = opcuaClient;
     id = nodeId;
+    writeFilter = filter;
 
     switch (dataTypeId) {
       case DataTypeUtil.BOOLEAN:
-        dataTypeCaster = DataTypeUtil::numberToBoolean;
+        dataTypeCaster = DataTypeUtil::doubleToBoolean;
         break;
       case DataTypeUtil.SBYTE:
-        dataTypeCaster = DataTypeUtil::numberToUByte;
+        dataTypeCaster = DataTypeUtil::doubleToUByte;
         break;
       case DataTypeUtil.BYTE:
-        dataTypeCaster = DataTypeUtil::numberToByte;
+        dataTypeCaster = DataTypeUtil::doubleToByte;
         break;
       case DataTypeUtil.UINT16:
-        dataTypeCaster = DataTypeUtil::numberToUShort;
+        dataTypeCaster = DataTypeUtil::doubleToUShort;
         break;
       case DataTypeUtil.UINT32:
-        dataTypeCaster = DataTypeUtil::numberToUInt;
+        dataTypeCaster = DataTypeUtil::doubleToUInt;
         break;
       case DataTypeUtil.UINT64:
-        dataTypeCaster = DataTypeUtil::numberToULong;
+        dataTypeCaster = DataTypeUtil::doubleToULong;
         break;
       case DataTypeUtil.INT16:
-        dataTypeCaster = DataTypeUtil::numberToShort;
+        dataTypeCaster = DataTypeUtil::doubleToShort;
         break;
       case DataTypeUtil.INT32:
-        dataTypeCaster = DataTypeUtil::numberToInt;
+        dataTypeCaster = DataTypeUtil::doubleToInt;
         break;
       case DataTypeUtil.INT64:
-        dataTypeCaster = DataTypeUtil::numberToLong;
+        dataTypeCaster = DataTypeUtil::doubleToLong;
         break;
       case DataTypeUtil.FLOAT:
-        dataTypeCaster = DataTypeUtil::numberToFloat;
+        dataTypeCaster = DataTypeUtil::doubleToFloat;
         break;
       case DataTypeUtil.DOUBLE:
-        dataTypeCaster = DataTypeUtil::identity;
+        dataTypeCaster = null;
         break;
       case DataTypeUtil.STRING:
-        dataTypeCaster = DataTypeUtil::objectToString;
+        dataTypeCaster = DataTypeUtil::doubleToString;
         break;
       default:
         throw new RuntimeException(
@@ -99,25 +104,32 @@ public class InputDataNotifierDouble implements IServiceStateChangeNotifier<LlSe
 
   /**
    * Whenever the state of the associated data service changes (i.e., a new
-   * input arrives), write the corresponding value to the OPC UA server.
+   * input arrives), write the corresponding value to the OPC UA server (unless
+   * it is suppressed by the write filter). Depending on the client configuration,
+   * this call returns immediately or blocks until the OPC UA server has responded.
    */
   @Override
   public void stateChanged(LlService service, Double oldVal, Double newVal) {
-    Variant var = new Variant(dataTypeCaster.apply(newVal));
-    DataValue val = new DataValue(var);
-
-    CompletableFuture<List<StatusCode>> cf = client.writeValue(
-        ImmutableList.of(id), ImmutableList.of(val)
-    );
+    // Skip values that are suppressed by the write filter (deadband, write only on change).
+    if (writeFilter != null && !writeFilter.accept(newVal.doubleValue())) {
+      return;
+    }
 
-    try {    
-      List<StatusCode> statusCodes = cf.get();
+    // Forward the new value to the client, which takes care of writing it to the server.
+    client.writeValue(id, toDataValue(newVal));
+  }
 
-      if (!statusCodes.get(0).isGood()) {
-        logger.warn("Failed to write '{}' to nodeId = {}", val, id);
-      }
-    } catch (InterruptedException | ExecutionException ex) {
-      logger.warn(ex);
-    }
+  /**
+   * Convert a new input value to a data value for the OPC UA server. The conversion works on
+   * the primitive value, the input value is only boxed again if the data type differs.
+   *
+   * @param newVal new input value
+   * @return data value
+   */
+  DataValue toDataValue(Double newVal) {
+    Variant var = new Variant(
+        (dataTypeCaster != null) ? dataTypeCaster.apply(newVal.doubleValue()) : newVal
+    );
+    return new DataValue(var);
   }
 }
\ No newline at end of file
@@ -8,26 +8,17 @@
 
 package at.ac.ait.lablink.clients.opcuaclient.notifiers;
 
-import com.google.common.collect.ImmutableList;
-
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
 import at.ac.ait.lablink.clients.opcuaclient.OpcUaClientBase;
 
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlService;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
-import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.function.Function;
+import java.util.function.LongFunction;
 
 /**
  * Class InputDataNotifierLong.
@@ -36,9 +27,9 @@ public class InputDataNotifierLong implements IServiceStateChangeNotifier<LlServ
 
   private final OpcUaClientBase client;
   private final NodeId id;
-  private Function<Long, Object> dataTypeCaster;
-
-  private static final Logger logger = LogManager.getLogger("InputDataNotifierLong");
+  // Conversion of the primitive value, null if the boxed input value can be used directly.
+  private LongFunction<Object> dataTypeCaster;
+  private final WriteFilter writeFilter;
 
   /**
    * Constructor.
@@ -48,45 +39,59 @@ public class InputDataNotifierLong implements IServiceStateChangeNotifier<LlServ
    * @param dataTypeId data type ID of variable associated to node ID
    */
   public InputDataNotifierLong(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId) {
+    this(opcuaClient, nodeId, dataTypeId, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param opcuaClient Lablink OPC UA client
+   * @param nodeId associated OPC UA node ID
+   * @param dataTypeId data type ID of variable associated to node ID
+   * @param filter filter applied to new values before writing them (null for no filter)
+   */
+  public InputDataNotifierLong(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId,
+      WriteFilter filter) {
     client = opcuaClient;
     id = nodeId;
+    writeFilter = filter;
 
     switch (dataTypeId) {
       case DataTypeUtil.BOOLEAN:
-        dataTypeCaster = DataTypeUtil::numberToBoolean;
+        dataTypeCaster = DataTypeUtil::longToBoolean;
         break;
       case DataTypeUtil.SBYTE:
-        dataTypeCaster = DataTypeUtil::numberToUByte;
+        dataTypeCaster = DataTypeUtil::longToUByte;
         break;
       case DataTypeUtil.BYTE:
-        dataTypeCaster = DataTypeUtil::numberToByte;
+        dataTypeCaster = DataTypeUtil::longToByte;
         break;
       case DataTypeUtil.UINT16:
-        dataTypeCaster = DataTypeUtil::numberToUShort;
+        dataTypeCaster = DataTypeUtil::longToUShort;
         break;
       case DataTypeUtil.UINT32:
-        dataTypeCaster = DataTypeUtil::numberToUInt;
+        dataTypeCaster = DataTypeUtil::longToUInt;
         break;
       case DataTypeUtil.UINT64:
-        dataTypeCaster = DataTypeUtil::numberToULong;
+        dataTypeCaster = DataTypeUtil::longToULong;
         break;
       case DataTypeUtil.INT16:
-        dataTypeCaster = DataTypeUtil::numberToShort;
+        dataTypeCaster = DataTypeUtil::longToShort;
         break;
       case DataTypeUtil.INT32:
-        dataTypeCaster = DataTypeUtil::numberToInt;
+        dataTypeCaster = DataTypeUtil::longToInt;
         break;
       case DataTypeUtil.INT64:
-        dataTypeCaster = DataTypeUtil::identity;
+        dataTypeCaster = null;
         break;
       case DataTypeUtil.FLOAT:
-        dataTypeCaster = DataTypeUtil::numberToFloat;
+        dataTypeCaster = DataTypeUtil::longToFloat;
         break;
       case DataTypeUtil.DOUBLE:
-        dataTypeCaster = DataTypeUtil::numberToDouble;
+        dataTypeCaster = DataTypeUtil::longToDouble;
         break;
       case DataTypeUtil.STRING:
-        dataTypeCaster = DataTypeUtil::objectToString;
+        dataTypeCaster = DataTypeUtil::longToString;
         break;
       default:
         throw new RuntimeException(
@@ -99,25 +104,32 @@ public class InputDataNotifierLong implements IServiceStateChangeNotifier<LlServ
 
   /**
    * Whenever the state of the associated data service changes (i.e., a new
-   * input arrives), write the corresponding value to the OPC UA server.
+   * input arrives), write the corresponding value to the OPC UA server (unless
+   * it is suppressed by the write filter). Depending on the client configuration,
+   * this call returns immediately or blocks until the OPC UA server has responded.
    */
   @Override
   public void stateChanged(LlService service, Long oldVal, Long newVal) {
-    Variant var = new Variant(dataTypeCaster.apply(newVal));
-    DataValue val = new DataValue(var);
-
-    CompletableFuture<List<StatusCode>> cf = client.writeValue(
-        ImmutableList.of(id), ImmutableList.of(val)
-    );
+    // Skip values that are suppressed by the write filter (deadband, write only on change).
+    if (writeFilter != null && !writeFilter.accept(newVal.longValue())) {
+      return;
+    }
 
-    try {    
-      List<StatusCode> statusCodes = cf.get();
+    // Forward the new value to the client, which takes care of writing it to the server.
+    client.writeValue(id, toDataValue(newVal));
+  }
 
-      if (!statusCodes.get(0).isGood()) {
-        logger.warn("Failed to write '{}' to nodeId = {}", val, id);
-      }
-    } catch (InterruptedException | ExecutionException ex) {
-      logger.warn(ex);
-    }
+  /**
+   * Convert a new input value to a data value for the OPC UA server. The conversion works on
+   * the primitive value, the input value is only boxed again if the data type differs.
+   *
+   * @param newVal new input value
+   * @return data value
+   */
+  DataValue toDataValue(Long newVal) {
+    Variant var = new Variant(
+        (dataTypeCaster != null) ? dataTypeCaster.apply(newVal.longValue()) : newVal
+    );
+    return new DataValue(var);
   }
 }
@@ -8,25 +8,16 @@
 
 package at.ac.ait.lablink.clients.opcuaclient.notifiers;
 
-import com.google.common.collect.ImmutableList;
-
 import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
 import at.ac.ait.lablink.clients.opcuaclient.OpcUaClientBase;
 
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlService;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
-import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 /**
@@ -37,8 +28,7 @@ public class InputDataNotifierString implements IServiceStateChangeNotifier<LlSe
   private final OpcUaClientBase client;
   private final NodeId id;
   private Function<String, Object> dataTypeCaster;
-
-  private static final Logger logger = LogManager.getLogger("InputDataNotifierString");
+  private final WriteFilter writeFilter;
 
   /**
    * Constructor.
@@ -48,8 +38,22 @@ public class InputDataNotifierString implements IServiceStateChangeNotifier<LlSe
    * @param dataTypeId data type ID of variable associated to node ID
    */
   public InputDataNotifierString(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId) {
+    this(opcuaClient, nodeId, dataTypeId, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param opcuaClient Lablink OPC UA client
+   * @param nodeId associated OPC UA node ID
+   * @param dataTypeId data type ID of variable associated to node ID
+   * @param filter filter applied to new values before writing them (null for no filter)
+   */
+  public InputDataNotifierString(OpcUaClientBase opcuaClient, NodeId nodeId, int dataTypeId,
+      WriteFilter filter) {
     client = opcuaClient;
     id = nodeId;
+    writeFilter = filter;
 
     switch (dataTypeId) {
       case DataTypeUtil.BOOLEAN:
@@ -99,25 +103,21 @@ public class InputDataNotifierString implements IServiceStateChangeNotifier<LlSe
 
   /**
    * Whenever the state of the associated data service changes (i.e., a new
-   * input arrives), write the corresponding value to the OPC UA server.
+   * input arrives), write the corresponding value to the OPC UA server (unless
+   * it is suppressed by the write filter). Depending on the client configuration,
+   * this call returns immediately or blocks until the OPC UA server has responded.
    */
   @Override
   public void stateChanged(LlService service, String oldVal, String newVal) {
+    // Skip values that are suppressed by the write filter (deadband, write only on change).
+    if (writeFilter != null && !writeFilter.accept((Object) newVal)) {
+      return;
+    }
+
     Variant var = new Variant(dataTypeCaster.apply(newVal));
     DataValue val = new DataValue(var);
 
-    CompletableFuture<List<StatusCode>> cf = client.writeValue(
-        ImmutableList.of(id), ImmutableList.of(val)
-    );
-
-    try {    
-      List<StatusCode> statusCodes = cf.get();
-
-      if (!statusCodes.get(0).isGood()) {
-        logger.warn("Failed to write '{}' to nodeId = {}", val, id);
-      }
-    } catch (InterruptedException | ExecutionException ex) {
-      logger.warn(ex);
-    }
+    // Forward the new value to the client, which takes care of writing it to the server.
+    client.writeValue(id, val);
   }
 }
@@ -0,0 +1,178 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.notifiers;
+
+import at.ac.ait.lablink.clients.opcuaclient.writers.WriteStatistics;
+
+import java.util.Objects;
+
+/**
+ * Class WriteFilter.
+ *
+ * <p>Client-side filter for input values, applied by the input data notifiers before a value
+ * is written to the OPC UA server. A value is suppressed in case it does not differ from the
+ * last written value (write only on change) or in case the difference does not exceed the
+ * deadband. The deadband is either absolute or a percentage of the last written value. The
+ * first value is always written.
+ */
+public class WriteFilter {
+
+  /**
+   * Types of deadbands.
+   */
+  public enum EDeadbandType {
+    ABSOLUTE,
+    PERCENT;
+
+    /**
+     * Map deadband type label (string) to deadband type (enum).
+     * @param strDeadbandType deadband type label (string)
+     * @return deadband type (enum)
+     */
+    public static EDeadbandType fromString(String strDeadbandType) {
+      if (strDeadbandType.toLowerCase().equals("absolute")) {
+        return ABSOLUTE;
+      } else if (strDeadbandType.toLowerCase().equals("percent")) {
+        return PERCENT;
+      }
+
+      throw new IllegalArgumentException(
+          String.format("Deadband type not supported: '%1$s'", strDeadbandType)
+      );
+    }
+  }
+
+  /** Type of deadband. */
+  private final EDeadbandType deadbandType;
+
+  /** Deadband (absolute value or percentage). */
+  private final double deadband;
+
+  /** Counters for suppressed values. */
+  private final WriteStatistics statistics;
+
+  /** Flag indicating that a value has already been written. */
+  private boolean hasLastValue = false;
+
+  /** Last written value (numeric inputs). */
+  private double lastValue;
+
+  /** Last written value (integer inputs). */
+  private long lastLongValue;
+
+  /** Last written value (non-numeric inputs). */
+  private Object lastObjectValue;
+
+  /**
+   * Constructor.
+   *
+   * @param deadbandType type of deadband
+   * @param deadband deadband (absolute value or percentage), 0 for writing only on change
+   * @param statistics counters for suppressed values
+   */
+  public WriteFilter(EDeadbandType deadbandType, double deadband, WriteStatistics statistics) {
+    if (deadband < 0) {
+      throw new IllegalArgumentException(
+          String.format("Deadband must not be negative: %1$f", deadband)
+      );
+    }
+
+    this.deadbandType = deadbandType;
+    this.deadband = deadband;
+    this.statistics = statistics;
+  }
+
+  /**
+   * Check whether a numeric value should be written.
+   *
+   * @param value new value
+   * @return true if the value should be written
+   */
+  public synchronized boolean accept(double value) {
+    if (hasLastValue && !exceedsDeadband(value)) {
+      return suppress();
+    }
+
+    hasLastValue = true;
+    lastValue = value;
+    return true;
+  }
+
+  /**
+   * Check whether an integer value should be written. Without deadband, integer values are
+   * compared exactly.
+   *
+   * @param value new value
+   * @return true if the value should be written
+   */
+  public synchronized boolean accept(long value) {
+    if (deadband > 0) {
+      return accept((double) value);
+    }
+
+    if (hasLastValue && value == lastLongValue) {
+      return suppress();
+    }
+
+    hasLastValue = true;
+    lastLongValue = value;
+    return true;
+  }
+
+  /**
+   * Check whether a non-numeric value should be written (only on change, the deadband is
+   * ignored).
+   *
+   * @param value new value
+   * @return true if the value should be written
+   */
+  public synchronized boolean accept(Object value) {
+    if (hasLastValue && Objects.equals(value, lastObjectValue)) {
+      return suppress();
+    }
+
+    hasLastValue = true;
+    lastObjectValue = value;
+    return true;
+  }
+
+  /**
+   * Check whether a new value differs from the last written value by more than the deadband.
+   *
+   * @param value new value
+   * @return true if the deadband is exceeded
+   */
+  private boolean exceedsDeadband(double value) {
+    double diff = Math.abs(value - lastValue);
+
+    if (deadband == 0 || Double.isNaN(diff)) {
+      return Double.compare(value, lastValue) != 0;
+    }
+
+    switch (deadbandType) {
+      case PERCENT:
+        return diff > Math.abs(lastValue) * deadband / 100.0;
+      case ABSOLUTE:
+      default:
+        return diff > deadband;
+    }
+  }
+
+  /**
+   * Count a suppressed value.
+   *
+   * @return always false
+   */
+  private boolean suppress() {
+    if (statistics != null) {
+      statistics.countSuppressed();
+    }
+    return false;
+  }
+}
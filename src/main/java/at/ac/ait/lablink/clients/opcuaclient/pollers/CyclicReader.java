@@ -0,0 +1,295 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.pollers;
+
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.NotificationDispatcher;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.IDataChangeListener;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Class CyclicReader.
+ *
+ * <p>Alternative to subscriptions for OPC UA servers that handle subscriptions badly. The
+ * values of all outputs of a subscription group are polled with a batched read request on a
+ * fixed schedule (the read request is split into chunks according to the server's operation
+ * limits). Only values that have changed since the previous cycle (value or status) are
+ * handed to the notification dispatcher, which passes them to the data change listeners.
+ *
+ * <p>In case a read request has not completed when the next cycle is due, the cycle is
+ * skipped (counted as overrun). The outputs have to be added before the reader is started.
+ */
+public class CyclicReader {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("CyclicReader");
+
+  /** Name of the subscription group (for logging). */
+  private final String name;
+
+  /** Polling interval (in milliseconds). */
+  private final double interval;
+
+  /** Function that issues a (chunked) read request. */
+  private final Function<List<ReadValueId>, CompletableFuture<List<DataValue>>> reader;
+
+  /** Dispatcher for changed values. */
+  private final NotificationDispatcher<IDataChangeListener> dispatcher;
+
+  /** Attributes to be read. */
+  private final List<ReadValueId> readValueIds = new ArrayList<>();
+
+  /** Data change listeners (same order as read value IDs). */
+  private final List<IDataChangeListener> listeners = new ArrayList<>();
+
+  /** Values of the previous cycle (null before the first cycle). */
+  private DataValue[] previousValues;
+
+  /** Flag indicating that a read request is in flight. */
+  private final AtomicBoolean reading = new AtomicBoolean(false);
+
+  /** Timer for the polling cycles (null before the reader is started). */
+  private ScheduledExecutorService timer = null;
+
+  /** Number of completed polling cycles. */
+  private final LongAdder cycles = new LongAdder();
+
+  /** Number of skipped polling cycles. */
+  private final LongAdder overruns = new LongAdder();
+
+  /** Number of failed read requests. */
+  private final LongAdder failures = new LongAdder();
+
+  /** Number of changed values. */
+  private final LongAdder changes = new LongAdder();
+
+  /** Total duration of the read requests (in nanoseconds). */
+  private final LongAdder totalReadNanos = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param name name of the subscription group
+   * @param interval polling interval (in milliseconds)
+   * @param reader function that issues a read request
+   * @param dispatcher dispatcher for changed values
+   */
+  public CyclicReader(String name, double interval,
+      Function<List<ReadValueId>, CompletableFuture<List<DataValue>>> reader,
+      NotificationDispatcher<IDataChangeListener> dispatcher) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Invalid polling interval: %1$s ms", interval)
+      );
+    }
+
+    this.name = name;
+    this.interval = interval;
+    this.reader = reader;
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * Add an output to be polled.
+   *
+   * @param readValueId attribute to be read
+   * @param listener data change listener of the output
+   */
+  public void add(ReadValueId readValueId, IDataChangeListener listener) {
+    readValueIds.add(readValueId);
+    listeners.add(listener);
+  }
+
+  /**
+   * Retrieve the data change listeners of all outputs.
+   *
+   * @return list of data change listeners
+   */
+  public List<IDataChangeListener> getListeners() {
+    return listeners;
+  }
+
+  /**
+   * Get the polling interval.
+   *
+   * @return polling interval (in milliseconds)
+   */
+  public double getInterval() {
+    return interval;
+  }
+
+  /**
+   * Start polling.
+   */
+  public synchronized void start() {
+    if (timer != null) {
+      return;
+    }
+
+    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "CyclicReader-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long periodNanos = (long) (interval * 1e6);
+    timer.scheduleAtFixedRate(this::poll, 0, periodNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stop polling.
+   */
+  public synchronized void close() {
+    if (timer != null) {
+      timer.shutdownNow();
+    }
+  }
+
+  /**
+   * Get the number of completed polling cycles.
+   *
+   * @return number of cycles
+   */
+  public long getCycleCount() {
+    return cycles.sum();
+  }
+
+  /**
+   * Get the number of skipped polling cycles (previous read request still in flight).
+   *
+   * @return number of overruns
+   */
+  public long getOverrunCount() {
+    return overruns.sum();
+  }
+
+  /**
+   * Get the number of failed read requests.
+   *
+   * @return number of failures
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * Get the number of changed values handed to the dispatcher.
+   *
+   * @return number of changed values
+   */
+  public long getChangeCount() {
+    return changes.sum();
+  }
+
+  /**
+   * Get the mean duration of the read requests.
+   *
+   * @return mean duration (in milliseconds)
+   */
+  public double getMeanReadTime() {
+    long count = cycles.sum();
+    return (count > 0) ? totalReadNanos.sum() / 1e6 / count : 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("nodes=%1$d, interval=%2$s ms, cycles=%3$d, overruns=%4$d, "
+        + "failures=%5$d, changes=%6$d, meanRead=%7$.3f ms", readValueIds.size(), interval,
+        getCycleCount(), getOverrunCount(), getFailureCount(), getChangeCount(),
+        getMeanReadTime());
+  }
+
+  /**
+   * Run one polling cycle, i.e., issue a read request for all outputs (unless the previous
+   * request is still in flight).
+   *
+   * @return completable future, which completes once the changed values have been dispatched
+   */
+  CompletableFuture<Void> poll() {
+    if (!reading.compareAndSet(false, true)) {
+      overruns.increment();
+      return CompletableFuture.completedFuture(null);
+    }
+
+    long start = System.nanoTime();
+
+    CompletableFuture<List<DataValue>> request;
+    try {
+      request = reader.apply(readValueIds);
+    } catch (RuntimeException ex) {
+      request = new CompletableFuture<>();
+      request.completeExceptionally(ex);
+    }
+
+    return request.handle((values, ex) -> {
+      try {
+        if (ex != null) {
+          if (failures.sum() == 0) {
+            logger.warn("polling of subscription group {} failed: {}", name, ex.toString());
+          }
+          failures.increment();
+        } else {
+          totalReadNanos.add(System.nanoTime() - start);
+          cycles.increment();
+          dispatchChanges(values);
+        }
+      } finally {
+        reading.set(false);
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Compare the values of a polling cycle to the previous cycle and hand the changed values
+   * to the dispatcher. In the first cycle, all values are handed to the dispatcher.
+   *
+   * @param values values read from the OPC UA server (same order as read value IDs)
+   */
+  private void dispatchChanges(List<DataValue> values) {
+    List<IDataChangeListener> changedListeners = new ArrayList<>();
+    List<DataValue> changedValues = new ArrayList<>();
+
+    if (previousValues == null) {
+      previousValues = new DataValue[values.size()];
+    }
+
+    for (int i = 0; i < values.size(); ++i) {
+      DataValue value = values.get(i);
+      DataValue previous = previousValues[i];
+
+      if (previous == null || !Objects.equals(previous.getValue(), value.getValue())
+          || !Objects.equals(previous.getStatusCode(), value.getStatusCode())) {
+        changedListeners.add(listeners.get(i));
+        changedValues.add(value);
+        previousValues[i] = value;
+      }
+    }
+
+    if (!changedValues.isEmpty()) {
+      changes.add(changedValues.size());
+      dispatcher.dispatchAll(changedListeners, changedValues);
+    }
+  }
+}
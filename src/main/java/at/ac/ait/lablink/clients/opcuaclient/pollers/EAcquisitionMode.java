@@ -0,0 +1,36 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.pollers;
+
+/**
+ * Enumeration of acquisition modes, which determine how the values of the outputs of a
+ * subscription group are retrieved from the OPC UA server.
+ */
+public enum EAcquisitionMode {
+
+  SUBSCRIPTION,
+  POLLING;
+
+  /**
+   * Map acquisition mode label (string) to acquisition mode (enum).
+   * @param strMode acquisition mode label (string)
+   * @return acquisition mode (enum)
+   */
+  public static EAcquisitionMode fromString(String strMode) {
+    if (strMode.toLowerCase().equals("subscription")) {
+      return SUBSCRIPTION;
+    } else if (strMode.toLowerCase().equals("polling")) {
+      return POLLING;
+    }
+
+    throw new IllegalArgumentException(
+        String.format("Acquisition mode not supported: '%1$s'", strMode)
+    );
+  }
+}
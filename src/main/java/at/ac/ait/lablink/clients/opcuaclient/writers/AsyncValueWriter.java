@@ -0,0 +1,165 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Class AsyncValueWriter.
+ *
+ * <p>Writes each value to the OPC UA server without waiting for the server's response. The
+ * status codes are evaluated in a callback once the response arrives. The number of writes
+ * in flight is bounded, in case the limit is reached new writes wait until a pending write
+ * has completed. Once the writer has been closed, values are written synchronously, i.e.,
+ * no write is left in flight after closing.
+ */
+public class AsyncValueWriter extends ValueWriterBase {
+
+  /** Timeout for pending writes when closing the writer. */
+  private static final long CLOSE_TIMEOUT_MS = 10000;
+
+  /** Time to wait between checks for writes being submitted (in nanoseconds). */
+  private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /** Maximum number of writes in flight. */
+  private final int maxPendingWrites;
+
+  /** Permits for writes in flight. */
+  private final Semaphore pendingWrites;
+
+  /** Flag indicating that the writer has been closed. */
+  private volatile boolean closed = false;
+
+  /** Number of writes that have passed the check of the closed flag, but not been sent. */
+  private final AtomicInteger activeWrites = new AtomicInteger();
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @param maxPendingWrites maximum number of writes in flight
+   */
+  public AsyncValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction, int maxPendingWrites) {
+    super(writeFunction);
+
+    if (maxPendingWrites < 1) {
+      throw new IllegalArgumentException(
+          String.format("Maximum number of pending writes must be positive: %1$d",
+          maxPendingWrites)
+      );
+    }
+
+    this.maxPendingWrites = maxPendingWrites;
+    this.pendingWrites = new Semaphore(maxPendingWrites);
+  }
+
+  @Override
+  public void write(NodeId id, DataValue value) {
+    activeWrites.incrementAndGet();
+
+    if (closed) {
+      activeWrites.decrementAndGet();
+      writeDirectly(id, value);
+      return;
+    }
+
+    try {
+      sendAsync(getIdList(id), ImmutableList.of(value));
+    } finally {
+      activeWrites.decrementAndGet();
+    }
+  }
+
+  /**
+   * Write a single value and wait until the server has responded (used after the writer has
+   * been closed).
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param value new data value
+   */
+  protected void writeDirectly(NodeId id, DataValue value) {
+    logger.debug("Writer closed, writing value for nodeId = {} directly", id);
+
+    List<NodeId> ids = getIdList(id);
+    List<DataValue> dvs = ImmutableList.of(value);
+
+    try {
+      handleResult(ids, dvs, send(ids, dvs).get(), null);
+    } catch (InterruptedException | ExecutionException ex) {
+      handleResult(ids, dvs, null, ex);
+    }
+  }
+
+  /**
+   * Send values to the OPC UA server without waiting for the response. In case the maximum
+   * number of writes in flight has been reached, this call waits until a pending write has
+   * completed.
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs new data values
+   */
+  protected void sendAsync(List<NodeId> ids, List<DataValue> dvs) {
+    try {
+      pendingWrites.acquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      handleResult(ids, dvs, null, ex);
+      return;
+    }
+
+    send(ids, dvs).whenComplete((statusCodes, ex) -> {
+      pendingWrites.release();
+      handleResult(ids, dvs, statusCodes, ex);
+    });
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+
+    // Wait for writes that have passed the check of the closed flag, such that their requests
+    // have been sent before waiting for the pending writes.
+    while (activeWrites.get() > 0) {
+      LockSupport.parkNanos(this, BACKOFF_NANOS);
+    }
+
+    try {
+      if (pendingWrites.tryAcquire(maxPendingWrites, CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        pendingWrites.release(maxPendingWrites);
+      } else {
+        logger.warn("Timeout while waiting for pending writes to complete");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Get the number of writes currently in flight.
+   *
+   * @return number of pending writes
+   */
+  public int getPendingWrites() {
+    return maxPendingWrites - pendingWrites.availablePermits();
+  }
+}
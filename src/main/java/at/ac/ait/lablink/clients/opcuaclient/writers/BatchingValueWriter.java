@@ -0,0 +1,284 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Class BatchingValueWriter.
+ *
+ * <p>Collects the values from all input data notifiers and writes them to the OPC UA server
+ * with a single write request. A batch is sent as soon as it contains the maximum number of
+ * values or when the batch window has elapsed, whichever happens first. The status codes
+ * returned by the server are evaluated for each node individually.
+ *
+ * <p>Optionally, values can be conflated: in case a value for the same node is already queued,
+ * this value is replaced by the new one (latest value wins) and keeps its place in the queue.
+ * Hence, at most one value per node is queued at any time, and superseded values are dropped
+ * before they are sent to the server.
+ *
+ * <p>New values are submitted to a lock-free queue, which is drained by a dedicated writer
+ * thread. Hence, input data notifiers never block each other. They only have to wait in case
+ * the queue is full, i.e., when the OPC UA server does not keep up with the incoming values.
+ * Values submitted after the writer has been closed (e.g., by late callbacks) are not queued
+ * anymore, they are written directly and the call blocks until the server has responded.
+ */
+public class BatchingValueWriter extends AsyncValueWriter {
+
+  /** Time to wait between checks of the queue capacity (in nanoseconds). */
+  private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /** Maximum number of values per batch. */
+  private final int maxBatchSize;
+
+  /** Maximum number of queued values. */
+  private final int queueCapacity;
+
+  /** Batch window (in nanoseconds). */
+  private final long batchWindowNanos;
+
+  /** Flag for conflating values per node (latest value wins). */
+  private final boolean conflate;
+
+  /** Queue of submitted values (only the node IDs in case values are conflated). */
+  private final Queue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+
+  /** Latest value of each queued node (only used in case values are conflated). */
+  private final ConcurrentHashMap<NodeId, DataValue> latestValues = new ConcurrentHashMap<>();
+
+  /** Number of queued values. */
+  private final AtomicInteger queueSize = new AtomicInteger();
+
+  /** Lock for draining the queue (only taken by the writer thread and on flush). */
+  private final Object drainLock = new Object();
+
+  /** Dedicated thread for sending batches to the OPC UA server. */
+  private final Thread writerThread;
+
+  /** Flag indicating that the writer accepts new values. */
+  private volatile boolean running = true;
+
+  /** Number of producers currently submitting a value to the queue. */
+  private final AtomicInteger activeProducers = new AtomicInteger();
+
+  /** Number of batches sent to the OPC UA server. */
+  private final AtomicLong batchCount = new AtomicLong();
+
+  /** Number of values sent to the OPC UA server. */
+  private final AtomicLong valueCount = new AtomicLong();
+
+  /** Number of values that have been dropped because they were superseded. */
+  private final AtomicLong conflatedCount = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @param maxPendingWrites maximum number of batches in flight
+   * @param batchWindow time window for collecting values (in milliseconds)
+   * @param maxBatchSize maximum number of values per batch
+   * @param conflate conflate values per node (latest value wins)
+   */
+  public BatchingValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction, int maxPendingWrites,
+      long batchWindow, int maxBatchSize, boolean conflate) {
+    super(writeFunction, maxPendingWrites);
+
+    if (batchWindow < 1 || maxBatchSize < 1) {
+      throw new IllegalArgumentException(
+          String.format("Batch window (%1$d ms) and batch size (%2$d) must be positive",
+          batchWindow, maxBatchSize)
+      );
+    }
+
+    this.maxBatchSize = maxBatchSize;
+    this.queueCapacity = (int) Math.min(Integer.MAX_VALUE,
+        (long) maxBatchSize * (maxPendingWrites + 1));
+    this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindow);
+    this.conflate = conflate;
+
+    this.writerThread = new Thread(this::runWriter, "opcua-value-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  @Override
+  public void write(NodeId id, DataValue value) {
+    activeProducers.incrementAndGet();
+
+    if (!running) {
+      // The queue is not drained anymore.
+      activeProducers.decrementAndGet();
+      writeDirectly(id, value);
+      return;
+    }
+
+    try {
+      if (conflate) {
+        if (latestValues.put(id, value) != null) {
+          // The queued value of this node has been replaced.
+          conflatedCount.incrementAndGet();
+          return;
+        }
+        queue.offer(new PendingWrite(id, null));
+      } else {
+        queue.offer(new PendingWrite(id, value));
+      }
+
+      int size = queueSize.incrementAndGet();
+
+      if (size == maxBatchSize) {
+        // A full batch is available, wake up the writer thread.
+        LockSupport.unpark(writerThread);
+      }
+
+      // Back off in case the OPC UA server does not keep up.
+      while (size > queueCapacity && running) {
+        LockSupport.parkNanos(this, BACKOFF_NANOS);
+        size = queueSize.get();
+      }
+    } finally {
+      activeProducers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Send all queued values to the OPC UA server.
+   */
+  public void flush() {
+    synchronized (drainLock) {
+      while (!queue.isEmpty()) {
+        sendNextBatch();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writerThread);
+
+    // Wait for producers that have passed the check of the running flag, such that their
+    // values are queued before the final flush.
+    while (activeProducers.get() > 0) {
+      LockSupport.parkNanos(this, BACKOFF_NANOS);
+    }
+
+    try {
+      writerThread.join(TimeUnit.NANOSECONDS.toMillis(batchWindowNanos) + 1000);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    flush();
+    super.close();
+
+    logger.info("Batched writes: {} value(s) in {} batch(es), {} value(s) conflated",
+        getValueCount(), getBatchCount(), getConflatedCount());
+  }
+
+  /**
+   * Get the number of batches sent to the OPC UA server.
+   *
+   * @return number of batches
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Get the number of values sent to the OPC UA server.
+   *
+   * @return number of values
+   */
+  public long getValueCount() {
+    return valueCount.get();
+  }
+
+  /**
+   * Get the number of values that have been dropped because they were superseded by a newer
+   * value for the same node.
+   *
+   * @return number of conflated values
+   */
+  public long getConflatedCount() {
+    return conflatedCount.get();
+  }
+
+  /**
+   * Get the number of values currently queued (at most one per node in case values are
+   * conflated).
+   *
+   * @return number of queued values
+   */
+  public int getQueuedCount() {
+    return queueSize.get();
+  }
+
+  /**
+   * Main loop of the writer thread: wait until either the batch window has elapsed or a full
+   * batch is available, then send the queued values.
+   */
+  private void runWriter() {
+    while (running) {
+      long deadline = System.nanoTime() + batchWindowNanos;
+      long remaining = batchWindowNanos;
+
+      while (running && remaining > 0 && queueSize.get() < maxBatchSize) {
+        LockSupport.parkNanos(this, remaining);
+        remaining = deadline - System.nanoTime();
+      }
+
+      flush();
+    }
+  }
+
+  /**
+   * Take the next batch from the queue and send it with a single write request (caller has to
+   * hold the drain lock).
+   */
+  private void sendNextBatch() {
+    List<NodeId> ids = new ArrayList<>(maxBatchSize);
+    List<DataValue> dvs = new ArrayList<>(maxBatchSize);
+    PendingWrite pending;
+
+    while (ids.size() < maxBatchSize && (pending = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+
+      // Once the latest value has been taken, a new value of the node is queued again.
+      DataValue value = conflate ? latestValues.remove(pending.id) : pending.value;
+
+      ids.add(pending.id);
+      dvs.add(value);
+    }
+
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    batchCount.incrementAndGet();
+    valueCount.addAndGet(ids.size());
+
+    sendAsync(ids, dvs);
+  }
+}
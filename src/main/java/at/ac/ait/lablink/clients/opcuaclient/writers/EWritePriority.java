@@ -0,0 +1,36 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+/**
+ * Enumeration of write priorities. Each priority class has its own lane in the write
+ * pipeline, writes of high priority are scheduled ahead of writes of normal priority.
+ */
+public enum EWritePriority {
+
+  HIGH,
+  NORMAL;
+
+  /**
+   * Map write priority label (string) to write priority (enum).
+   * @param strPriority write priority label (string)
+   * @return write priority (enum)
+   */
+  public static EWritePriority fromString(String strPriority) {
+    if (strPriority.toLowerCase().equals("high")) {
+      return HIGH;
+    } else if (strPriority.toLowerCase().equals("normal")) {
+      return NORMAL;
+    }
+
+    throw new IllegalArgumentException(
+        String.format("Write priority not supported: '%1$s'", strPriority)
+    );
+  }
+}
@@ -0,0 +1,34 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * Implementations of this interface are responsible for forwarding new values of the client's
+ * inputs to the OPC UA server. The input data notifiers hand over each new value (via method
+ * {@link #write(NodeId, DataValue)}), the implementation decides how and when the value is
+ * actually written to the server.
+ */
+public interface IValueWriter {
+
+  /**
+   * Write a new value for the variable associated to the given node ID to the OPC UA server.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param value new data value
+   */
+  public abstract void write(NodeId id, DataValue value);
+
+  /**
+   * Stop accepting new values and wait for pending writes to complete.
+   */
+  public abstract void close();
+}
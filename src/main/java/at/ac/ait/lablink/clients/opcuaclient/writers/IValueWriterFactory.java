@@ -0,0 +1,35 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Implementations of this interface create the value writers for the lanes of a
+ * {@link PriorityValueWriter}, such that each lane can be configured individually (e.g.,
+ * with its own batch window).
+ */
+public interface IValueWriterFactory {
+
+  /**
+   * Create the value writer for a lane.
+   *
+   * @param priority priority class of the lane
+   * @param writeFunction function for writing values to the OPC UA server
+   * @return value writer
+   */
+  public abstract IValueWriter create(EWritePriority priority, BiFunction<List<NodeId>,
+      List<DataValue>, CompletableFuture<List<StatusCode>>> writeFunction);
+}
@@ -0,0 +1,37 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+/**
+ * Class PendingWrite.
+ *
+ * <p>Value that has been submitted for writing but not yet been sent to the OPC UA server.
+ */
+final class PendingWrite {
+
+  /** Node ID of the OPC UA server variable. */
+  final NodeId id;
+
+  /** New data value. */
+  final DataValue value;
+
+  /**
+   * Constructor.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param value new data value
+   */
+  PendingWrite(NodeId id, DataValue value) {
+    this.id = id;
+    this.value = value;
+  }
+}
@@ -0,0 +1,301 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Class PriorityValueWriter.
+ *
+ * <p>Value writer with separate lanes for each priority class. Each lane has its own value
+ * writer (and hence its own queue and batch window), the priority class of a node is
+ * registered when the corresponding input is configured (default: normal priority). The
+ * write requests of the lanes are sent to the OPC UA server in the order of their priority:
+ * before each request of normal priority is sent, all pending high-priority requests are
+ * sent, such that a burst of bulk writes does not delay control signals. The lanes are never
+ * blocked, requests are queued and sent by whichever thread currently drains the queues.
+ *
+ * <p>For each lane, the latency from the creation of a value (source timestamp) until the
+ * OPC UA server has acknowledged the write is recorded.
+ */
+public class PriorityValueWriter implements IValueWriter {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("PriorityValueWriter");
+
+  /** Function for writing values to the OPC UA server. */
+  private final BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction;
+
+  /** Factory for the value writers of the lanes. */
+  private final IValueWriterFactory writerFactory;
+
+  /** Value writers of the lanes (indexed by priority, created on demand). */
+  private final IValueWriter[] lanes = new IValueWriter[EWritePriority.values().length];
+
+  /** Latency statistics of the lanes (indexed by priority). */
+  private final WriteLatencyStatistics[] latencies =
+      new WriteLatencyStatistics[EWritePriority.values().length];
+
+  /** Priority classes of the nodes (nodes not contained have normal priority). */
+  private final ConcurrentHashMap<NodeId, EWritePriority> priorities =
+      new ConcurrentHashMap<>();
+
+  /** Flag indicating that at least one node has high priority. */
+  private volatile boolean hasHighPriorityNodes = false;
+
+  /** Write requests waiting to be sent (indexed by priority). */
+  @SuppressWarnings("unchecked")
+  private final Queue<Request>[] requests = new Queue[EWritePriority.values().length];
+
+  /** Lock held by the thread that currently sends the queued write requests. */
+  private final ReentrantLock drainLock = new ReentrantLock();
+
+  /**
+   * Write request of a lane, which has not been sent yet.
+   */
+  private static final class Request {
+    final List<NodeId> ids;
+    final List<DataValue> dvs;
+    final CompletableFuture<List<StatusCode>> result = new CompletableFuture<>();
+
+    Request(List<NodeId> ids, List<DataValue> dvs) {
+      this.ids = ids;
+      this.dvs = dvs;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @param writerFactory factory for the value writers of the lanes
+   */
+  public PriorityValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction, IValueWriterFactory writerFactory) {
+    this.writeFunction = writeFunction;
+    this.writerFactory = writerFactory;
+
+    for (EWritePriority priority : EWritePriority.values()) {
+      latencies[priority.ordinal()] = new WriteLatencyStatistics();
+      requests[priority.ordinal()] = new ConcurrentLinkedQueue<>();
+    }
+
+    getLane(EWritePriority.NORMAL);
+  }
+
+  /**
+   * Set the priority class for writes to a node. Has to be called before values are written
+   * to the node.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param priority priority class
+   */
+  public void setPriority(NodeId id, EWritePriority priority) {
+    getLane(priority);
+
+    if (priority == EWritePriority.NORMAL) {
+      priorities.remove(id);
+    } else {
+      priorities.put(id, priority);
+      hasHighPriorityNodes = true;
+    }
+  }
+
+  /**
+   * Get the priority class for writes to a node.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @return priority class
+   */
+  public EWritePriority getPriority(NodeId id) {
+    return hasHighPriorityNodes
+        ? priorities.getOrDefault(id, EWritePriority.NORMAL) : EWritePriority.NORMAL;
+  }
+
+  /**
+   * Get the latency statistics of a lane.
+   *
+   * @param priority priority class of the lane
+   * @return latency statistics
+   */
+  public WriteLatencyStatistics getLatencyStatistics(EWritePriority priority) {
+    return latencies[priority.ordinal()];
+  }
+
+  @Override
+  public void write(NodeId id, DataValue value) {
+    lanes[getPriority(id).ordinal()].write(id, value);
+  }
+
+  @Override
+  public void close() {
+    for (EWritePriority priority : EWritePriority.values()) {
+      IValueWriter lane = lanes[priority.ordinal()];
+
+      if (lane != null) {
+        lane.close();
+        logger.info("Write latency ({} priority): {}", priority.toString().toLowerCase(),
+            latencies[priority.ordinal()]);
+      }
+    }
+  }
+
+  /**
+   * Retrieve the value writer of a lane, create it if it does not exist yet.
+   *
+   * @param priority priority class of the lane
+   * @return value writer of the lane
+   */
+  private synchronized IValueWriter getLane(EWritePriority priority) {
+    IValueWriter lane = lanes[priority.ordinal()];
+
+    if (lane == null) {
+      lane = writerFactory.create(priority, (ids, dvs) -> sendInLane(priority, ids, dvs));
+      lanes[priority.ordinal()] = lane;
+    }
+
+    return lane;
+  }
+
+  /**
+   * Send values to the OPC UA server on behalf of a lane. The request is queued according to
+   * its priority and sent as soon as all pending requests of higher priority have been sent.
+   * This call does not wait for other requests.
+   *
+   * @param priority priority class of the lane
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs new data values
+   * @return completable future with list of status codes
+   */
+  private CompletableFuture<List<StatusCode>> sendInLane(EWritePriority priority,
+      List<NodeId> ids, List<DataValue> dvs) {
+    Request request = new Request(ids, dvs);
+    requests[priority.ordinal()].add(request);
+
+    drainRequests();
+
+    return request.result.whenComplete((statusCodes, ex) -> {
+      if (ex == null) {
+        recordLatency(latencies[priority.ordinal()], dvs, statusCodes);
+      }
+    });
+  }
+
+  /**
+   * Send the queued write requests, highest priority first. Only one thread sends requests
+   * at a time, other threads return immediately (their requests are sent by that thread).
+   */
+  private void drainRequests() {
+    while (hasQueuedRequests()) {
+      if (!drainLock.tryLock()) {
+        // Another thread is sending, it checks the queues again before it stops.
+        return;
+      }
+
+      try {
+        Request request;
+        while ((request = nextRequest()) != null) {
+          send(request);
+        }
+      } finally {
+        drainLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Retrieve the next request to be sent, i.e., the oldest request of the highest priority.
+   *
+   * @return write request (null in case no requests are queued)
+   */
+  private Request nextRequest() {
+    for (EWritePriority priority : EWritePriority.values()) {
+      Request request = requests[priority.ordinal()].poll();
+      if (request != null) {
+        return request;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Check whether there are queued write requests.
+   *
+   * @return true in case requests are queued
+   */
+  private boolean hasQueuedRequests() {
+    for (Queue<Request> queue : requests) {
+      if (!queue.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Send a write request to the OPC UA server.
+   *
+   * @param request write request
+   */
+  private void send(Request request) {
+    CompletableFuture<List<StatusCode>> cf;
+
+    try {
+      cf = writeFunction.apply(request.ids, request.dvs);
+    } catch (RuntimeException ex) {
+      request.result.completeExceptionally(ex);
+      return;
+    }
+
+    cf.whenComplete((statusCodes, ex) -> {
+      if (ex != null) {
+        request.result.completeExceptionally(ex);
+      } else {
+        request.result.complete(statusCodes);
+      }
+    });
+  }
+
+  /**
+   * Record the latency of successfully written values.
+   *
+   * @param statistics latency statistics of the lane
+   * @param dvs data values that have been written
+   * @param statusCodes status codes returned by the OPC UA server
+   */
+  private static void recordLatency(WriteLatencyStatistics statistics, List<DataValue> dvs,
+      List<StatusCode> statusCodes) {
+    long now = DateTime.now().getUtcTime();
+
+    for (int i = 0; i < dvs.size() && i < statusCodes.size(); ++i) {
+      DateTime sourceTime = dvs.get(i).getSourceTime();
+      StatusCode status = statusCodes.get(i);
+
+      if (sourceTime != null && status != null && status.isGood()) {
+        // OPC UA time is measured in intervals of 100 ns.
+        statistics.record(Math.max(0, now - sourceTime.getUtcTime()) / 10);
+      }
+    }
+  }
+}
@@ -0,0 +1,559 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Class StoreAndForwardBuffer.
+ *
+ * <p>Bounded in-memory buffer for values that cannot be written to the OPC UA server because
+ * the connection is down. For each node, either only the latest value or a configurable
+ * number of values is kept. The buffer has a strict memory budget (based on an estimate of
+ * the memory used per value). In case the budget is exceeded, either the oldest buffered
+ * value (of the node that has not been updated for the longest time) or the new value is
+ * dropped.
+ *
+ * <p>When the connection is re-established, the buffered values are written in batches. In
+ * case several values are buffered per node, they are written in the order they have been
+ * submitted, i.e., each batch contains at most one value per node. Values submitted while the
+ * buffer is not empty or a batch is being written are appended to the buffer, so that they
+ * cannot be overwritten by older buffered values. Values of a batch that failed due to a
+ * connection problem are put back in front of the values of the same node that have been
+ * buffered in the meantime, or dropped in case these already fill the node's history.
+ */
+public class StoreAndForwardBuffer {
+
+  /**
+   * Policies for handling new values in case the memory budget is exceeded.
+   */
+  public enum EOverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST;
+
+    /**
+     * Map overflow policy label (string) to overflow policy (enum).
+     * @param strPolicy overflow policy label (string)
+     * @return overflow policy (enum)
+     */
+    public static EOverflowPolicy fromString(String strPolicy) {
+      if (strPolicy.toLowerCase().equals("drop-oldest")) {
+        return DROP_OLDEST;
+      } else if (strPolicy.toLowerCase().equals("drop-newest")) {
+        return DROP_NEWEST;
+      }
+
+      throw new IllegalArgumentException(
+          String.format("Overflow policy not supported: '%1$s'", strPolicy)
+      );
+    }
+  }
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("StoreAndForwardBuffer");
+
+  /** Estimated memory used per buffered value, excluding the payload of strings (in bytes). */
+  static final long VALUE_OVERHEAD_BYTES = 160;
+
+  /** Delay before retrying to write buffered values after a connection problem (in ms). */
+  private static final long RETRY_DELAY_MS = 1000;
+
+  /** Status codes indicating that a value could not be written due to a connection problem. */
+  private static final Set<Long> CONNECTION_ERRORS = Set.of(
+      StatusCodes.Bad_CommunicationError,
+      StatusCodes.Bad_ConnectionClosed,
+      StatusCodes.Bad_ConnectionRejected,
+      StatusCodes.Bad_NoCommunication,
+      StatusCodes.Bad_NotConnected,
+      StatusCodes.Bad_RequestTimeout,
+      StatusCodes.Bad_SecureChannelClosed,
+      StatusCodes.Bad_SecureChannelIdInvalid,
+      StatusCodes.Bad_ServerHalted,
+      StatusCodes.Bad_ServerNotConnected,
+      StatusCodes.Bad_SessionClosed,
+      StatusCodes.Bad_SessionIdInvalid,
+      StatusCodes.Bad_Timeout
+  );
+
+  /** Function for writing values to the OPC UA server. */
+  private final BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction;
+
+  /** Maximum number of buffered values per node. */
+  private final int historySize;
+
+  /** Memory budget (in bytes). */
+  private final long maxBytes;
+
+  /** Policy for handling new values in case the memory budget is exceeded. */
+  private final EOverflowPolicy overflowPolicy;
+
+  /** Counters for buffered and dropped values. */
+  private final WriteStatistics statistics;
+
+  /** Buffered values per node, the least recently updated node comes first. */
+  private final LinkedHashMap<NodeId, Deque<DataValue>> buffer =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Estimated memory used by the buffered values (in bytes). */
+  private long usedBytes = 0;
+
+  /** Flag indicating that the connection to the OPC UA server is up. */
+  private boolean connected = true;
+
+  /** Flag indicating that buffered values are currently being written. */
+  private boolean flushing = false;
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @param historySize maximum number of buffered values per node
+   * @param maxBytes memory budget (in bytes)
+   * @param overflowPolicy policy for handling new values in case the budget is exceeded
+   * @param statistics counters for buffered and dropped values
+   */
+  public StoreAndForwardBuffer(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction, int historySize, long maxBytes,
+      EOverflowPolicy overflowPolicy, WriteStatistics statistics) {
+
+    if (historySize < 1 || maxBytes < VALUE_OVERHEAD_BYTES) {
+      throw new IllegalArgumentException(
+          String.format("Invalid store-and-forward buffer size (history: %1$d, "
+          + "memory budget: %2$d bytes)", historySize, maxBytes)
+      );
+    }
+
+    this.writeFunction = writeFunction;
+    this.historySize = historySize;
+    this.maxBytes = maxBytes;
+    this.overflowPolicy = overflowPolicy;
+    this.statistics = statistics;
+  }
+
+  /**
+   * Check whether new values have to be stored in the buffer instead of being written to the
+   * OPC UA server, i.e., either the connection is down, older values are still buffered or
+   * a batch of older values is currently being written.
+   *
+   * @return true if new values have to be buffered
+   */
+  public synchronized boolean isActive() {
+    return !connected || flushing || !buffer.isEmpty();
+  }
+
+  /**
+   * Check whether a failed write has been caused by a connection problem.
+   *
+   * @param ex exception thrown by the write request
+   * @return true if the exception indicates a connection problem
+   */
+  public static boolean isConnectionError(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof UaException) {
+        return isConnectionError(((UaException) cause).getStatusCode());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check whether a status code indicates a connection problem.
+   *
+   * @param status status code returned for a write request
+   * @return true if the status code indicates a connection problem
+   */
+  public static boolean isConnectionError(StatusCode status) {
+    return status != null && CONNECTION_ERRORS.contains(status.getValue());
+  }
+
+  /**
+   * Store values in the buffer. In case the connection is up, the buffered values are
+   * written to the OPC UA server.
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs new data values
+   */
+  public void store(List<NodeId> ids, List<DataValue> dvs) {
+    boolean flushNow;
+
+    synchronized (this) {
+      for (int i = 0; i < ids.size(); ++i) {
+        storeValue(ids.get(i), dvs.get(i));
+      }
+
+      flushNow = connected;
+    }
+
+    if (flushNow) {
+      flush();
+    }
+  }
+
+  /**
+   * Notify the buffer that the connection to the OPC UA server has been lost.
+   */
+  public synchronized void onConnectionLost() {
+    if (connected) {
+      logger.warn("Connection to OPC UA server lost, buffering writes");
+    }
+    connected = false;
+  }
+
+  /**
+   * Notify the buffer that the connection to the OPC UA server has been re-established. The
+   * buffered values are written to the OPC UA server.
+   */
+  public void onConnectionRestored() {
+    synchronized (this) {
+      connected = true;
+
+      if (!buffer.isEmpty()) {
+        logger.info("Connection to OPC UA server restored, writing {} buffered value(s)",
+            getBufferedValueCount());
+      }
+    }
+
+    flush();
+  }
+
+  /**
+   * Get the number of currently buffered values.
+   *
+   * @return number of buffered values
+   */
+  public synchronized int getBufferedValueCount() {
+    int count = 0;
+    for (Deque<DataValue> values : buffer.values()) {
+      count += values.size();
+    }
+    return count;
+  }
+
+  /**
+   * Get the estimated memory used by the currently buffered values.
+   *
+   * @return estimated memory usage (in bytes)
+   */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * Write the buffered values to the OPC UA server. Each batch contains the oldest buffered
+   * value of each node, the next batch is only sent after the previous one has completed.
+   */
+  public void flush() {
+    List<NodeId> ids = new ArrayList<>();
+    List<DataValue> dvs = new ArrayList<>();
+
+    synchronized (this) {
+      if (flushing || !connected || buffer.isEmpty()) {
+        return;
+      }
+
+      flushing = true;
+
+      Iterator<Map.Entry<NodeId, Deque<DataValue>>> iter = buffer.entrySet().iterator();
+
+      while (iter.hasNext()) {
+        Map.Entry<NodeId, Deque<DataValue>> entry = iter.next();
+        DataValue value = entry.getValue().pollFirst();
+
+        ids.add(entry.getKey());
+        dvs.add(value);
+        usedBytes -= estimateSize(value);
+
+        if (entry.getValue().isEmpty()) {
+          iter.remove();
+        }
+      }
+    }
+
+    CompletableFuture<List<StatusCode>> cf;
+
+    try {
+      cf = writeFunction.apply(ids, dvs);
+    } catch (RuntimeException ex) {
+      cf = new CompletableFuture<>();
+      cf.completeExceptionally(ex);
+    }
+
+    cf.whenComplete((statusCodes, ex) -> {
+      if (handleFlushResult(ids, dvs, statusCodes, ex)) {
+        flush();
+      } else {
+        // Connection problem, retry later (unless the session is reported to be inactive).
+        CompletableFuture.runAsync(this::flush,
+            CompletableFuture.delayedExecutor(RETRY_DELAY_MS, TimeUnit.MILLISECONDS));
+      }
+    });
+  }
+
+  /**
+   * Evaluate the result of writing buffered values. Values that could not be written due to
+   * a connection problem are stored again.
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs data values that have been written
+   * @param statusCodes status codes returned by the OPC UA server (null in case of an error)
+   * @param ex exception thrown during the write request (null in case of no error)
+   * @return false in case of a connection problem
+   */
+  private synchronized boolean handleFlushResult(List<NodeId> ids, List<DataValue> dvs,
+      List<StatusCode> statusCodes, Throwable ex) {
+    flushing = false;
+
+    if (ex != null) {
+      if (isConnectionError(ex)) {
+        for (int i = 0; i < ids.size(); ++i) {
+          restoreValue(ids.get(i), dvs.get(i));
+        }
+        return false;
+      }
+
+      logger.warn("Failed to write {} buffered value(s): {}", ids.size(), ex.toString());
+      for (int i = 0; i < ids.size(); ++i) {
+        statistics.countDropped();
+      }
+      return true;
+    }
+
+    boolean success = true;
+
+    for (int i = 0; i < ids.size(); ++i) {
+      StatusCode status = (i < statusCodes.size()) ? statusCodes.get(i) : null;
+
+      if (isConnectionError(status)) {
+        restoreValue(ids.get(i), dvs.get(i));
+        success = false;
+      } else if (status == null || !status.isGood()) {
+        logger.warn("Failed to write buffered value '{}' to nodeId = {} (status = {})",
+            dvs.get(i), ids.get(i), status);
+      } else {
+        statistics.countForwarded();
+      }
+    }
+
+    return success;
+  }
+
+  /**
+   * Store a single value (caller has to hold the lock). Values are kept in the order of
+   * their source timestamps, hence a value returned from a failed write cannot supersede a
+   * newer value that has already been buffered.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param value new data value
+   */
+  private void storeValue(NodeId id, DataValue value) {
+    long size = estimateSize(value);
+
+    Deque<DataValue> values = buffer.get(id);
+
+    if (values == null) {
+      values = new ArrayDeque<>(Math.min(historySize, 16));
+      buffer.put(id, values);
+    }
+
+    if (values.size() >= historySize && isOlder(value, values.peekLast())) {
+      // Only the latest values are kept, the new value is outdated.
+      statistics.countDropped();
+      return;
+    }
+
+    // Values of this node superseded by the new value are accounted for before the memory budget
+    // is checked, such that the latest value of a node never has to give way to an outdated
+    // value (of the same or another node).
+    int supersededCount = getSupersededCount(values);
+
+    while (usedBytes - getSupersededBytes(values, supersededCount) + size > maxBytes) {
+      if (overflowPolicy == EOverflowPolicy.DROP_NEWEST || !dropOldest(id, values)) {
+        statistics.countDropped();
+        if (values.isEmpty()) {
+          buffer.remove(id);
+        }
+        return;
+      }
+      supersededCount = getSupersededCount(values);
+    }
+
+    for (int i = 0; i < supersededCount; ++i) {
+      usedBytes -= estimateSize(values.pollFirst());
+      statistics.countDropped();
+    }
+
+    insertOrdered(values, value);
+    usedBytes += size;
+    statistics.countBuffered();
+  }
+
+  /**
+   * Store a value again that could not be written due to a connection problem (caller has to
+   * hold the lock). All values of the same node buffered in the meantime have been submitted
+   * after this value, hence it is put in front of them (regardless of the source timestamps,
+   * which may be equal). It is dropped in case these values already fill the node's history
+   * or the memory budget, i.e., it never takes the place of a newer value.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param value data value that could not be written
+   */
+  private void restoreValue(NodeId id, DataValue value) {
+    Deque<DataValue> values = buffer.get(id);
+
+    if (values == null || values.isEmpty()) {
+      storeValue(id, value);
+      return;
+    }
+
+    long size = estimateSize(value);
+
+    if (values.size() >= historySize || usedBytes + size > maxBytes) {
+      statistics.countDropped();
+      return;
+    }
+
+    values.addFirst(value);
+    usedBytes += size;
+    statistics.countBuffered();
+  }
+
+  /**
+   * Get the number of buffered values of a node that are superseded by a new value.
+   *
+   * @param values buffered values of a node
+   * @return number of superseded values (the oldest values of the node)
+   */
+  private int getSupersededCount(Deque<DataValue> values) {
+    return Math.max(0, values.size() - (historySize - 1));
+  }
+
+  /**
+   * Get the memory used by the oldest buffered values of a node.
+   *
+   * @param values buffered values of a node
+   * @param count number of values
+   * @return estimated memory (in bytes)
+   */
+  private static long getSupersededBytes(Deque<DataValue> values, int count) {
+    long bytes = 0;
+    Iterator<DataValue> iter = values.iterator();
+    for (int i = 0; i < count; ++i) {
+      bytes += estimateSize(iter.next());
+    }
+    return bytes;
+  }
+
+  /**
+   * Insert a value according to its source timestamp (most values are simply appended).
+   *
+   * @param values buffered values of a node
+   * @param value new data value
+   */
+  private static void insertOrdered(Deque<DataValue> values, DataValue value) {
+    if (values.isEmpty() || !isOlder(value, values.peekLast())) {
+      values.addLast(value);
+      return;
+    }
+
+    List<DataValue> newer = new ArrayList<>();
+    while (!values.isEmpty() && isOlder(value, values.peekLast())) {
+      newer.add(0, values.pollLast());
+    }
+    values.addLast(value);
+    values.addAll(newer);
+  }
+
+  /**
+   * Drop the oldest value of the least recently updated node (caller has to hold the lock).
+   * The values of the node that is currently being stored are only dropped in case no other
+   * node has buffered values. Its entry is never removed from the buffer, because the caller
+   * is about to add the new value to it.
+   *
+   * @param currentId node ID of the value that is currently being stored
+   * @param currentValues buffered values of the node that is currently being stored
+   * @return false in case the buffer is empty
+   */
+  private boolean dropOldest(NodeId currentId, Deque<DataValue> currentValues) {
+    Iterator<Map.Entry<NodeId, Deque<DataValue>>> iter = buffer.entrySet().iterator();
+
+    while (iter.hasNext()) {
+      Map.Entry<NodeId, Deque<DataValue>> entry = iter.next();
+      Deque<DataValue> values = entry.getValue();
+
+      if (!values.isEmpty() && !entry.getKey().equals(currentId)) {
+        usedBytes -= estimateSize(values.pollFirst());
+        statistics.countDropped();
+
+        if (values.isEmpty()) {
+          iter.remove();
+        }
+        return true;
+      }
+    }
+
+    if (!currentValues.isEmpty()) {
+      usedBytes -= estimateSize(currentValues.pollFirst());
+      statistics.countDropped();
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Check whether a value is older than another value (according to their source timestamps).
+   *
+   * @param value data value
+   * @param other other data value
+   * @return true if the value is older
+   */
+  private static boolean isOlder(DataValue value, DataValue other) {
+    DateTime time = value.getSourceTime();
+    DateTime otherTime = other.getSourceTime();
+
+    return time != null && otherTime != null && time.getUtcTime() < otherTime.getUtcTime();
+  }
+
+  /**
+   * Estimate the memory used by a buffered value.
+   *
+   * @param value data value
+   * @return estimated memory usage (in bytes)
+   */
+  static long estimateSize(DataValue value) {
+    Object obj = value.getValue().getValue();
+
+    if (obj instanceof String) {
+      return VALUE_OVERHEAD_BYTES + 2L * ((String) obj).length();
+    }
+
+    return VALUE_OVERHEAD_BYTES;
+  }
+}
@@ -0,0 +1,55 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+
+/**
+ * Class SyncValueWriter.
+ *
+ * <p>Writes each value to the OPC UA server and blocks until the server has responded.
+ */
+public class SyncValueWriter extends ValueWriterBase {
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   */
+  public SyncValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction) {
+    super(writeFunction);
+  }
+
+  @Override
+  public void write(NodeId id, DataValue value) {
+    List<NodeId> ids = getIdList(id);
+    List<DataValue> dvs = ImmutableList.of(value);
+
+    try {
+      handleResult(ids, dvs, send(ids, dvs).get(), null);
+    } catch (InterruptedException | ExecutionException ex) {
+      handleResult(ids, dvs, null, ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    // Nothing to do, all writes are completed synchronously.
+  }
+}
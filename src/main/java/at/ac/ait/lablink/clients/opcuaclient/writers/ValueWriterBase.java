@@ -0,0 +1,152 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import com.google.common.collect.ImmutableList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Class ValueWriterBase.
+ *
+ * <p>Base class for value writers, provides the link to the OPC UA server and the evaluation
+ * of the status codes returned by the server. In case a store-and-forward buffer is
+ * configured, values that cannot be written due to a connection problem are buffered.
+ */
+public abstract class ValueWriterBase implements IValueWriter {
+
+  /** Logger. */
+  protected static final Logger logger = LogManager.getLogger("ValueWriter");
+
+  /** Function for writing values to the OPC UA server. */
+  private final BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction;
+
+  /** Result of write requests that have been deferred to the store-and-forward buffer. */
+  private static final List<StatusCode> DEFERRED = Collections.unmodifiableList(
+      new ArrayList<>());
+
+  /** Single-element node ID lists, reused for all writes of a node. */
+  private final ConcurrentHashMap<NodeId, List<NodeId>> idLists = new ConcurrentHashMap<>();
+
+  /** Store-and-forward buffer (null if not configured). */
+  private volatile StoreAndForwardBuffer storeAndForwardBuffer = null;
+
+  /**
+   * Constructor.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   */
+  protected ValueWriterBase(BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction) {
+    this.writeFunction = writeFunction;
+  }
+
+  /**
+   * Set the store-and-forward buffer for values that cannot be written due to a connection
+   * problem.
+   *
+   * @param storeAndForwardBuffer store-and-forward buffer (null to disable buffering)
+   */
+  public void setStoreAndForwardBuffer(StoreAndForwardBuffer storeAndForwardBuffer) {
+    this.storeAndForwardBuffer = storeAndForwardBuffer;
+  }
+
+  /**
+   * Retrieve a (cached) list containing only the given node ID, which avoids allocating a new
+   * list for each single-value write.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @return immutable list containing the node ID
+   */
+  protected List<NodeId> getIdList(NodeId id) {
+    List<NodeId> ids = idLists.get(id);
+
+    if (ids == null) {
+      ids = idLists.computeIfAbsent(id, ImmutableList::of);
+    }
+
+    return ids;
+  }
+
+  /**
+   * Send values to the OPC UA server. In case the connection is down or there are still
+   * buffered values, the values are added to the store-and-forward buffer instead.
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs new data values
+   * @return completable future with list of status codes
+   */
+  protected CompletableFuture<List<StatusCode>> send(List<NodeId> ids, List<DataValue> dvs) {
+    StoreAndForwardBuffer buffer = storeAndForwardBuffer;
+
+    if (buffer != null && buffer.isActive()) {
+      buffer.store(ids, dvs);
+      return CompletableFuture.completedFuture(DEFERRED);
+    }
+
+    try {
+      return writeFunction.apply(ids, dvs);
+    } catch (RuntimeException ex) {
+      CompletableFuture<List<StatusCode>> failed = new CompletableFuture<>();
+      failed.completeExceptionally(ex);
+      return failed;
+    }
+  }
+
+  /**
+   * Evaluate the result of a write request. Failed writes are reported for each node, values
+   * that could not be written due to a connection problem are buffered (if configured).
+   *
+   * @param ids list of node IDs of the OPC UA server variables
+   * @param dvs data values that have been written
+   * @param statusCodes status codes returned by the OPC UA server (null in case of an error)
+   * @param ex exception thrown during the write request (null in case of no error)
+   */
+  protected void handleResult(List<NodeId> ids, List<DataValue> dvs,
+      List<StatusCode> statusCodes, Throwable ex) {
+    if (statusCodes == DEFERRED) {
+      return;
+    }
+
+    StoreAndForwardBuffer buffer = storeAndForwardBuffer;
+
+    if (ex != null) {
+      if (buffer != null && StoreAndForwardBuffer.isConnectionError(ex)) {
+        buffer.store(ids, dvs);
+      } else {
+        logger.warn("Failed to write {} value(s): {}", ids.size(), ex.toString());
+      }
+      return;
+    }
+
+    for (int i = 0; i < ids.size(); ++i) {
+      StatusCode status = (i < statusCodes.size()) ? statusCodes.get(i) : null;
+
+      if (buffer != null && StoreAndForwardBuffer.isConnectionError(status)) {
+        buffer.store(getIdList(ids.get(i)), ImmutableList.of(dvs.get(i)));
+      } else if (status == null || !status.isGood()) {
+        logger.warn("Failed to write '{}' to nodeId = {} (status = {})",
+            dvs.get(i), ids.get(i), status);
+      }
+    }
+  }
+}
@@ -0,0 +1,855 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UByte;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.ULong;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UShort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Class WriteJournal.
+ *
+ * <p>Append-only journal of the values written to the OPC UA server, stored in a memory-mapped
+ * file. Each value is recorded before it is handed to the value writer and marked as
+ * acknowledged (in place) once the OPC UA server has confirmed the write. Values that have not
+ * been acknowledged when the process terminates are replayed at the next start.
+ *
+ * <p>The journal uses a compact binary format. The file starts with a header (magic number,
+ * version), followed by records:
+ * <ul>
+ *   <li>node record: kind, node index, length and UTF-8 bytes of the parseable node ID</li>
+ *   <li>value record: kind, state (pending/acknowledged), node index, type tag, source
+ *     timestamp and value (8 bytes, or length and UTF-8 bytes for strings)</li>
+ * </ul>
+ * The kind of a record is written last, hence a record that has been written partially
+ * before a crash is ignored. Each pending value is assigned a sequence number in the order the
+ * values are appended. A write acknowledges all pending values of the same node up to the
+ * sequence number of the written value, since they have been superseded. The written value is
+ * identified by the data value instance passed to {@link #append(NodeId, DataValue)} (the write
+ * path hands the same instance to the OPC UA server), hence values with the same source
+ * timestamp are kept apart.
+ *
+ * <p>Once the acknowledged records exceed a threshold, the journal is compacted by a
+ * background thread (or by the writing thread, in case the journal is full): the node records
+ * and pending value records are copied to a temporary file, which is then copied into the
+ * journal file itself (the journal file stays mapped, renaming a mapped file fails on some
+ * platforms). In case the compaction is interrupted, the temporary file is copied again when
+ * the journal is opened. After a failed compaction, the next attempt is deferred until a
+ * further threshold's worth of records has been acknowledged.
+ */
+public class WriteJournal {
+
+  /** Logger. */
+  private static final Logger logger = LogManager.getLogger("WriteJournal");
+
+  /** Magic number identifying journal files ("LLWJ"). */
+  private static final int MAGIC = 0x4C4C574A;
+
+  /** Version of the journal format. */
+  private static final int VERSION = 1;
+
+  /** Size of the file header (in bytes). */
+  private static final int HEADER_SIZE = 16;
+
+  // Record kinds.
+  private static final byte KIND_END = 0;
+  private static final byte KIND_NODE = 1;
+  private static final byte KIND_VALUE = 2;
+
+  // Value record states.
+  private static final byte STATE_PENDING = 0;
+  private static final byte STATE_ACKED = 1;
+
+  // Type tags.
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_BYTE = 2;
+  private static final byte TYPE_UBYTE = 3;
+  private static final byte TYPE_SHORT = 4;
+  private static final byte TYPE_USHORT = 5;
+  private static final byte TYPE_INT = 6;
+  private static final byte TYPE_UINT = 7;
+  private static final byte TYPE_LONG = 8;
+  private static final byte TYPE_ULONG = 9;
+  private static final byte TYPE_FLOAT = 10;
+  private static final byte TYPE_DOUBLE = 11;
+  private static final byte TYPE_STRING = 12;
+
+  /** Size of a value record without the value (kind, state, node index, type, timestamp). */
+  private static final int VALUE_HEADER_SIZE = 1 + 1 + 4 + 1 + 8;
+
+  /**
+   * Position, source timestamp and sequence number of a pending value record.
+   */
+  private static final class Entry {
+    int position;
+    final int size;
+    final long timestamp;
+    final long sequence;
+    DataValue value;
+
+    Entry(int position, int size, long timestamp, long sequence, DataValue value) {
+      this.position = position;
+      this.size = size;
+      this.timestamp = timestamp;
+      this.sequence = sequence;
+      this.value = value;
+    }
+  }
+
+  /** Path of the journal file. */
+  private final Path path;
+
+  /** Path of the temporary file used for compaction. */
+  private final Path tmpPath;
+
+  /** Size of the journal file (in bytes). */
+  private final int maxBytes;
+
+  /** Amount of acknowledged records that triggers a compaction (in bytes). */
+  private final int compactionThreshold;
+
+  /** Memory-mapped journal file. */
+  private MappedByteBuffer buffer;
+
+  /** Position for the next record. */
+  private int writePosition;
+
+  /** Total size of acknowledged records (in bytes). */
+  private int ackedBytes = 0;
+
+  /** Minimum size of acknowledged records before compaction is retried after a failure. */
+  private int compactionBackoffBytes = 0;
+
+  /** Flag indicating that a compaction has been scheduled in the background. */
+  private boolean compactionScheduled = false;
+
+  /** Flag indicating that the journal has been closed. */
+  private boolean closed = false;
+
+  /** Flag indicating that the journal has been found full (logged once per occurrence). */
+  private boolean full = false;
+
+  /** Sequence number of the next pending value record. */
+  private long nextSequence = 0;
+
+  /** Statistics for values that could not be recorded. */
+  private final WriteStatistics statistics;
+
+  /** Executor for compacting the journal (not on the thread acknowledging the writes). */
+  private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "WriteJournalCompaction");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /** Node IDs, the position within the list is the node index used in value records. */
+  private final List<NodeId> nodes = new ArrayList<>();
+
+  /** Positions of the node records (indexed by node index). */
+  private final List<Integer> nodePositions = new ArrayList<>();
+
+  /** Node indices. */
+  private final Map<NodeId, Integer> nodeIndices = new HashMap<>();
+
+  /** Pending value records per node (in the order they have been appended). */
+  private final Map<NodeId, Deque<Entry>> pending = new HashMap<>();
+
+  /** Pending values found when opening the journal. */
+  private final List<NodeId> recoveredIds = new ArrayList<>();
+  private final List<DataValue> recoveredValues = new ArrayList<>();
+
+  /**
+   * Constructor. Opens an existing journal file or creates a new one.
+   *
+   * @param path path of the journal file
+   * @param maxBytes size of the journal file (in bytes)
+   * @param compactionThreshold amount of acknowledged records that triggers a compaction
+   *   (in bytes)
+   * @throws IOException journal file cannot be opened or created
+   */
+  public WriteJournal(Path path, int maxBytes, int compactionThreshold) throws IOException {
+    this(path, maxBytes, compactionThreshold, new WriteStatistics());
+  }
+
+  /**
+   * Constructor. Opens an existing journal file or creates a new one.
+   *
+   * @param path path of the journal file
+   * @param maxBytes size of the journal file (in bytes)
+   * @param compactionThreshold amount of acknowledged records that triggers a compaction
+   *   (in bytes)
+   * @param statistics statistics counting the values that could not be recorded
+   * @throws IOException journal file cannot be opened or created
+   */
+  public WriteJournal(Path path, int maxBytes, int compactionThreshold,
+      WriteStatistics statistics) throws IOException {
+    if (maxBytes <= HEADER_SIZE) {
+      throw new IllegalArgumentException(
+          String.format("Invalid write journal size: %1$d bytes", maxBytes)
+      );
+    }
+
+    this.path = path;
+    this.tmpPath = Paths.get(path.toString() + ".tmp");
+    this.maxBytes = maxBytes;
+    this.compactionThreshold = compactionThreshold;
+    this.statistics = statistics;
+
+    boolean exists = Files.exists(path) && Files.size(path) > 0;
+
+    buffer = map(path, maxBytes);
+
+    restoreCompacted();
+
+    if (exists && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+      recover();
+    } else {
+      if (exists) {
+        logger.warn("Unknown write journal format, starting new journal: {}", path);
+      }
+      clear(HEADER_SIZE);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      writePosition = HEADER_SIZE;
+    }
+  }
+
+  /**
+   * Get the node IDs of the values that had not been acknowledged when the journal was
+   * opened.
+   *
+   * @return list of node IDs
+   */
+  public List<NodeId> getRecoveredIds() {
+    return Collections.unmodifiableList(recoveredIds);
+  }
+
+  /**
+   * Get the values that had not been acknowledged when the journal was opened (same order
+   * as the node IDs returned by {@link #getRecoveredIds()}).
+   *
+   * @return list of data values
+   */
+  public List<DataValue> getRecoveredValues() {
+    return Collections.unmodifiableList(recoveredValues);
+  }
+
+  /**
+   * Get the number of pending (not acknowledged) values.
+   *
+   * @return number of pending values
+   */
+  public synchronized int getPendingCount() {
+    int count = 0;
+    for (Deque<Entry> entries : pending.values()) {
+      count += entries.size();
+    }
+    return count;
+  }
+
+  /**
+   * Append a value to the journal. Values of unsupported data types are not recorded. Values
+   * appended after the journal has been closed or while the journal is full are not recorded
+   * either, the latter are counted as not journaled in the write statistics.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param dv new data value
+   */
+  public synchronized void append(NodeId id, DataValue dv) {
+    if (closed) {
+      logger.warn("Write journal closed, value for nodeId = {} not recorded", id);
+      statistics.countNotJournaled();
+      return;
+    }
+
+    Object value = dv.getValue().getValue();
+    byte type = getTypeTag(value);
+
+    if (type == 0) {
+      logger.debug("Value of type {} not supported by write journal",
+          (value == null) ? null : value.getClass().getSimpleName());
+      return;
+    }
+
+    byte[] str = (type == TYPE_STRING)
+        ? ((String) value).getBytes(StandardCharsets.UTF_8) : null;
+
+    Integer nodeIndex = nodeIndices.get(id);
+    byte[] nodeStr = (nodeIndex == null)
+        ? id.toParseableString().getBytes(StandardCharsets.UTF_8) : null;
+
+    int valueSize = VALUE_HEADER_SIZE + ((str != null) ? 4 + str.length : 8);
+    int nodeSize = (nodeStr != null) ? 1 + 4 + 2 + nodeStr.length : 0;
+
+    if (!ensureCapacity(nodeSize + valueSize)) {
+      if (!full) {
+        full = true;
+        logger.warn("Write journal full, values are not recorded until pending values have "
+            + "been acknowledged (nodeId = {})", id);
+      }
+      statistics.countNotJournaled();
+      return;
+    }
+
+    if (full) {
+      full = false;
+      logger.info("Write journal no longer full, values are recorded again");
+    }
+
+    if (nodeStr != null) {
+      nodeIndex = nodes.size();
+      int pos = writePosition;
+      buffer.putInt(pos + 1, nodeIndex);
+      buffer.putShort(pos + 5, (short) nodeStr.length);
+      buffer.put(pos + 7, nodeStr);
+      buffer.put(pos, KIND_NODE);
+      writePosition += nodeSize;
+      addNode(id, pos);
+    }
+
+    long timestamp = getTimestamp(dv);
+
+    int pos = writePosition;
+    buffer.put(pos + 1, STATE_PENDING);
+    buffer.putInt(pos + 2, nodeIndex);
+    buffer.put(pos + 6, type);
+    buffer.putLong(pos + 7, timestamp);
+
+    if (str != null) {
+      buffer.putInt(pos + VALUE_HEADER_SIZE, str.length);
+      buffer.put(pos + VALUE_HEADER_SIZE + 4, str);
+    } else {
+      buffer.putLong(pos + VALUE_HEADER_SIZE, encode(type, value));
+    }
+
+    buffer.put(pos, KIND_VALUE);
+    writePosition += valueSize;
+
+    pending.computeIfAbsent(id, key -> new ArrayDeque<>())
+        .addLast(new Entry(pos, valueSize, timestamp, nextSequence++, dv));
+  }
+
+  /**
+   * Acknowledge a value that has been written to the OPC UA server. All pending values of the
+   * same node up to the sequence number of the written value are acknowledged. Nothing is
+   * acknowledged if the data value instance has not been recorded (or has already been
+   * acknowledged).
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param dv data value that has been written (instance passed to
+   *   {@link #append(NodeId, DataValue)})
+   */
+  public synchronized void acknowledge(NodeId id, DataValue dv) {
+    Deque<Entry> entries = pending.get(id);
+
+    if (entries == null) {
+      return;
+    }
+
+    long sequence = -1;
+    for (Entry entry : entries) {
+      if (entry.value == dv) {
+        sequence = entry.sequence;
+        break;
+      }
+    }
+
+    while (!entries.isEmpty() && entries.peekFirst().sequence <= sequence) {
+      Entry entry = entries.pollFirst();
+      buffer.put(entry.position + 1, STATE_ACKED);
+      ackedBytes += entry.size;
+    }
+
+    if (entries.isEmpty()) {
+      pending.remove(id);
+    }
+
+    if (ackedBytes >= Math.max(compactionThreshold, compactionBackoffBytes)
+        && !compactionScheduled && !closed) {
+      compactionScheduled = true;
+      compactionExecutor.execute(() -> {
+        synchronized (this) {
+          compactionScheduled = false;
+          if (!closed) {
+            compact();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Wrap a function for writing values to the OPC UA server, such that written values are
+   * acknowledged in the journal. Values rejected by the OPC UA server (e.g., due to a type
+   * mismatch or missing write access) are acknowledged as well, since writing them again
+   * would fail again. Only values that could not be written due to a connection problem
+   * remain pending.
+   *
+   * @param writeFunction function for writing values to the OPC UA server
+   * @return function for writing values, which acknowledges the written values
+   */
+  public BiFunction<List<NodeId>, List<DataValue>, CompletableFuture<List<StatusCode>>> wrap(
+      BiFunction<List<NodeId>, List<DataValue>,
+      CompletableFuture<List<StatusCode>>> writeFunction) {
+
+    return (ids, dvs) -> writeFunction.apply(ids, dvs).whenComplete((statusCodes, ex) -> {
+      if (ex != null) {
+        if (isRejected(ex)) {
+          for (int i = 0; i < ids.size(); ++i) {
+            acknowledge(ids.get(i), dvs.get(i));
+          }
+        }
+        return;
+      }
+
+      for (int i = 0; i < ids.size() && i < statusCodes.size(); ++i) {
+        StatusCode status = statusCodes.get(i);
+        if (status != null && !StoreAndForwardBuffer.isConnectionError(status)) {
+          acknowledge(ids.get(i), dvs.get(i));
+        }
+      }
+    });
+  }
+
+  /**
+   * Check whether a failed write request has been rejected by the OPC UA server, i.e., it
+   * has failed for another reason than a connection problem.
+   *
+   * @param ex exception thrown by the write request
+   * @return true if the write request has been rejected
+   */
+  private static boolean isRejected(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof UaException) {
+        return !StoreAndForwardBuffer.isConnectionError(((UaException) cause).getStatusCode());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Flush the journal to the storage device. A compaction running in the background is
+   * completed first.
+   */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+
+    compactionExecutor.shutdown();
+    try {
+      compactionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (this) {
+      buffer.force();
+      logger.info("Write journal closed ({} pending value(s))", getPendingCount());
+    }
+  }
+
+  /**
+   * Compact the journal, i.e., remove all acknowledged records. The node records and pending
+   * value records (in their original order) are written to a temporary file first, which is
+   * then copied into the journal file.
+   *
+   * @return false in case the compaction failed
+   */
+  synchronized boolean compact() {
+    // Records that are kept, in the order of their positions.
+    List<int[]> records = new ArrayList<>(nodePositions.size());
+    for (int index = 0; index < nodePositions.size(); ++index) {
+      int pos = nodePositions.get(index);
+      records.add(new int[] {pos, 7 + buffer.getShort(pos + 5)});
+    }
+    List<Entry> entries = new ArrayList<>();
+    for (Deque<Entry> nodeEntries : pending.values()) {
+      for (Entry entry : nodeEntries) {
+        entries.add(entry);
+        records.add(new int[] {entry.position, entry.size});
+      }
+    }
+    records.sort((r1, r2) -> Integer.compare(r1[0], r2[0]));
+
+    int newWritePosition = HEADER_SIZE;
+    for (int[] record : records) {
+      newWritePosition += record[1];
+    }
+
+    byte[] image = new byte[newWritePosition];
+    buffer.get(0, image, 0, HEADER_SIZE);
+
+    Map<Integer, Integer> newPositions = new HashMap<>();
+    int offset = HEADER_SIZE;
+    for (int[] record : records) {
+      buffer.get(record[0], image, offset, record[1]);
+      newPositions.put(record[0], offset);
+      offset += record[1];
+    }
+
+    try {
+      writeTmpFile(image);
+
+      buffer.put(0, image);
+      if (writePosition > newWritePosition) {
+        buffer.put(newWritePosition, new byte[writePosition - newWritePosition]);
+      }
+      buffer.force();
+
+      Files.delete(tmpPath);
+    } catch (IOException | RuntimeException ex) {
+      compactionBackoffBytes = ackedBytes + compactionThreshold;
+      logger.warn("Failed to compact write journal: {}", ex.toString());
+      return false;
+    }
+
+    logger.debug("Write journal compacted ({} -> {} bytes)", writePosition, newWritePosition);
+
+    for (int index = 0; index < nodePositions.size(); ++index) {
+      nodePositions.set(index, newPositions.get(nodePositions.get(index)));
+    }
+    for (Entry entry : entries) {
+      entry.position = newPositions.get(entry.position);
+    }
+
+    writePosition = newWritePosition;
+    ackedBytes = 0;
+    compactionBackoffBytes = 0;
+    return true;
+  }
+
+  /**
+   * Write the compacted journal to the temporary file. The magic number is written last,
+   * such that an incomplete temporary file is not mistaken for a compacted journal.
+   *
+   * @param image compacted journal
+   * @throws IOException temporary file cannot be written
+   */
+  private void writeTmpFile(byte[] image) throws IOException {
+    try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer out = ByteBuffer.wrap(image, 4, image.length - 4);
+      channel.position(4);
+      while (out.hasRemaining()) {
+        channel.write(out);
+      }
+      channel.force(true);
+
+      out = ByteBuffer.wrap(image, 0, 4);
+      channel.position(0);
+      while (out.hasRemaining()) {
+        channel.write(out);
+      }
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Copy a compacted journal into the journal file, in case a compaction has been
+   * interrupted after the temporary file had been written completely.
+   *
+   * @throws IOException temporary file cannot be read or deleted
+   */
+  private void restoreCompacted() throws IOException {
+    if (!Files.exists(tmpPath)) {
+      return;
+    }
+
+    byte[] image = Files.readAllBytes(tmpPath);
+
+    if (image.length >= HEADER_SIZE && image.length < maxBytes
+        && ByteBuffer.wrap(image).getInt(0) == MAGIC) {
+      logger.info("Completing interrupted compaction of write journal: {}", path);
+      buffer.put(0, image);
+      buffer.put(image.length, KIND_END);
+      buffer.force();
+    }
+
+    Files.delete(tmpPath);
+  }
+
+  /**
+   * Make sure there is enough space left for new records, compact the journal if necessary.
+   *
+   * @param size size of the new records (in bytes)
+   * @return false if there is not enough space left
+   */
+  private boolean ensureCapacity(int size) {
+    // Leave room for the end marker.
+    if (writePosition + size < maxBytes) {
+      return true;
+    }
+
+    if (ackedBytes > 0 && ackedBytes >= compactionBackoffBytes) {
+      compact();
+    }
+
+    return writePosition + size < maxBytes;
+  }
+
+  /**
+   * Read the records of an existing journal file.
+   */
+  private void recover() {
+    int pos = HEADER_SIZE;
+    List<Entry> entries = new ArrayList<>();
+    List<NodeId> entryIds = new ArrayList<>();
+
+    try {
+      while (pos < maxBytes) {
+        byte kind = buffer.get(pos);
+
+        if (kind == KIND_NODE) {
+          int index = buffer.getInt(pos + 1);
+          byte[] nodeStr = new byte[buffer.getShort(pos + 5)];
+          buffer.get(pos + 7, nodeStr);
+          if (index != nodes.size()) {
+            throw new IllegalStateException("unexpected node index " + index);
+          }
+          addNode(NodeId.parse(new String(nodeStr, StandardCharsets.UTF_8)), pos);
+          pos += 7 + nodeStr.length;
+        } else if (kind == KIND_VALUE) {
+          byte type = buffer.get(pos + 6);
+          int size = VALUE_HEADER_SIZE
+              + ((type == TYPE_STRING) ? 4 + buffer.getInt(pos + VALUE_HEADER_SIZE) : 8);
+          if (type < TYPE_BOOLEAN || type > TYPE_STRING || size < VALUE_HEADER_SIZE
+              || pos + size > maxBytes) {
+            throw new IllegalStateException("invalid value record");
+          }
+
+          if (buffer.get(pos + 1) == STATE_PENDING) {
+            NodeId id = nodes.get(buffer.getInt(pos + 2));
+            Entry entry = new Entry(pos, size, buffer.getLong(pos + 7), nextSequence++, null);
+            pending.computeIfAbsent(id, key -> new ArrayDeque<>()).addLast(entry);
+            entries.add(entry);
+            entryIds.add(id);
+          } else {
+            ackedBytes += size;
+          }
+          pos += size;
+        } else {
+          break;
+        }
+      }
+    } catch (RuntimeException ex) {
+      logger.warn("Write journal corrupted at position {}, ignoring remaining records: {}",
+          pos, ex.toString());
+    }
+
+    writePosition = Math.min(pos, maxBytes);
+    clear(writePosition);
+
+    for (int i = 0; i < entries.size(); ++i) {
+      Entry entry = entries.get(i);
+      recoveredIds.add(entryIds.get(i));
+      entry.value = decode(entry);
+      recoveredValues.add(entry.value);
+    }
+
+    logger.info("Write journal opened: {} ({} pending value(s))", path, entries.size());
+  }
+
+  /**
+   * Decode a value record.
+   *
+   * @param entry pending value record
+   * @return data value
+   */
+  private DataValue decode(Entry entry) {
+    int pos = entry.position;
+    byte type = buffer.get(pos + 6);
+    Object value;
+
+    if (type == TYPE_STRING) {
+      byte[] str = new byte[buffer.getInt(pos + VALUE_HEADER_SIZE)];
+      buffer.get(pos + VALUE_HEADER_SIZE + 4, str);
+      value = new String(str, StandardCharsets.UTF_8);
+    } else {
+      value = decode(type, buffer.getLong(pos + VALUE_HEADER_SIZE));
+    }
+
+    DateTime time = new DateTime(entry.timestamp);
+    return new DataValue(new Variant(value), StatusCode.GOOD, time, time);
+  }
+
+  /**
+   * Register a node ID.
+   *
+   * @param id node ID of the OPC UA server variable
+   * @param position position of the node record
+   */
+  private void addNode(NodeId id, int position) {
+    nodeIndices.put(id, nodes.size());
+    nodes.add(id);
+    nodePositions.add(position);
+  }
+
+  /**
+   * Fill the remainder of the journal file with zeros, such that remains of records that
+   * have been written partially are not mistaken for valid records.
+   *
+   * @param from start position
+   */
+  private void clear(int from) {
+    for (int pos = from; pos < maxBytes; ++pos) {
+      buffer.put(pos, KIND_END);
+    }
+  }
+
+  /**
+   * Map a journal file into memory.
+   *
+   * @param path path of the journal file
+   * @param size size of the mapped region (in bytes)
+   * @return memory-mapped journal file
+   * @throws IOException journal file cannot be mapped
+   */
+  private static MappedByteBuffer map(Path path, int size) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  /**
+   * Retrieve the source timestamp of a data value.
+   *
+   * @param dv data value
+   * @return source timestamp (OPC UA UTC time)
+   */
+  private static long getTimestamp(DataValue dv) {
+    DateTime time = dv.getSourceTime();
+    return (time != null) ? time.getUtcTime() : 0;
+  }
+
+  /**
+   * Retrieve the type tag of a value.
+   *
+   * @param value value
+   * @return type tag (0 if not supported)
+   */
+  private static byte getTypeTag(Object value) {
+    if (value instanceof Double) {
+      return TYPE_DOUBLE;
+    } else if (value instanceof Float) {
+      return TYPE_FLOAT;
+    } else if (value instanceof Long) {
+      return TYPE_LONG;
+    } else if (value instanceof Integer) {
+      return TYPE_INT;
+    } else if (value instanceof Short) {
+      return TYPE_SHORT;
+    } else if (value instanceof Byte) {
+      return TYPE_BYTE;
+    } else if (value instanceof Boolean) {
+      return TYPE_BOOLEAN;
+    } else if (value instanceof String) {
+      return TYPE_STRING;
+    } else if (value instanceof ULong) {
+      return TYPE_ULONG;
+    } else if (value instanceof UInteger) {
+      return TYPE_UINT;
+    } else if (value instanceof UShort) {
+      return TYPE_USHORT;
+    } else if (value instanceof UByte) {
+      return TYPE_UBYTE;
+    }
+    return 0;
+  }
+
+  /**
+   * Encode a (non-string) value as 8 bytes.
+   *
+   * @param type type tag
+   * @param value value
+   * @return encoded value
+   */
+  private static long encode(byte type, Object value) {
+    switch (type) {
+      case TYPE_DOUBLE:
+        return Double.doubleToRawLongBits((Double) value);
+      case TYPE_FLOAT:
+        return Float.floatToRawIntBits((Float) value);
+      case TYPE_BOOLEAN:
+        return ((Boolean) value) ? 1 : 0;
+      default:
+        return ((Number) value).longValue();
+    }
+  }
+
+  /**
+   * Decode a (non-string) value.
+   *
+   * @param type type tag
+   * @param bits encoded value
+   * @return value
+   */
+  private static Object decode(byte type, long bits) {
+    switch (type) {
+      case TYPE_DOUBLE:
+        return Double.longBitsToDouble(bits);
+      case TYPE_FLOAT:
+        return Float.intBitsToFloat((int) bits);
+      case TYPE_BOOLEAN:
+        return bits != 0;
+      case TYPE_LONG:
+        return bits;
+      case TYPE_INT:
+        return (int) bits;
+      case TYPE_SHORT:
+        return (short) bits;
+      case TYPE_BYTE:
+        return (byte) bits;
+      case TYPE_ULONG:
+        return ULong.valueOf(bits);
+      case TYPE_UINT:
+        return UInteger.valueOf(bits);
+      case TYPE_USHORT:
+        return UShort.valueOf((int) bits);
+      case TYPE_UBYTE:
+        return UByte.valueOf(bits);
+      default:
+        throw new IllegalStateException("unknown type tag " + type);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class WriteLatencyStatistics.
+ *
+ * <p>Latency of the values written to the OPC UA server, i.e., the time from the creation
+ * of a value (its source timestamp) until the OPC UA server has acknowledged the write. The
+ * statistics may be updated concurrently.
+ */
+public class WriteLatencyStatistics {
+
+  /** Number of acknowledged values. */
+  private final LongAdder count = new LongAdder();
+
+  /** Sum of the latencies (in microseconds). */
+  private final LongAdder totalMicros = new LongAdder();
+
+  /** Maximum latency (in microseconds). */
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Record the latency of an acknowledged value.
+   *
+   * @param micros latency (in microseconds)
+   */
+  public void record(long micros) {
+    count.increment();
+    totalMicros.add(micros);
+
+    long max = maxMicros.get();
+    while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+      max = maxMicros.get();
+    }
+  }
+
+  /**
+   * Get the number of acknowledged values.
+   *
+   * @return number of values
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Get the mean latency.
+   *
+   * @return mean latency (in milliseconds)
+   */
+  public double getMeanLatency() {
+    long values = count.sum();
+    return (values > 0) ? totalMicros.sum() / 1000.0 / values : 0;
+  }
+
+  /**
+   * Get the maximum latency.
+   *
+   * @return maximum latency (in milliseconds)
+   */
+  public double getMaxLatency() {
+    return maxMicros.get() / 1000.0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%1$d, mean=%2$.3f ms, max=%3$.3f ms",
+        getCount(), getMeanLatency(), getMaxLatency());
+  }
+}
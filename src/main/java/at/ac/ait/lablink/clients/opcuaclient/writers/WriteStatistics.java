@@ -0,0 +1,122 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class WriteStatistics.
+ *
+ * <p>Counters for the values written (or not written) to the OPC UA server. The counters
+ * are shared by all inputs of a client and may be updated concurrently.
+ */
+public class WriteStatistics {
+
+  /** Number of values suppressed by the input write filters. */
+  private final LongAdder suppressed = new LongAdder();
+
+  /** Number of values stored in the store-and-forward buffer. */
+  private final LongAdder buffered = new LongAdder();
+
+  /** Number of buffered values written after the connection has been re-established. */
+  private final LongAdder forwarded = new LongAdder();
+
+  /** Number of values dropped by the store-and-forward buffer. */
+  private final LongAdder dropped = new LongAdder();
+
+  /** Number of values that could not be recorded in the write journal. */
+  private final LongAdder notJournaled = new LongAdder();
+
+  /**
+   * Count a value that has been suppressed by an input write filter.
+   */
+  public void countSuppressed() {
+    suppressed.increment();
+  }
+
+  /**
+   * Get the number of values suppressed by the input write filters.
+   *
+   * @return number of suppressed values
+   */
+  public long getSuppressedCount() {
+    return suppressed.sum();
+  }
+
+  /**
+   * Count a value that has been stored in the store-and-forward buffer.
+   */
+  public void countBuffered() {
+    buffered.increment();
+  }
+
+  /**
+   * Get the number of values stored in the store-and-forward buffer.
+   *
+   * @return number of buffered values
+   */
+  public long getBufferedCount() {
+    return buffered.sum();
+  }
+
+  /**
+   * Count a buffered value that has been written to the OPC UA server.
+   */
+  public void countForwarded() {
+    forwarded.increment();
+  }
+
+  /**
+   * Get the number of buffered values that have been written to the OPC UA server.
+   *
+   * @return number of forwarded values
+   */
+  public long getForwardedCount() {
+    return forwarded.sum();
+  }
+
+  /**
+   * Count a value that has been dropped by the store-and-forward buffer.
+   */
+  public void countDropped() {
+    dropped.increment();
+  }
+
+  /**
+   * Get the number of values dropped by the store-and-forward buffer.
+   *
+   * @return number of dropped values
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Count a value that could not be recorded in the write journal.
+   */
+  public void countNotJournaled() {
+    notJournaled.increment();
+  }
+
+  /**
+   * Get the number of values that could not be recorded in the write journal.
+   *
+   * @return number of values not journaled
+   */
+  public long getNotJournaledCount() {
+    return notJournaled.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("suppressed=%1$d, buffered=%2$d, forwarded=%3$d, dropped=%4$d, "
+        + "notJournaled=%5$d", getSuppressedCount(), getBufferedCount(), getForwardedCount(),
+        getDroppedCount(), getNotJournaledCount());
+  }
+}
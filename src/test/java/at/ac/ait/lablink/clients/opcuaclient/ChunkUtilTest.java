@@ -0,0 +1,78 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for class ChunkUtil.
+ */
+public class ChunkUtilTest {
+
+  @Test
+  public void requestChunked_noLimit_test() {
+    List<int[]> ranges = new ArrayList<>();
+
+    List<Integer> results = ChunkUtil.<Integer>requestChunked(10, 0, (from, to) -> {
+      ranges.add(new int[] {from, to});
+      return CompletableFuture.completedFuture(range(from, to));
+    }).join();
+
+    assertEquals(1, ranges.size());
+    assertEquals(range(0, 10), results);
+  }
+
+  @Test
+  public void requestChunked_limit_test() {
+    List<int[]> ranges = new ArrayList<>();
+
+    List<Integer> results = ChunkUtil.<Integer>requestChunked(10, 4, (from, to) -> {
+      ranges.add(new int[] {from, to});
+      return CompletableFuture.completedFuture(range(from, to));
+    }).join();
+
+    assertEquals(3, ranges.size());
+    assertEquals(8, ranges.get(2)[0]);
+    assertEquals(10, ranges.get(2)[1]);
+    assertEquals(range(0, 10), results);
+  }
+
+  @Test
+  public void requestChunked_completionOrder_test() {
+    CompletableFuture<List<Integer>> first = new CompletableFuture<>();
+
+    CompletableFuture<List<Integer>> results = ChunkUtil.<Integer>requestChunked(6, 3,
+        (from, to) -> (from == 0) ? first : CompletableFuture.completedFuture(range(from, to)));
+
+    assertEquals(false, results.isDone());
+
+    first.complete(range(0, 3));
+    assertEquals(range(0, 6), results.join());
+  }
+
+  @Test
+  public void getChunkCount_test() {
+    assertEquals(0, ChunkUtil.getChunkCount(0, 5));
+    assertEquals(1, ChunkUtil.getChunkCount(5, 0));
+    assertEquals(1, ChunkUtil.getChunkCount(5, 5));
+    assertEquals(2, ChunkUtil.getChunkCount(6, 5));
+  }
+
+  private static List<Integer> range(int from, int to) {
+    return IntStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+}
@@ -508,4 +508,28 @@ public class DataTypeUtilTest {
     String str = null;
     DataTypeUtil.objectToString((Object) str);
   }
+
+  @Test
+  public void doubleToPrimitiveTargets_test() {
+    assertEquals(false, DataTypeUtil.doubleToBoolean(0.5d));
+    assertEquals(true, DataTypeUtil.doubleToBoolean(-1.0d));
+    assertEquals(Byte.valueOf((byte) -3), DataTypeUtil.doubleToByte(-3.7d));
+    assertEquals(ubyte(200), DataTypeUtil.doubleToUByte(200.0d));
+    assertEquals(ushort(60000), DataTypeUtil.doubleToUShort(60000.0d));
+    assertEquals(Integer.valueOf(42), DataTypeUtil.doubleToInt(42.9d));
+    assertEquals(uint(70000), DataTypeUtil.doubleToUInt(70000.0d));
+    assertEquals(Long.valueOf(-5L), DataTypeUtil.doubleToLong(-5.2d));
+    assertEquals(Float.valueOf(1.5f), DataTypeUtil.doubleToFloat(1.5d));
+    assertEquals("2.5", DataTypeUtil.doubleToString(2.5d));
+  }
+
+  @Test
+  public void longToPrimitiveTargets_test() {
+    assertEquals(false, DataTypeUtil.longToBoolean(0L));
+    assertEquals(true, DataTypeUtil.longToBoolean(7L));
+    assertEquals(Short.valueOf((short) -2), DataTypeUtil.longToShort(-2L));
+    assertEquals(ulong(123456789012L), DataTypeUtil.longToULong(123456789012L));
+    assertEquals(Double.valueOf(3.0d), DataTypeUtil.longToDouble(3L));
+    assertEquals("-17", DataTypeUtil.longToString(-17L));
+  }
 }
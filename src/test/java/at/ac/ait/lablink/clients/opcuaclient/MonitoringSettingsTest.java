@@ -0,0 +1,85 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import at.ac.ait.lablink.clients.opcuaclient.notifiers.WriteFilter.EDeadbandType;
+
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DataChangeTrigger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.DeadbandType;
+import org.eclipse.milo.opcua.stack.core.types.structured.DataChangeFilter;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class MonitoringSettings.
+ */
+public class MonitoringSettingsTest {
+
+  @Test
+  public void validSettings_test() {
+    MonitoringSettings settings = new MonitoringSettings(10.0, 5, false);
+
+    assertEquals(10.0, settings.getSamplingInterval(), 0.0);
+    assertEquals(5, settings.getQueueSize());
+    assertFalse(settings.isDiscardOldest());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeSamplingInterval_test() {
+    new MonitoringSettings(-1.0, 1, true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroQueueSize_test() {
+    new MonitoringSettings(1000.0, 0, true);
+  }
+
+  @Test
+  public void dataChangeFilter_test() {
+    DataChangeFilter absolute = MonitoringSettings.createDataChangeFilter(
+        "StatusValue", EDeadbandType.ABSOLUTE, 0.5);
+    assertEquals(DataChangeTrigger.StatusValue, absolute.getTrigger());
+    assertEquals(DeadbandType.Absolute.getValue(), absolute.getDeadbandType().intValue());
+    assertEquals(0.5, absolute.getDeadbandValue(), 0.0);
+
+    DataChangeFilter percent = MonitoringSettings.createDataChangeFilter(
+        "status", EDeadbandType.PERCENT, 2.0);
+    assertEquals(DataChangeTrigger.Status, percent.getTrigger());
+    assertEquals(DeadbandType.Percent.getValue(), percent.getDeadbandType().intValue());
+
+    DataChangeFilter triggerOnly = MonitoringSettings.createDataChangeFilter(
+        "statusvaluetimestamp", null, 0.0);
+    assertEquals(DataChangeTrigger.StatusValueTimestamp, triggerOnly.getTrigger());
+    assertEquals(DeadbandType.None.getValue(), triggerOnly.getDeadbandType().intValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidTrigger_test() {
+    MonitoringSettings.createDataChangeFilter("value", null, 0.0);
+  }
+
+  @Test
+  public void equalSettings_test() {
+    MonitoringSettings settings = new MonitoringSettings(100.0, 10, true,
+        MonitoringSettings.createDataChangeFilter("statusvalue", EDeadbandType.ABSOLUTE, 0.5));
+
+    assertEquals(settings, new MonitoringSettings(100.0, 10, true,
+        MonitoringSettings.createDataChangeFilter("statusvalue", EDeadbandType.ABSOLUTE, 0.5)));
+    assertEquals(settings.hashCode(), new MonitoringSettings(100.0, 10, true,
+        MonitoringSettings.createDataChangeFilter("statusvalue", EDeadbandType.ABSOLUTE, 0.5))
+        .hashCode());
+    assertNotEquals(settings, new MonitoringSettings(100.0, 10, true));
+    assertNotEquals(settings, new MonitoringSettings(200.0, 10, true,
+        MonitoringSettings.createDataChangeFilter("statusvalue", EDeadbandType.ABSOLUTE, 0.5)));
+  }
+}
@@ -0,0 +1,96 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for class NodeMetadataCache.
+ */
+public class NodeMetadataCacheTest {
+
+  private static final String ENDPOINT_URL = "opc.tcp://localhost:12345/lablink-test";
+  private static final String NAMESPACE_URI = "urn:lablink:opcua-test";
+  private static final List<String> NAMESPACES = List.of(
+      "http://opcfoundation.org/UA/", "urn:lablink:opcua-test");
+
+  private static final NodeId NODE_A = new NodeId(2, "LablinkTest/ScalarTypes/LlTestDouble");
+  private static final NodeId NODE_B = new NodeId(2, 1234);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static NodeMetadataCache createCache() {
+    NodeMetadataCache cache = new NodeMetadataCache(ENDPOINT_URL, NAMESPACE_URI, NAMESPACES,
+        132000000000000000L);
+    cache.put(NODE_A, 11, 3);
+    cache.put(NODE_B, 5, 1);
+    return cache;
+  }
+
+  @Test
+  public void saveLoad_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("metadata.json");
+    createCache().save(path);
+
+    NodeMetadataCache cache = NodeMetadataCache.load(path);
+    assertEquals(2, cache.size());
+    assertEquals(Integer.valueOf(11), cache.getDataTypeId(NODE_A));
+    assertEquals(Integer.valueOf(3), cache.getAccessLevel(NODE_A));
+    assertEquals(Integer.valueOf(5), cache.getDataTypeId(NODE_B));
+    assertEquals(Integer.valueOf(1), cache.getAccessLevel(NODE_B));
+    assertTrue(cache.isValidFor(ENDPOINT_URL, NAMESPACE_URI, NAMESPACES, 132000000000000000L));
+  }
+
+  @Test
+  public void isValidFor_test() {
+    NodeMetadataCache cache = createCache();
+
+    assertTrue(cache.isValidFor(ENDPOINT_URL, NAMESPACE_URI, NAMESPACES, 132000000000000000L));
+    assertFalse(cache.isValidFor("opc.tcp://other:4840", NAMESPACE_URI, NAMESPACES,
+        132000000000000000L));
+    assertFalse(cache.isValidFor(ENDPOINT_URL, "urn:other", NAMESPACES, 132000000000000000L));
+    assertFalse(cache.isValidFor(ENDPOINT_URL, NAMESPACE_URI,
+        List.of("http://opcfoundation.org/UA/"), 132000000000000000L));
+    // The server has been restarted.
+    assertFalse(cache.isValidFor(ENDPOINT_URL, NAMESPACE_URI, NAMESPACES, 132000000000000001L));
+  }
+
+  @Test
+  public void containsAll_test() {
+    NodeMetadataCache cache = createCache();
+
+    assertTrue(cache.containsAll(List.of(NODE_A, NODE_B)));
+    assertFalse(cache.containsAll(List.of(NODE_A, new NodeId(2, 4321))));
+    assertNull(cache.getDataTypeId(new NodeId(2, 4321)));
+  }
+
+  @Test
+  public void loadMissingOrInvalid_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("metadata.json");
+    assertNull(NodeMetadataCache.load(path));
+
+    Files.write(path, "{ invalid".getBytes());
+    assertNull(NodeMetadataCache.load(path));
+  }
+}
@@ -0,0 +1,45 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PublishStatisticsTest {
+
+  @Test
+  public void emptyStatistics_test() {
+    PublishStatistics statistics = new PublishStatistics();
+
+    assertEquals(0, statistics.getNotificationCount());
+    assertEquals(0, statistics.getKeepAliveCount());
+    assertEquals(0, statistics.getLateCount());
+    assertEquals(0.0, statistics.getMeanDelay(), 1e-9);
+    assertEquals(0.0, statistics.getMaxDelay(), 1e-9);
+  }
+
+  @Test
+  public void record_test() {
+    PublishStatistics statistics = new PublishStatistics();
+
+    // Publishing interval of 100 ms, only the last response is late.
+    statistics.record(2000, 100.0, false);
+    statistics.record(4000, 100.0, true);
+    statistics.record(150000, 100.0, false);
+    statistics.countDataLost();
+
+    assertEquals(2, statistics.getNotificationCount());
+    assertEquals(1, statistics.getKeepAliveCount());
+    assertEquals(1, statistics.getLateCount());
+    assertEquals(1, statistics.getDataLostCount());
+    assertEquals(52.0, statistics.getMeanDelay(), 1e-9);
+    assertEquals(150.0, statistics.getMaxDelay(), 1e-9);
+  }
+}
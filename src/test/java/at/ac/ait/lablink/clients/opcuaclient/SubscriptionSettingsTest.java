@@ -0,0 +1,72 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class SubscriptionSettings.
+ */
+public class SubscriptionSettingsTest {
+
+  @Test
+  public void defaultCounts_test() {
+    // Fast group: keep-alive after 1000 publishing intervals of 10 ms.
+    SubscriptionSettings fast = SubscriptionSettings.forPublishingInterval(10.0, null, null, 0,
+        200);
+    assertEquals(1000, fast.getMaxKeepAliveCount());
+    assertEquals(3000, fast.getLifetimeCount());
+    assertEquals(200, fast.getPriority());
+
+    // Slow group: at least one publishing interval between keep-alive messages.
+    SubscriptionSettings slow = SubscriptionSettings.forPublishingInterval(30000.0, null, null,
+        0, 0);
+    assertEquals(1, slow.getMaxKeepAliveCount());
+    assertEquals(3, slow.getLifetimeCount());
+
+    // Fastest possible publishing interval (revised by the server).
+    SubscriptionSettings fastest = SubscriptionSettings.forPublishingInterval(0.0, null, null, 0,
+        0);
+    assertEquals(10000, fastest.getMaxKeepAliveCount());
+  }
+
+  @Test
+  public void configuredCounts_test() {
+    // Configured keep-alive count, the default lifetime count is derived from it.
+    SubscriptionSettings keepAlive = SubscriptionSettings.forPublishingInterval(100.0, 5L,
+        null, 50, 10);
+    assertEquals(5, keepAlive.getMaxKeepAliveCount());
+    assertEquals(15, keepAlive.getLifetimeCount());
+    assertEquals(50, keepAlive.getMaxNotificationsPerPublish());
+
+    // Configured keep-alive and lifetime counts.
+    SubscriptionSettings both = SubscriptionSettings.forPublishingInterval(100.0, 5L, 100L,
+        0, 0);
+    assertEquals(5, both.getMaxKeepAliveCount());
+    assertEquals(100, both.getLifetimeCount());
+
+    // Configured lifetime count only, the keep-alive count is set to its default.
+    SubscriptionSettings lifetime = SubscriptionSettings.forPublishingInterval(1000.0, null,
+        60L, 0, 0);
+    assertEquals(10, lifetime.getMaxKeepAliveCount());
+    assertEquals(60, lifetime.getLifetimeCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void lifetimeTooShort_test() {
+    new SubscriptionSettings(100.0, 10, 20, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPriority_test() {
+    new SubscriptionSettings(100.0, 10, 30, 0, 256);
+  }
+}
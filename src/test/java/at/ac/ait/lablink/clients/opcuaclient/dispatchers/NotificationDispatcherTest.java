@@ -0,0 +1,177 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.dispatchers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for class NotificationDispatcher.
+ */
+public class NotificationDispatcherTest {
+
+  private static DataValue value(double val) {
+    return new DataValue(new Variant(val));
+  }
+
+  /**
+   * Create a dispatcher whose handler blocks on the first notification until the returned
+   * latch is released. The first notification is dispatched before returning.
+   */
+  private static CountDownLatch startBlocked(List<String> received,
+      NotificationDispatcher<String>[] dispatcher, int capacity, EBackpressurePolicy policy)
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    dispatcher[0] = new NotificationDispatcher<>((key, dv) -> {
+      if (received.isEmpty()) {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      received.add(key + "=" + dv.getValue().getValue());
+    }, capacity, policy);
+
+    dispatcher[0].dispatch("a", value(0.0));
+    assertTrue(started.await(2, TimeUnit.SECONDS));
+
+    return release;
+  }
+
+  @Test
+  public void directDispatch_test() {
+    List<String> received = new ArrayList<>();
+    NotificationDispatcher<String> dispatcher = new NotificationDispatcher<>(
+        (key, dv) -> received.add(key), 0, EBackpressurePolicy.BLOCK);
+
+    dispatcher.dispatch("a", value(1.0));
+    dispatcher.dispatch("b", value(2.0));
+
+    assertEquals(List.of("a", "b"), received);
+    assertEquals(2, dispatcher.getDispatchedCount());
+  }
+
+  @Test
+  public void blockPreservesOrder_test() {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    NotificationDispatcher<String> dispatcher = new NotificationDispatcher<>(
+        (key, dv) -> received.add(key + "=" + dv.getValue().getValue()), 2,
+        EBackpressurePolicy.BLOCK);
+
+    for (int i = 0; i < 100; ++i) {
+      dispatcher.dispatch("a", value(i));
+    }
+    dispatcher.close();
+
+    assertEquals(100, received.size());
+    assertEquals("a=99.0", received.get(99));
+    assertEquals(0, dispatcher.getDroppedCount());
+    assertTrue(dispatcher.getMaxQueueDepth() <= 2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void dropOldest_test() throws InterruptedException {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    NotificationDispatcher<String>[] dispatcher = new NotificationDispatcher[1];
+    CountDownLatch release = startBlocked(received, dispatcher, 2,
+        EBackpressurePolicy.DROP_OLDEST);
+
+    dispatcher[0].dispatch("a", value(1.0));
+    dispatcher[0].dispatch("b", value(2.0));
+    dispatcher[0].dispatch("a", value(3.0));
+    assertEquals(2, dispatcher[0].getQueueDepth());
+
+    release.countDown();
+    dispatcher[0].close();
+
+    assertEquals(List.of("a=0.0", "b=2.0", "a=3.0"), received);
+    assertEquals(1, dispatcher[0].getDroppedCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void conflate_test() throws InterruptedException {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    NotificationDispatcher<String>[] dispatcher = new NotificationDispatcher[1];
+    CountDownLatch release = startBlocked(received, dispatcher, 2,
+        EBackpressurePolicy.CONFLATE);
+
+    dispatcher[0].dispatch("a", value(1.0));
+    dispatcher[0].dispatch("b", value(2.0));
+    dispatcher[0].dispatch("a", value(3.0));
+    dispatcher[0].dispatch("b", value(4.0));
+    assertEquals(2, dispatcher[0].getQueueDepth());
+
+    release.countDown();
+    dispatcher[0].close();
+
+    // Latest value per key, in the order in which the keys were first queued.
+    assertEquals(List.of("a=0.0", "a=3.0", "b=4.0"), received);
+    assertEquals(2, dispatcher[0].getConflatedCount());
+    assertEquals(0, dispatcher[0].getDroppedCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void conflateNeverBlocks_test() throws InterruptedException {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    NotificationDispatcher<String>[] dispatcher = new NotificationDispatcher[1];
+    CountDownLatch release = startBlocked(received, dispatcher, 2,
+        EBackpressurePolicy.CONFLATE);
+
+    // More distinct keys than the capacity, the calling thread must not be blocked.
+    dispatcher[0].dispatch("a", value(1.0));
+    dispatcher[0].dispatch("b", value(2.0));
+    dispatcher[0].dispatch("c", value(3.0));
+    dispatcher[0].dispatch("a", value(4.0));
+    assertEquals(3, dispatcher[0].getQueueDepth());
+
+    release.countDown();
+    dispatcher[0].close();
+
+    assertEquals(List.of("a=0.0", "a=4.0", "b=2.0", "c=3.0"), received);
+    assertEquals(1, dispatcher[0].getConflatedCount());
+    assertEquals(0, dispatcher[0].getDroppedCount());
+  }
+
+  @Test
+  public void dispatchBatch_test() throws InterruptedException {
+    List<String> threads = Collections.synchronizedList(new ArrayList<>());
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    NotificationDispatcher<String> dispatcher = new NotificationDispatcher<>(
+        (key, dv) -> {
+          threads.add(Thread.currentThread().getName());
+          received.add(key + "=" + dv.getValue().getValue());
+        }, 100, EBackpressurePolicy.BLOCK);
+
+    dispatcher.dispatchAll(List.of("a", "b", "c"), List.of(value(1.0), value(2.0), value(3.0)));
+    dispatcher.close();
+
+    assertEquals(List.of("a=1.0", "b=2.0", "c=3.0"), received);
+    assertEquals(3, dispatcher.getDispatchedCount());
+    assertEquals(3, dispatcher.getMaxQueueDepth());
+    assertEquals(Collections.nCopies(3, "NotificationDispatcher"), threads);
+  }
+}
@@ -0,0 +1,56 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class AdaptiveSamplingController.
+ */
+public class AdaptiveSamplingControllerTest {
+
+  @Test
+  public void quietItemRaised_test() {
+    // Doubled for each period without notifications, up to the upper bound.
+    assertEquals(200.0,
+        AdaptiveSamplingController.nextSamplingInterval(100, 100, 1000, 0, 10000), 1e-9);
+    assertEquals(1000.0,
+        AdaptiveSamplingController.nextSamplingInterval(800, 100, 1000, 0, 10000), 1e-9);
+    assertEquals(1000.0,
+        AdaptiveSamplingController.nextSamplingInterval(1000, 100, 1000, 0, 10000), 1e-9);
+  }
+
+  @Test
+  public void activeItemLowered_test() {
+    // 8 notifications at 1 s sampling within 10 s (80% of the samples).
+    assertEquals(100.0,
+        AdaptiveSamplingController.nextSamplingInterval(1000, 100, 10000, 8, 10000), 1e-9);
+  }
+
+  @Test
+  public void occasionalChangesKeepInterval_test() {
+    // 2 notifications at 1 s sampling within 10 s (20% of the samples).
+    assertEquals(1000.0,
+        AdaptiveSamplingController.nextSamplingInterval(1000, 100, 10000, 2, 10000), 1e-9);
+  }
+
+  @Test
+  public void zeroSamplingInterval_test() {
+    // Sampling interval 0 (fastest practical rate) is raised from 1 ms.
+    assertEquals(2.0,
+        AdaptiveSamplingController.nextSamplingInterval(0, 0, 1000, 0, 10000), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidParameters_test() {
+    new AdaptiveSamplingController(0, 10000);
+  }
+}
@@ -0,0 +1,156 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation-profiling tests for the data change listeners. Measures the bytes allocated
+ * per notification by the calling thread, with the data service replaced by a sink.
+ */
+public class DataChangeListenerAllocationTest {
+
+  /** Number of notifications per measurement. */
+  private static final int NOTIFICATIONS = 200000;
+
+  /** Number of distinct (pre-created) notifications. */
+  private static final int VALUE_COUNT = 1024;
+
+  /** Last published value, keeps the values from being optimized away. */
+  private static volatile Object sink;
+
+  private com.sun.management.ThreadMXBean threadBean;
+
+  @Before
+  public void setUp() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  private static DataValue[] values(Object[] raw) {
+    DataValue[] dvs = new DataValue[raw.length];
+    for (int i = 0; i < raw.length; ++i) {
+      dvs[i] = new DataValue(new Variant(raw[i]));
+    }
+    return dvs;
+  }
+
+  /**
+   * Bytes allocated per notification (after warming up).
+   */
+  private double bytesPerNotification(IDataChangeListener listener, DataValue[] dvs) {
+    long threadId = Thread.currentThread().getId();
+
+    for (int i = 0; i < NOTIFICATIONS; ++i) {
+      listener.setValue(dvs[i % dvs.length]);
+    }
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < NOTIFICATIONS; ++i) {
+      listener.setValue(dvs[i % dvs.length]);
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    return (double) allocated / NOTIFICATIONS;
+  }
+
+  @Test
+  public void matchingTypes_noAllocation_test() {
+    Object[] doubles = new Object[VALUE_COUNT];
+    Object[] longs = new Object[VALUE_COUNT];
+    Object[] booleans = new Object[VALUE_COUNT];
+    for (int i = 0; i < VALUE_COUNT; ++i) {
+      doubles[i] = 1000.5 + i;
+      longs[i] = 100000L + i;
+      booleans[i] = (i % 2 == 0);
+    }
+
+    DataChangeListenerDouble doubleListener =
+        new DataChangeListenerDouble("d", DataTypeUtil.DOUBLE) {
+          @Override
+          protected void publish(Double value) {
+            sink = value;
+          }
+        };
+    DataChangeListenerLong longListener =
+        new DataChangeListenerLong("l", DataTypeUtil.INT64) {
+          @Override
+          protected void publish(Long value) {
+            sink = value;
+          }
+        };
+    DataChangeListenerBoolean booleanListener =
+        new DataChangeListenerBoolean("b", DataTypeUtil.BOOLEAN) {
+          @Override
+          protected void publish(Boolean value) {
+            sink = value;
+          }
+        };
+
+    assertTrue(bytesPerNotification(doubleListener, values(doubles)) < 1.0);
+    assertTrue(bytesPerNotification(longListener, values(longs)) < 1.0);
+    assertTrue(bytesPerNotification(booleanListener, values(booleans)) < 1.0);
+  }
+
+  @Test
+  public void convertedTypes_singleBox_test() {
+    Object[] floats = new Object[VALUE_COUNT];
+    Object[] uints = new Object[VALUE_COUNT];
+    for (int i = 0; i < VALUE_COUNT; ++i) {
+      floats[i] = 1000.5f + i;
+      uints[i] = UInteger.valueOf(100000L + i);
+    }
+
+    DataChangeListenerDouble doubleListener =
+        new DataChangeListenerDouble("d", DataTypeUtil.FLOAT) {
+          @Override
+          protected void publish(Double value) {
+            sink = value;
+          }
+        };
+    DataChangeListenerLong longListener =
+        new DataChangeListenerLong("l", DataTypeUtil.UINT32) {
+          @Override
+          protected void publish(Long value) {
+            sink = value;
+          }
+        };
+    DataChangeListenerBoolean booleanListener =
+        new DataChangeListenerBoolean("b", DataTypeUtil.UINT32) {
+          @Override
+          protected void publish(Boolean value) {
+            sink = value;
+          }
+        };
+
+    // Only the boxed value handed to the data service is allocated (16 bytes with
+    // compressed class pointers, 24 bytes otherwise).
+    assertTrue(bytesPerNotification(doubleListener, values(floats)) <= 24.0);
+    assertTrue(bytesPerNotification(longListener, values(uints)) <= 24.0);
+    assertTrue(bytesPerNotification(booleanListener, values(uints)) < 1.0);
+
+    doubleListener.setValue(new DataValue(new Variant(2.5f)));
+    assertEquals(2.5, sink);
+  }
+}
@@ -0,0 +1,51 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class DataChangeListenerTable.
+ */
+public class DataChangeListenerTableTest {
+
+  @Test
+  public void denseAndSparseHandles_test() {
+    DataChangeListenerTable table = new DataChangeListenerTable();
+
+    IDataChangeListener[] listeners = new IDataChangeListener[1000];
+    for (int i = 0; i < listeners.length; ++i) {
+      listeners[i] = new DataChangeListenerDouble("out" + i, DataTypeUtil.DOUBLE);
+      table.put(UInteger.valueOf(i + 1), listeners[i]);
+    }
+
+    IDataChangeListener sparse = new DataChangeListenerLong("sparse", DataTypeUtil.INT32);
+    UInteger sparseHandle = UInteger.valueOf(DataChangeListenerTable.MAX_CAPACITY + 5L);
+    table.put(sparseHandle, sparse);
+
+    assertEquals(1001, table.size());
+    for (int i = 0; i < listeners.length; ++i) {
+      assertSame(listeners[i], table.get(UInteger.valueOf(i + 1)));
+    }
+    assertSame(sparse, table.get(sparseHandle));
+    assertSame(listeners[0], table.values().get(0));
+
+    assertNull(table.get(UInteger.valueOf(0)));
+    assertNull(table.get(UInteger.valueOf(5000)));
+    assertNull(table.get(UInteger.valueOf(DataChangeListenerTable.MAX_CAPACITY + 6L)));
+  }
+}
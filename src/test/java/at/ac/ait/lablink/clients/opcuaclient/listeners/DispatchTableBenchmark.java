@@ -0,0 +1,133 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Throughput benchmark for dispatching data change notifications to the data change
+ * listeners.
+ *
+ * <p>Compares the lookup of the listeners by client handle via a hash map (previous
+ * implementation) with the array-indexed dispatch table, for 10k and 100k monitored items.
+ * Each round delivers one notification per monitored item in random order, which resembles
+ * the publish responses of a subscription with many items. The listeners only count the
+ * notifications, such that the lookup dominates the measurement.
+ *
+ * <p>This is not a unit test, run it manually via its main method.
+ */
+public class DispatchTableBenchmark {
+
+  /** Numbers of monitored items. */
+  private static final int[] ITEM_COUNTS = {10000, 100000};
+
+  /** Total number of notifications per measurement. */
+  private static final int NOTIFICATIONS = 20000000;
+
+  /**
+   * Main method.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    DataValue value = new DataValue(new Variant(1.0));
+
+    // Run twice, the first round is the warm-up.
+    for (int round = 0; round < 2; ++round) {
+      System.out.println((round == 0) ? "Warm-up:" : "Results:");
+
+      for (int itemCount : ITEM_COUNTS) {
+        // Client handles are assigned densely, starting at 1. The handles are delivered as
+        // part of the monitored items, i.e., they are not boxed per notification.
+        List<UInteger> handles = new ArrayList<>();
+        Map<UInteger, IDataChangeListener> map = new HashMap<>();
+        DataChangeListenerTable table = new DataChangeListenerTable();
+        CountingListener listener = new CountingListener();
+
+        for (int i = 1; i <= itemCount; ++i) {
+          UInteger handle = UInteger.valueOf(i);
+          handles.add(handle);
+          map.put(handle, listener);
+          table.put(handle, listener);
+        }
+
+        Collections.shuffle(handles, new Random(42));
+        UInteger[] sequence = handles.toArray(new UInteger[0]);
+        int rounds = NOTIFICATIONS / itemCount;
+
+        measure(String.format("HashMap, %1$d items", itemCount), () -> {
+          for (int r = 0; r < rounds; ++r) {
+            for (UInteger handle : sequence) {
+              map.get(handle).setValue(value);
+            }
+          }
+        });
+        measure(String.format("table, %1$d items", itemCount), () -> {
+          for (int r = 0; r < rounds; ++r) {
+            for (UInteger handle : sequence) {
+              table.get(handle).setValue(value);
+            }
+          }
+        });
+
+        System.out.println("  (count: " + listener.count + ")");
+      }
+    }
+  }
+
+  /**
+   * Run a benchmark and print the throughput.
+   *
+   * @param label label of the benchmark
+   * @param benchmark benchmark to be run
+   */
+  private static void measure(String label, Runnable benchmark) {
+    long start = System.nanoTime();
+
+    benchmark.run();
+
+    long elapsed = System.nanoTime() - start;
+
+    System.out.println(String.format("  %1$-24s %2$7.2f M notifications/s, %3$6.1f ns each",
+        label, NOTIFICATIONS * 1e3 / elapsed, (double) elapsed / NOTIFICATIONS));
+  }
+
+  /**
+   * Data change listener, which only counts the notifications.
+   */
+  private static class CountingListener implements IDataChangeListener {
+
+    long count = 0;
+
+    @Override
+    public String getServiceName() {
+      return "benchmark";
+    }
+
+    @Override
+    public void setImplementedService(IImplementedService service) {
+    }
+
+    @Override
+    public void setValue(DataValue newVal) {
+      ++count;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.listeners;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for class PublishRateLimiter.
+ */
+public class PublishRateLimiterTest {
+
+  /**
+   * Data change listener, which records the received values.
+   */
+  private static class RecordingListener implements IDataChangeListener {
+
+    final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String getServiceName() {
+      return "recording";
+    }
+
+    @Override
+    public void setImplementedService(IImplementedService service) {
+    }
+
+    @Override
+    public void setValue(DataValue newVal) {
+      received.add(newVal.getValue().getValue());
+    }
+  }
+
+  @Test
+  public void conflateToLatest_test() throws InterruptedException {
+    PublishRateLimiter limiter = new PublishRateLimiter();
+    RecordingListener recording = new RecordingListener();
+
+    // At most 5 updates per second.
+    IDataChangeListener limited = limiter.limit(recording, 5.0);
+
+    for (int i = 0; i < 100; ++i) {
+      limited.setValue(new DataValue(new Variant(i)));
+    }
+
+    // The first value is passed on immediately, the rest is conflated.
+    assertEquals(List.of(0), recording.received);
+    assertEquals(98, limiter.getConflatedCount());
+
+    // The latest value is flushed by the timer after the minimum interval (200 ms).
+    Thread.sleep(400);
+    assertEquals(List.of(0, 99), recording.received);
+
+    limiter.close();
+  }
+}
@@ -0,0 +1,218 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.notifiers;
+
+import at.ac.ait.lablink.clients.opcuaclient.DataTypeUtil;
+import at.ac.ait.lablink.clients.opcuaclient.writers.IValueWriter;
+import at.ac.ait.lablink.clients.opcuaclient.writers.SyncValueWriter;
+
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Allocation-rate benchmark for the input write path.
+ *
+ * <p>Measures the number of bytes allocated per input update for converting the input value
+ * and handing it to a synchronous value writer. The legacy path (generic caster with boxed
+ * arguments, new node ID list per write) is compared with the primitive write path of the
+ * input data notifiers. The OPC UA server is replaced by a write function that
+ * completes immediately.
+ *
+ * <p>This is not a unit test, run it manually via its main method. Requires a JVM that
+ * supports measuring the allocated bytes per thread.
+ */
+public class WriteAllocationBenchmark {
+
+  /** Number of updates per measurement. */
+  private static final int UPDATES = 1000000;
+
+  /** Number of distinct (pre-boxed) input values. */
+  private static final int VALUE_COUNT = 1024;
+
+  /** Result returned by the simulated OPC UA server. */
+  private static final CompletableFuture<List<StatusCode>> GOOD =
+      CompletableFuture.completedFuture(Collections.singletonList(StatusCode.GOOD));
+
+  /** Consumes the results so that the JIT cannot eliminate the conversions. */
+  private static long sink = 0;
+
+  /**
+   * Last write request. The node IDs and data values are handed over to the OPC UA stack,
+   * hence they must not be optimized away by escape analysis.
+   */
+  private static volatile List<NodeId> lastIds;
+  private static volatile List<DataValue> lastValues;
+
+  /**
+   * Main method.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    NodeId id = new NodeId(2, "benchmark");
+
+    // The data services deliver boxed values, create them up front.
+    Double[] doubles = new Double[VALUE_COUNT];
+    Long[] longs = new Long[VALUE_COUNT];
+    Boolean[] booleans = new Boolean[VALUE_COUNT];
+    for (int i = 0; i < VALUE_COUNT; ++i) {
+      doubles[i] = i * 1.5;
+      longs[i] = 100000L + i;
+      booleans[i] = (i % 2 == 0);
+    }
+
+    // Legacy write path.
+    Function<Double, Object> legacyDoubleToFloat = DataTypeUtil::numberToFloat;
+    Function<Double, Object> legacyDoubleIdentity = DataTypeUtil::identity;
+    Function<Long, Object> legacyLongToInt = DataTypeUtil::numberToInt;
+    Function<Boolean, Object> legacyBoolean = DataTypeUtil::identity;
+
+    // Primitive write path.
+    InputDataNotifierDouble doubleToFloat =
+        new InputDataNotifierDouble(null, id, DataTypeUtil.FLOAT);
+    InputDataNotifierDouble doubleToDouble =
+        new InputDataNotifierDouble(null, id, DataTypeUtil.DOUBLE);
+    InputDataNotifierLong longToInt = new InputDataNotifierLong(null, id, DataTypeUtil.INT32);
+    InputDataNotifierBoolean booleanToBoolean =
+        new InputDataNotifierBoolean(null, id, DataTypeUtil.BOOLEAN);
+
+    BiFunction<List<NodeId>, List<DataValue>, CompletableFuture<List<StatusCode>>> server =
+        (ids, dvs) -> {
+          sink += ids.size() + dvs.size();
+          lastIds = ids;
+          lastValues = dvs;
+          return GOOD;
+        };
+
+    IValueWriter writer = new SyncValueWriter(server);
+    IValueWriter legacyWriter = new LegacySyncValueWriter(server);
+
+    // Run twice, the first round is the warm-up.
+    for (int round = 0; round < 2; ++round) {
+      System.out.println((round == 0) ? "Warm-up:" : "Results:");
+
+      measure("double -> Double (legacy)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          legacyWrite(legacyWriter, id, legacyDoubleIdentity.apply(doubles[i % VALUE_COUNT]));
+        }
+      });
+      measure("double -> Double (primitive)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          writer.write(id, doubleToDouble.toDataValue(doubles[i % VALUE_COUNT]));
+        }
+      });
+      measure("double -> Float (legacy)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          legacyWrite(legacyWriter, id, legacyDoubleToFloat.apply(doubles[i % VALUE_COUNT]));
+        }
+      });
+      measure("double -> Float (primitive)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          writer.write(id, doubleToFloat.toDataValue(doubles[i % VALUE_COUNT]));
+        }
+      });
+      measure("long -> Int32 (legacy)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          legacyWrite(legacyWriter, id, legacyLongToInt.apply(longs[i % VALUE_COUNT]));
+        }
+      });
+      measure("long -> Int32 (primitive)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          writer.write(id, longToInt.toDataValue(longs[i % VALUE_COUNT]));
+        }
+      });
+      measure("boolean -> Boolean (legacy)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          legacyWrite(legacyWriter, id, legacyBoolean.apply(booleans[i % VALUE_COUNT]));
+        }
+      });
+      measure("boolean -> Boolean (primitive)", () -> {
+        for (int i = 0; i < UPDATES; ++i) {
+          writer.write(id, booleanToBoolean.toDataValue(booleans[i % VALUE_COUNT]));
+        }
+      });
+    }
+
+    System.out.println("(sink: " + sink + ")");
+  }
+
+  /**
+   * Legacy conversion: generic caster result wrapped into a new data value.
+   *
+   * @param writer legacy value writer
+   * @param id node ID of the OPC UA server variable
+   * @param converted converted input value
+   */
+  private static void legacyWrite(IValueWriter writer, NodeId id, Object converted) {
+    writer.write(id, new DataValue(new Variant(converted)));
+  }
+
+  /**
+   * Legacy synchronous value writer, which creates new lists for each write.
+   */
+  private static class LegacySyncValueWriter implements IValueWriter {
+
+    private final BiFunction<List<NodeId>, List<DataValue>,
+        CompletableFuture<List<StatusCode>>> writeFunction;
+
+    LegacySyncValueWriter(BiFunction<List<NodeId>, List<DataValue>,
+        CompletableFuture<List<StatusCode>>> writeFunction) {
+      this.writeFunction = writeFunction;
+    }
+
+    @Override
+    public void write(NodeId id, DataValue value) {
+      List<NodeId> ids = ImmutableList.of(id);
+      List<DataValue> dvs = ImmutableList.of(value);
+
+      List<StatusCode> statusCodes = writeFunction.apply(ids, dvs).join();
+      for (StatusCode status : statusCodes) {
+        sink += status.isGood() ? 1 : 0;
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Run a benchmark and print the allocated bytes per update.
+   *
+   * @param label label of the benchmark
+   * @param benchmark benchmark to be run
+   */
+  private static void measure(String label, Runnable benchmark) {
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+
+    benchmark.run();
+
+    long elapsed = System.nanoTime() - start;
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    System.out.println(String.format("  %1$-32s %2$7.1f bytes/update, %3$6.1f ns/update",
+        label, (double) allocated / UPDATES, (double) elapsed / UPDATES));
+  }
+}
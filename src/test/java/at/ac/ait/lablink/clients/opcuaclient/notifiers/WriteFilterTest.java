@@ -0,0 +1,76 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.notifiers;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.clients.opcuaclient.writers.WriteStatistics;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class WriteFilter.
+ */
+public class WriteFilterTest {
+
+  @Test
+  public void writeOnChange_test() {
+    WriteStatistics stats = new WriteStatistics();
+    WriteFilter filter = new WriteFilter(WriteFilter.EDeadbandType.ABSOLUTE, 0.0, stats);
+
+    assertEquals(true, filter.accept(1.0));
+    assertEquals(false, filter.accept(1.0));
+    assertEquals(true, filter.accept(1.0000001));
+    assertEquals(1, stats.getSuppressedCount());
+  }
+
+  @Test
+  public void absoluteDeadband_test() {
+    WriteStatistics stats = new WriteStatistics();
+    WriteFilter filter = new WriteFilter(WriteFilter.EDeadbandType.ABSOLUTE, 0.5, stats);
+
+    assertEquals(true, filter.accept(10.0));
+    assertEquals(false, filter.accept(10.4));
+    assertEquals(false, filter.accept(9.5));
+    assertEquals(true, filter.accept(10.6));
+    assertEquals(false, filter.accept(11.0));
+    assertEquals(3, stats.getSuppressedCount());
+  }
+
+  @Test
+  public void percentDeadband_test() {
+    WriteStatistics stats = new WriteStatistics();
+    WriteFilter filter = new WriteFilter(WriteFilter.EDeadbandType.PERCENT, 10.0, stats);
+
+    assertEquals(true, filter.accept(100L));
+    assertEquals(false, filter.accept(109L));
+    assertEquals(true, filter.accept(111L));
+    assertEquals(1, stats.getSuppressedCount());
+  }
+
+  @Test
+  public void longWriteOnChange_test() {
+    WriteFilter filter = new WriteFilter(WriteFilter.EDeadbandType.ABSOLUTE, 0.0, null);
+
+    assertEquals(true, filter.accept(Long.MAX_VALUE));
+    assertEquals(true, filter.accept(Long.MAX_VALUE - 1));
+    assertEquals(false, filter.accept(Long.MAX_VALUE - 1));
+  }
+
+  @Test
+  public void objectWriteOnChange_test() {
+    WriteFilter filter = new WriteFilter(WriteFilter.EDeadbandType.ABSOLUTE, 0.0, null);
+
+    assertEquals(true, filter.accept((Object) "a"));
+    assertEquals(false, filter.accept((Object) "a"));
+    assertEquals(true, filter.accept((Object) "b"));
+    assertEquals(true, filter.accept((Object) null));
+    assertEquals(false, filter.accept((Object) null));
+  }
+}
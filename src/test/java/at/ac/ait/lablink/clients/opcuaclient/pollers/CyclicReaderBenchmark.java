@@ -0,0 +1,316 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.pollers;
+
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.EBackpressurePolicy;
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.NotificationDispatcher;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.DataChangeListenerTable;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.IDataChangeListener;
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark comparing the polling mode (cyclic batched reads) with the subscription mode for
+ * 1k and 10k output nodes.
+ *
+ * <p>The OPC UA server is simulated in-process, 10% of the nodes change per cycle. In polling
+ * mode, a value is created for every node per cycle (like decoding a read response) and the
+ * cyclic reader filters the unchanged values. In subscription mode, only the changed values
+ * are delivered (like a publish response), the listeners are resolved by client handle and
+ * handed to the dispatcher. The client-side CPU time per cycle is measured on the calling
+ * thread. The latency from a value change until its delivery to the listener is measured with
+ * a polling/publishing interval of 50 ms; network round trips and server-side sampling are not
+ * included, i.e., both modes show a latency of about half the interval plus the client-side
+ * processing.
+ *
+ * <p>This is not a unit test, run it manually via its main method.
+ */
+public class CyclicReaderBenchmark {
+
+  /** Numbers of output nodes. */
+  private static final int[] NODE_COUNTS = {1000, 10000};
+
+  /** Fraction of nodes changing per cycle. */
+  private static final double CHANGE_RATE = 0.1;
+
+  /** Number of cycles for measuring the CPU time. */
+  private static final int CYCLES = 2000;
+
+  /** Polling/publishing interval for measuring the latency (in milliseconds). */
+  private static final int INTERVAL_MS = 50;
+
+  /** Duration of the latency measurement (in milliseconds). */
+  private static final int LATENCY_DURATION_MS = 3000;
+
+  /**
+   * Main method.
+   *
+   * @param args not used
+   * @throws Exception benchmark failed
+   */
+  public static void main(String[] args) throws Exception {
+    // Run twice, the first round is the warm-up.
+    for (int round = 0; round < 2; ++round) {
+      System.out.println((round == 0) ? "Warm-up:" : "Results:");
+
+      for (int nodeCount : NODE_COUNTS) {
+        System.out.println(String.format("  %1$d nodes:", nodeCount));
+        measureCpu(nodeCount);
+        measureLatency(nodeCount);
+      }
+    }
+  }
+
+  /**
+   * Measure the client-side CPU time per cycle for both modes.
+   *
+   * @param nodeCount number of output nodes
+   */
+  private static void measureCpu(int nodeCount) {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    SimulatedServer server = new SimulatedServer(nodeCount);
+    CountingListener listener = new CountingListener();
+    NotificationDispatcher<IDataChangeListener> dispatcher = new NotificationDispatcher<>(
+        (dcl, value) -> dcl.setValue(value), 0, EBackpressurePolicy.BLOCK);
+
+    // Polling mode.
+    CyclicReader reader = new CyclicReader("benchmark", INTERVAL_MS,
+        ids -> CompletableFuture.completedFuture(server.readAll()), dispatcher);
+    for (int i = 0; i < nodeCount; ++i) {
+      reader.add(readValueId(i), listener);
+    }
+
+    long start = threads.getCurrentThreadCpuTime();
+    for (int cycle = 0; cycle < CYCLES; ++cycle) {
+      server.change();
+      reader.poll().join();
+    }
+    double pollingMicros = (threads.getCurrentThreadCpuTime() - start) / 1e3 / CYCLES;
+
+    // Subscription mode.
+    DataChangeListenerTable table = new DataChangeListenerTable();
+    for (int i = 0; i < nodeCount; ++i) {
+      table.put(UInteger.valueOf(i + 1), listener);
+    }
+
+    start = threads.getCurrentThreadCpuTime();
+    for (int cycle = 0; cycle < CYCLES; ++cycle) {
+      server.change();
+      List<UInteger> handles = new ArrayList<>();
+      List<DataValue> values = server.publishChanged(handles);
+      List<IDataChangeListener> batch = new ArrayList<>(handles.size());
+      for (UInteger handle : handles) {
+        batch.add(table.get(handle));
+      }
+      dispatcher.dispatchAll(batch, values);
+    }
+    double subscriptionMicros = (threads.getCurrentThreadCpuTime() - start) / 1e3 / CYCLES;
+
+    System.out.println(String.format(
+        "    CPU per cycle: polling %1$9.1f us, subscription %2$9.1f us",
+        pollingMicros, subscriptionMicros));
+  }
+
+  /**
+   * Measure the latency from a value change until its delivery for both modes.
+   *
+   * @param nodeCount number of output nodes
+   * @throws InterruptedException benchmark interrupted
+   */
+  private static void measureLatency(int nodeCount) throws InterruptedException {
+    // Polling mode.
+    SimulatedServer server = new SimulatedServer(nodeCount);
+    LatencyListener[] listeners = new LatencyListener[nodeCount];
+    LongAdder totalNanos = new LongAdder();
+    LongAdder count = new LongAdder();
+    for (int i = 0; i < nodeCount; ++i) {
+      listeners[i] = new LatencyListener(server.changeTimes, i, totalNanos, count);
+    }
+
+    NotificationDispatcher<IDataChangeListener> dispatcher = new NotificationDispatcher<>(
+        (dcl, value) -> dcl.setValue(value), 100000, EBackpressurePolicy.BLOCK);
+    CyclicReader reader = new CyclicReader("benchmark", INTERVAL_MS,
+        ids -> CompletableFuture.completedFuture(server.readAll()), dispatcher);
+    for (int i = 0; i < nodeCount; ++i) {
+      reader.add(readValueId(i), listeners[i]);
+    }
+
+    ScheduledExecutorService mutator = Executors.newSingleThreadScheduledExecutor();
+    mutator.scheduleAtFixedRate(server::change, 0, 7, TimeUnit.MILLISECONDS);
+    reader.start();
+    Thread.sleep(LATENCY_DURATION_MS);
+    reader.close();
+    double pollingMillis = totalNanos.sum() / 1e6 / Math.max(count.sum(), 1);
+
+    // Subscription mode (the simulated server publishes the changed values periodically).
+    totalNanos.reset();
+    count.reset();
+    DataChangeListenerTable table = new DataChangeListenerTable();
+    for (int i = 0; i < nodeCount; ++i) {
+      table.put(UInteger.valueOf(i + 1), listeners[i]);
+    }
+
+    ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor();
+    publisher.scheduleAtFixedRate(() -> {
+      List<UInteger> handles = new ArrayList<>();
+      List<DataValue> values = server.publishChanged(handles);
+      List<IDataChangeListener> batch = new ArrayList<>(handles.size());
+      for (UInteger handle : handles) {
+        batch.add(table.get(handle));
+      }
+      dispatcher.dispatchAll(batch, values);
+    }, 0, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    Thread.sleep(LATENCY_DURATION_MS);
+    publisher.shutdownNow();
+    mutator.shutdownNow();
+    dispatcher.close();
+    double subscriptionMillis = totalNanos.sum() / 1e6 / Math.max(count.sum(), 1);
+
+    System.out.println(String.format(
+        "    mean latency:  polling %1$9.1f ms, subscription %2$9.1f ms",
+        pollingMillis, subscriptionMillis));
+  }
+
+  private static ReadValueId readValueId(int index) {
+    return new ReadValueId(new NodeId(1, index), AttributeId.Value.uid(), null,
+        QualifiedName.NULL_VALUE);
+  }
+
+  /**
+   * In-process simulation of the values of an OPC UA server.
+   */
+  private static class SimulatedServer {
+
+    private final double[] values;
+    private final boolean[] changed;
+    private final AtomicLongArray changeTimes;
+    private final Random random = new Random(42);
+
+    SimulatedServer(int nodeCount) {
+      values = new double[nodeCount];
+      changed = new boolean[nodeCount];
+      changeTimes = new AtomicLongArray(nodeCount);
+    }
+
+    /** Change a fraction of the values. */
+    synchronized void change() {
+      long now = System.nanoTime();
+      int changes = (int) (values.length * CHANGE_RATE);
+      for (int i = 0; i < changes; ++i) {
+        int index = random.nextInt(values.length);
+        values[index] += 1.0;
+        if (!changed[index]) {
+          changed[index] = true;
+          changeTimes.set(index, now);
+        }
+      }
+    }
+
+    /** Read all values (polling mode). */
+    synchronized List<DataValue> readAll() {
+      List<DataValue> result = new ArrayList<>(values.length);
+      for (int i = 0; i < values.length; ++i) {
+        result.add(new DataValue(new Variant(values[i])));
+        changed[i] = false;
+      }
+      return result;
+    }
+
+    /** Retrieve the changed values (subscription mode). */
+    synchronized List<DataValue> publishChanged(List<UInteger> handles) {
+      List<DataValue> result = new ArrayList<>();
+      for (int i = 0; i < values.length; ++i) {
+        if (changed[i]) {
+          handles.add(UInteger.valueOf(i + 1));
+          result.add(new DataValue(new Variant(values[i])));
+          changed[i] = false;
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Data change listener, which only counts the notifications.
+   */
+  private static class CountingListener implements IDataChangeListener {
+
+    long count = 0;
+
+    @Override
+    public String getServiceName() {
+      return "benchmark";
+    }
+
+    @Override
+    public void setImplementedService(IImplementedService service) {
+    }
+
+    @Override
+    public void setValue(DataValue newVal) {
+      ++count;
+    }
+  }
+
+  /**
+   * Data change listener, which records the latency since the last change of its node.
+   */
+  private static class LatencyListener implements IDataChangeListener {
+
+    private final AtomicLongArray changeTimes;
+    private final int index;
+    private final LongAdder totalNanos;
+    private final LongAdder count;
+
+    LatencyListener(AtomicLongArray changeTimes, int index, LongAdder totalNanos,
+        LongAdder count) {
+      this.changeTimes = changeTimes;
+      this.index = index;
+      this.totalNanos = totalNanos;
+      this.count = count;
+    }
+
+    @Override
+    public String getServiceName() {
+      return "benchmark";
+    }
+
+    @Override
+    public void setImplementedService(IImplementedService service) {
+    }
+
+    @Override
+    public void setValue(DataValue newVal) {
+      long changeTime = changeTimes.get(index);
+      if (changeTime != 0) {
+        totalNanos.add(System.nanoTime() - changeTime);
+        count.increment();
+      }
+    }
+  }
+}
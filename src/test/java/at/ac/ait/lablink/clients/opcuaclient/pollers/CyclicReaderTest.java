@@ -0,0 +1,159 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.pollers;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.EBackpressurePolicy;
+import at.ac.ait.lablink.clients.opcuaclient.dispatchers.NotificationDispatcher;
+import at.ac.ait.lablink.clients.opcuaclient.listeners.IDataChangeListener;
+import at.ac.ait.lablink.core.service.IImplementedService;
+
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for class CyclicReader.
+ */
+public class CyclicReaderTest {
+
+  /** Values returned by the next read request. */
+  private final List<DataValue> serverValues = new ArrayList<>();
+
+  /** Pending read request (null for immediate completion). */
+  private CompletableFuture<List<DataValue>> pendingRead = null;
+
+  /** Values received by the data change listeners. */
+  private final List<String> received = new ArrayList<>();
+
+  private CyclicReader createReader(int nodes) {
+    NotificationDispatcher<IDataChangeListener> dispatcher = new NotificationDispatcher<>(
+        (dcl, value) -> dcl.setValue(value), 0, EBackpressurePolicy.BLOCK);
+
+    CyclicReader reader = new CyclicReader("test", 100.0, ids -> {
+      if (pendingRead != null) {
+        return pendingRead;
+      }
+      return CompletableFuture.completedFuture(new ArrayList<>(serverValues));
+    }, dispatcher);
+
+    for (int i = 0; i < nodes; ++i) {
+      reader.add(new ReadValueId(new NodeId(1, i), AttributeId.Value.uid(), null,
+          QualifiedName.NULL_VALUE), new RecordingListener("out" + i));
+      serverValues.add(new DataValue(new Variant((double) i)));
+    }
+
+    return reader;
+  }
+
+  @Test
+  public void onlyChangedValuesDispatched_test() {
+    CyclicReader reader = createReader(3);
+
+    // The first cycle delivers all values.
+    reader.poll().join();
+    assertEquals(List.of("out0=0.0", "out1=1.0", "out2=2.0"), received);
+
+    // Unchanged values are not dispatched.
+    received.clear();
+    reader.poll().join();
+    assertEquals(List.of(), received);
+
+    // Changes of value or status are dispatched.
+    serverValues.set(1, new DataValue(new Variant(5.0)));
+    serverValues.set(2, new DataValue(new Variant(2.0),
+        new StatusCode(StatusCodes.Bad_NoCommunication)));
+    reader.poll().join();
+    assertEquals(List.of("out1=5.0", "out2=2.0"), received);
+
+    assertEquals(3, reader.getCycleCount());
+    assertEquals(5, reader.getChangeCount());
+  }
+
+  @Test
+  public void overrunSkipsCycle_test() {
+    CyclicReader reader = createReader(2);
+
+    pendingRead = new CompletableFuture<>();
+    reader.poll();
+    reader.poll();
+    assertEquals(1, reader.getOverrunCount());
+    assertEquals(List.of(), received);
+
+    pendingRead.complete(new ArrayList<>(serverValues));
+    assertEquals(List.of("out0=0.0", "out1=1.0"), received);
+    assertEquals(1, reader.getCycleCount());
+  }
+
+  @Test
+  public void failedReadCounted_test() {
+    CyclicReader reader = createReader(1);
+
+    pendingRead = new CompletableFuture<>();
+    pendingRead.completeExceptionally(new RuntimeException("timeout"));
+    reader.poll().join();
+
+    assertEquals(1, reader.getFailureCount());
+    assertEquals(0, reader.getCycleCount());
+
+    // The next cycle is not blocked by the failed request.
+    pendingRead = null;
+    reader.poll().join();
+    assertEquals(List.of("out0=0.0"), received);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidInterval_test() {
+    new CyclicReader("test", 0, ids -> null, null);
+  }
+
+  @Test
+  public void acquisitionModeFromString_test() {
+    assertEquals(EAcquisitionMode.SUBSCRIPTION, EAcquisitionMode.fromString("Subscription"));
+    assertEquals(EAcquisitionMode.POLLING, EAcquisitionMode.fromString("polling"));
+  }
+
+  /**
+   * Data change listener, which records the received values.
+   */
+  private class RecordingListener implements IDataChangeListener {
+
+    private final String name;
+
+    RecordingListener(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getServiceName() {
+      return name;
+    }
+
+    @Override
+    public void setImplementedService(IImplementedService service) {
+    }
+
+    @Override
+    public void setValue(DataValue newVal) {
+      received.add(name + "=" + newVal.getValue().getValue());
+    }
+  }
+}
@@ -0,0 +1,112 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for class AsyncValueWriter.
+ */
+public class AsyncValueWriterTest {
+
+  @Test
+  public void write_returnsBeforeCompletion_test() {
+    List<CompletableFuture<List<StatusCode>>> requests = new ArrayList<>();
+
+    AsyncValueWriter writer = new AsyncValueWriter((ids, dvs) -> {
+      CompletableFuture<List<StatusCode>> cf = new CompletableFuture<>();
+      requests.add(cf);
+      return cf;
+    }, 2);
+
+    writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)));
+    writer.write(new NodeId(2, "b"), new DataValue(new Variant(2.0)));
+
+    assertEquals(2, requests.size());
+    assertEquals(2, writer.getPendingWrites());
+
+    requests.get(0).complete(Collections.singletonList(StatusCode.GOOD));
+    assertEquals(1, writer.getPendingWrites());
+
+    requests.get(1).completeExceptionally(new RuntimeException("connection lost"));
+    assertEquals(0, writer.getPendingWrites());
+  }
+
+  @Test
+  public void write_boundedInFlight_test() throws InterruptedException {
+    List<CompletableFuture<List<StatusCode>>> requests =
+        Collections.synchronizedList(new ArrayList<>());
+
+    AsyncValueWriter writer = new AsyncValueWriter((ids, dvs) -> {
+      CompletableFuture<List<StatusCode>> cf = new CompletableFuture<>();
+      requests.add(cf);
+      return cf;
+    }, 1);
+
+    writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)));
+
+    // The second write has to wait until the first one has completed.
+    Thread producer = new Thread(
+        () -> writer.write(new NodeId(2, "a"), new DataValue(new Variant(2.0)))
+    );
+    producer.start();
+    producer.join(200);
+
+    assertEquals(true, producer.isAlive());
+    assertEquals(1, requests.size());
+
+    requests.get(0).complete(Collections.singletonList(StatusCode.GOOD));
+    producer.join(2000);
+
+    assertEquals(false, producer.isAlive());
+    assertEquals(2, requests.size());
+  }
+
+  @Test
+  public void writeAfterClose_test() throws InterruptedException {
+    List<CompletableFuture<List<StatusCode>>> requests =
+        Collections.synchronizedList(new ArrayList<>());
+
+    AsyncValueWriter writer = new AsyncValueWriter((ids, dvs) -> {
+      CompletableFuture<List<StatusCode>> cf = new CompletableFuture<>();
+      requests.add(cf);
+      return cf;
+    }, 2);
+
+    writer.close();
+
+    // Late values are written synchronously, no write is left in flight.
+    Thread producer = new Thread(
+        () -> writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)))
+    );
+    producer.start();
+    producer.join(200);
+
+    assertEquals(true, producer.isAlive());
+    assertEquals(1, requests.size());
+    assertEquals(0, writer.getPendingWrites());
+
+    requests.get(0).complete(Collections.singletonList(StatusCode.GOOD));
+    producer.join(2000);
+
+    assertEquals(false, producer.isAlive());
+  }
+}
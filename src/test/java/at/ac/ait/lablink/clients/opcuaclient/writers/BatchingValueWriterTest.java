@@ -0,0 +1,161 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for class BatchingValueWriter.
+ */
+public class BatchingValueWriterTest {
+
+  /** Node IDs of all write requests sent by the writer under test. */
+  private final List<List<NodeId>> requests = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Write function that records each request and reports success for every node.
+   */
+  private CompletableFuture<List<StatusCode>> recordWrite(
+      List<NodeId> ids, List<DataValue> dvs) {
+    requests.add(new ArrayList<>(ids));
+    return CompletableFuture.completedFuture(Collections.nCopies(ids.size(), StatusCode.GOOD));
+  }
+
+  /**
+   * Wait until the writer under test has sent at least one request.
+   */
+  private void awaitRequests() throws InterruptedException {
+    for (int i = 0; i < 100 && requests.isEmpty(); ++i) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void write_fullBatch_test() throws InterruptedException {
+    BatchingValueWriter writer = new BatchingValueWriter(this::recordWrite, 10, 60000, 3, false);
+
+    writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)));
+    writer.write(new NodeId(2, "b"), new DataValue(new Variant(2.0)));
+    Thread.sleep(50);
+    assertEquals(0, requests.size());
+
+    writer.write(new NodeId(2, "c"), new DataValue(new Variant(3.0)));
+    awaitRequests();
+    assertEquals(1, requests.size());
+    assertEquals(3, requests.get(0).size());
+
+    writer.close();
+  }
+
+  @Test
+  public void write_batchWindow_test() throws InterruptedException {
+    BatchingValueWriter writer = new BatchingValueWriter(this::recordWrite, 10, 20, 1000, false);
+
+    writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)));
+    writer.write(new NodeId(2, "b"), new DataValue(new Variant(2.0)));
+    awaitRequests();
+
+    assertEquals(1, requests.size());
+    assertEquals(2, requests.get(0).size());
+    assertEquals(1, writer.getBatchCount());
+    assertEquals(2, writer.getValueCount());
+
+    writer.close();
+  }
+
+  @Test
+  public void write_conflation_test() {
+    List<List<DataValue>> values = new ArrayList<>();
+
+    BatchingValueWriter writer = new BatchingValueWriter((ids, dvs) -> {
+      values.add(new ArrayList<>(dvs));
+      return recordWrite(ids, dvs);
+    }, 10, 60000, 1000, true);
+
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+
+    writer.write(nodeA, new DataValue(new Variant(1.0)));
+    writer.write(nodeB, new DataValue(new Variant(2.0)));
+    writer.write(nodeA, new DataValue(new Variant(3.0)));
+    writer.write(nodeA, new DataValue(new Variant(4.0)));
+    writer.flush();
+
+    assertEquals(1, requests.size());
+    assertEquals(List.of(nodeA, nodeB), requests.get(0));
+    assertEquals(4.0, values.get(0).get(0).getValue().getValue());
+    assertEquals(2.0, values.get(0).get(1).getValue().getValue());
+    assertEquals(2, writer.getConflatedCount());
+
+    writer.close();
+  }
+
+  @Test
+  public void conflationAcrossQueue_test() {
+    List<List<DataValue>> values = new ArrayList<>();
+
+    BatchingValueWriter writer = new BatchingValueWriter((ids, dvs) -> {
+      values.add(new ArrayList<>(dvs));
+      return recordWrite(ids, dvs);
+    }, 10, 60000, 1000, true);
+
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+
+    // Only one value per node is queued at any time.
+    for (int i = 1; i <= 100; ++i) {
+      writer.write(nodeA, new DataValue(new Variant((double) i)));
+      writer.write(nodeB, new DataValue(new Variant((double) -i)));
+    }
+    assertEquals(2, writer.getQueuedCount());
+    assertEquals(198, writer.getConflatedCount());
+
+    writer.flush();
+    assertEquals(0, writer.getQueuedCount());
+
+    // A value written after the previous one has been sent is queued again.
+    writer.write(nodeA, new DataValue(new Variant(101.0)));
+    writer.flush();
+
+    assertEquals(2, requests.size());
+    assertEquals(List.of(nodeA, nodeB), requests.get(0));
+    assertEquals(100.0, values.get(0).get(0).getValue().getValue());
+    assertEquals(-100.0, values.get(0).get(1).getValue().getValue());
+    assertEquals(101.0, values.get(1).get(0).getValue().getValue());
+
+    writer.close();
+  }
+
+  @Test
+  public void writeAfterClose_test() {
+    BatchingValueWriter writer = new BatchingValueWriter(this::recordWrite, 10, 60000, 1000, false);
+
+    writer.write(new NodeId(2, "a"), new DataValue(new Variant(1.0)));
+    writer.close();
+    assertEquals(1, requests.size());
+
+    // Late values are written directly instead of being queued (and lost).
+    writer.write(new NodeId(2, "b"), new DataValue(new Variant(2.0)));
+    assertEquals(2, requests.size());
+    assertEquals(List.of(new NodeId(2, "b")), requests.get(1));
+    assertEquals(1, writer.getBatchCount());
+  }
+}
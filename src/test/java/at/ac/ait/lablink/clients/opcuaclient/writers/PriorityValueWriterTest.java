@@ -0,0 +1,135 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for class PriorityValueWriter.
+ */
+public class PriorityValueWriterTest {
+
+  @Test
+  public void separateLanes_test() {
+    List<EWritePriority> createdLanes = new ArrayList<>();
+
+    PriorityValueWriter writer = new PriorityValueWriter(
+        (ids, dvs) -> CompletableFuture.completedFuture(
+            Collections.nCopies(ids.size(), StatusCode.GOOD)),
+        (priority, writeFunction) -> {
+          createdLanes.add(priority);
+          return new SyncValueWriter(writeFunction);
+        });
+
+    // Only the normal lane exists as long as there are no high-priority nodes.
+    assertEquals(List.of(EWritePriority.NORMAL), createdLanes);
+
+    NodeId setpoint = new NodeId(2, "setpoint");
+    NodeId telemetry = new NodeId(2, "telemetry");
+    writer.setPriority(setpoint, EWritePriority.HIGH);
+
+    assertEquals(List.of(EWritePriority.NORMAL, EWritePriority.HIGH), createdLanes);
+    assertEquals(EWritePriority.HIGH, writer.getPriority(setpoint));
+    assertEquals(EWritePriority.NORMAL, writer.getPriority(telemetry));
+
+    writer.write(setpoint, new DataValue(new Variant(1.0)));
+    writer.write(telemetry, new DataValue(new Variant(2.0)));
+    writer.write(telemetry, new DataValue(new Variant(3.0)));
+
+    assertEquals(1, writer.getLatencyStatistics(EWritePriority.HIGH).getCount());
+    assertEquals(2, writer.getLatencyStatistics(EWritePriority.NORMAL).getCount());
+  }
+
+  @Test
+  public void normalPriorityNotBlocked_test() {
+    List<NodeId> sent = Collections.synchronizedList(new ArrayList<>());
+
+    PriorityValueWriter writer = new PriorityValueWriter(
+        (ids, dvs) -> {
+          sent.addAll(ids);
+          return new CompletableFuture<>();
+        },
+        (priority, writeFunction) -> new AsyncValueWriter(writeFunction, 10));
+
+    NodeId setpoint = new NodeId(2, "setpoint");
+    NodeId telemetry = new NodeId(2, "telemetry");
+    writer.setPriority(setpoint, EWritePriority.HIGH);
+
+    // A high-priority write in flight does not hold back writes of normal priority.
+    writer.write(setpoint, new DataValue(new Variant(1.0)));
+    writer.write(telemetry, new DataValue(new Variant(2.0)));
+
+    assertEquals(List.of(setpoint, telemetry), sent);
+  }
+
+  @Test
+  public void highPrioritySentFirst_test() throws InterruptedException {
+    List<NodeId> sent = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    PriorityValueWriter writer = new PriorityValueWriter(
+        (ids, dvs) -> {
+          sent.addAll(ids);
+          if (sent.size() == 1) {
+            // The first request is sent slowly, further requests are queued meanwhile.
+            sending.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return CompletableFuture.completedFuture(
+              Collections.nCopies(ids.size(), StatusCode.GOOD));
+        },
+        (priority, writeFunction) -> new AsyncValueWriter(writeFunction, 10));
+
+    NodeId setpoint = new NodeId(2, "setpoint");
+    NodeId telemetry1 = new NodeId(2, "telemetry1");
+    NodeId telemetry2 = new NodeId(2, "telemetry2");
+    NodeId telemetry3 = new NodeId(2, "telemetry3");
+    writer.setPriority(setpoint, EWritePriority.HIGH);
+
+    Thread producer = new Thread(
+        () -> writer.write(telemetry1, new DataValue(new Variant(1.0)))
+    );
+    producer.start();
+    assertTrue(sending.await(2, TimeUnit.SECONDS));
+
+    // Queued while the first request is being sent, these calls return immediately.
+    writer.write(telemetry2, new DataValue(new Variant(2.0)));
+    writer.write(telemetry3, new DataValue(new Variant(3.0)));
+    writer.write(setpoint, new DataValue(new Variant(4.0)));
+    assertEquals(List.of(telemetry1), sent);
+
+    release.countDown();
+    producer.join(2000);
+
+    // The high-priority request overtakes the queued requests of normal priority.
+    assertEquals(List.of(telemetry1, setpoint, telemetry2, telemetry3), sent);
+    assertEquals(1, writer.getLatencyStatistics(EWritePriority.HIGH).getCount());
+    assertEquals(3, writer.getLatencyStatistics(EWritePriority.NORMAL).getCount());
+  }
+}
@@ -0,0 +1,268 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.clients.opcuaclient.writers.StoreAndForwardBuffer.EOverflowPolicy;
+
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for class StoreAndForwardBuffer.
+ */
+public class StoreAndForwardBufferTest {
+
+  private final List<List<NodeId>> writtenIds = new ArrayList<>();
+  private final List<List<DataValue>> writtenValues = new ArrayList<>();
+
+  private CompletableFuture<List<StatusCode>> recordWrite(List<NodeId> ids,
+      List<DataValue> dvs) {
+    writtenIds.add(ids);
+    writtenValues.add(dvs);
+    return CompletableFuture.completedFuture(
+        new ArrayList<>(Collections.nCopies(ids.size(), StatusCode.GOOD)));
+  }
+
+  private static DataValue value(double val, long time) {
+    return new DataValue(new Variant(val), StatusCode.GOOD, new DateTime(time));
+  }
+
+  @Test
+  public void latestValueOnly_test() {
+    WriteStatistics stats = new WriteStatistics();
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 1,
+        1024 * 1024, EOverflowPolicy.DROP_OLDEST, stats);
+
+    buffer.onConnectionLost();
+    assertTrue(buffer.isActive());
+
+    NodeId nodeA = new NodeId(2, "a");
+    buffer.store(List.of(nodeA), List.of(value(1.0, 1)));
+    buffer.store(List.of(nodeA), List.of(value(2.0, 2)));
+    // Outdated value (e.g., returned from a failed write) must not replace the newer one.
+    buffer.store(List.of(nodeA), List.of(value(0.5, 0)));
+
+    assertEquals(1, buffer.getBufferedValueCount());
+    assertEquals(0, writtenIds.size());
+
+    buffer.onConnectionRestored();
+
+    assertEquals(1, writtenIds.size());
+    assertEquals(2.0, writtenValues.get(0).get(0).getValue().getValue());
+    assertEquals(0, buffer.getBufferedValueCount());
+    assertFalse(buffer.isActive());
+    assertEquals(1, stats.getForwardedCount());
+    assertEquals(2, stats.getDroppedCount());
+  }
+
+  @Test
+  public void historyReplayedInOrder_test() {
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 3,
+        1024 * 1024, EOverflowPolicy.DROP_OLDEST, new WriteStatistics());
+
+    buffer.onConnectionLost();
+
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+    for (int i = 1; i <= 4; ++i) {
+      buffer.store(List.of(nodeA, nodeB), List.of(value(i, i), value(10 * i, i)));
+    }
+
+    assertEquals(6, buffer.getBufferedValueCount());
+
+    buffer.onConnectionRestored();
+
+    // Three batches with one value per node each, the oldest value has been dropped.
+    assertEquals(3, writtenIds.size());
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(2, writtenIds.get(i).size());
+      assertEquals((double) (i + 2), writtenValues.get(i).get(0).getValue().getValue());
+    }
+  }
+
+  @Test
+  public void memoryBudget_test() {
+    WriteStatistics stats = new WriteStatistics();
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 1,
+        2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, EOverflowPolicy.DROP_OLDEST, stats);
+
+    buffer.onConnectionLost();
+    buffer.store(List.of(new NodeId(2, "a")), List.of(value(1.0, 1)));
+    buffer.store(List.of(new NodeId(2, "b")), List.of(value(2.0, 2)));
+    buffer.store(List.of(new NodeId(2, "c")), List.of(value(3.0, 3)));
+
+    assertEquals(2, buffer.getBufferedValueCount());
+    assertEquals(1, stats.getDroppedCount());
+
+    buffer.onConnectionRestored();
+
+    // The value of the least recently updated node has been dropped.
+    assertEquals(List.of(new NodeId(2, "b"), new NodeId(2, "c")), writtenIds.get(0));
+  }
+
+  @Test
+  public void dropNewest_test() {
+    WriteStatistics stats = new WriteStatistics();
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 1,
+        StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, EOverflowPolicy.DROP_NEWEST, stats);
+
+    buffer.onConnectionLost();
+    buffer.store(List.of(new NodeId(2, "a")), List.of(value(1.0, 1)));
+    buffer.store(List.of(new NodeId(2, "b")), List.of(value(2.0, 2)));
+
+    buffer.onConnectionRestored();
+
+    assertEquals(List.of(new NodeId(2, "a")), writtenIds.get(0));
+    assertEquals(1, stats.getDroppedCount());
+  }
+
+  @Test
+  public void fullBudgetKeepsLatestValue_test() {
+    for (EOverflowPolicy policy : EOverflowPolicy.values()) {
+      writtenIds.clear();
+      writtenValues.clear();
+
+      WriteStatistics stats = new WriteStatistics();
+      StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 1,
+          2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, policy, stats);
+
+      NodeId nodeA = new NodeId(2, "a");
+      NodeId nodeB = new NodeId(2, "b");
+
+      buffer.onConnectionLost();
+      buffer.store(List.of(nodeA, nodeB), List.of(value(1.0, 1), value(10.0, 1)));
+
+      // The budget is full, the superseded value of the same node makes room for the new one.
+      for (int i = 2; i <= 5; ++i) {
+        buffer.store(List.of(nodeA), List.of(value(i, i)));
+      }
+
+      assertEquals(2, buffer.getBufferedValueCount());
+      assertEquals(2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, buffer.getUsedBytes());
+
+      buffer.onConnectionRestored();
+
+      assertEquals(List.of(nodeB, nodeA), writtenIds.get(0));
+      assertEquals(5.0, writtenValues.get(0).get(1).getValue().getValue());
+      assertEquals(4, stats.getDroppedCount());
+    }
+  }
+
+  @Test
+  public void singleNodeFillsBudget_test() {
+    WriteStatistics stats = new WriteStatistics();
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 3,
+        2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, EOverflowPolicy.DROP_OLDEST, stats);
+
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+
+    buffer.onConnectionLost();
+    buffer.store(List.of(nodeA), List.of(value(1.0, 1)));
+    buffer.store(List.of(nodeA), List.of(value(2.0, 2)));
+    // Only the node itself holds values, its history must not be detached from the buffer.
+    buffer.store(List.of(nodeA), List.of(value(3.0, 3)));
+    buffer.store(List.of(nodeA), List.of(value(4.0, 4)));
+
+    assertEquals(2, buffer.getBufferedValueCount());
+    assertEquals(2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, buffer.getUsedBytes());
+
+    // Another node evicts the oldest value of node A, the budget is not leaked.
+    buffer.store(List.of(nodeB), List.of(value(10.0, 5)));
+    assertEquals(2, buffer.getBufferedValueCount());
+    assertEquals(2 * StoreAndForwardBuffer.VALUE_OVERHEAD_BYTES, buffer.getUsedBytes());
+
+    buffer.onConnectionRestored();
+
+    assertEquals(List.of(nodeA, nodeB), writtenIds.get(0));
+    assertEquals(4.0, writtenValues.get(0).get(0).getValue().getValue());
+    assertEquals(10.0, writtenValues.get(0).get(1).getValue().getValue());
+    assertEquals(0, buffer.getUsedBytes());
+    assertEquals(3, stats.getDroppedCount());
+  }
+
+  @Test
+  public void writerBuffersOnConnectionError_test() {
+    List<List<NodeId>> requests = new ArrayList<>();
+
+    SyncValueWriter writer = new SyncValueWriter((ids, dvs) -> {
+      requests.add(ids);
+      CompletableFuture<List<StatusCode>> cf = new CompletableFuture<>();
+      cf.completeExceptionally(new UaException(StatusCodes.Bad_SessionClosed));
+      return cf;
+    });
+
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer(this::recordWrite, 1,
+        1024 * 1024, EOverflowPolicy.DROP_OLDEST, new WriteStatistics());
+    writer.setStoreAndForwardBuffer(buffer);
+
+    buffer.onConnectionLost();
+    writer.write(new NodeId(2, "a"), value(1.0, 1));
+
+    // The connection is down, the value is buffered without issuing a write request.
+    assertEquals(0, requests.size());
+    assertEquals(1, buffer.getBufferedValueCount());
+
+    assertTrue(StoreAndForwardBuffer.isConnectionError(
+        new UaException(StatusCodes.Bad_SessionClosed)));
+    assertFalse(StoreAndForwardBuffer.isConnectionError(
+        new UaException(StatusCodes.Bad_NodeIdUnknown)));
+  }
+
+  @Test
+  public void failedFlushKeepsNewerValue_test() {
+    List<CompletableFuture<List<StatusCode>>> pending = new ArrayList<>();
+
+    StoreAndForwardBuffer buffer = new StoreAndForwardBuffer((ids, dvs) -> {
+      writtenIds.add(ids);
+      writtenValues.add(dvs);
+      CompletableFuture<List<StatusCode>> cf = new CompletableFuture<>();
+      pending.add(cf);
+      return cf;
+    }, 1, 1024 * 1024, EOverflowPolicy.DROP_OLDEST, new WriteStatistics());
+
+    NodeId nodeA = new NodeId(2, "a");
+    buffer.onConnectionLost();
+    buffer.store(List.of(nodeA), List.of(value(1.0, 5)));
+    buffer.onConnectionRestored();
+
+    // The buffered value is being written, new values still have to be buffered.
+    assertEquals(1, pending.size());
+    assertEquals(0, buffer.getBufferedValueCount());
+    assertTrue(buffer.isActive());
+
+    // Newer value with the same source timestamp.
+    buffer.store(List.of(nodeA), List.of(value(2.0, 5)));
+    assertEquals(1, pending.size());
+
+    pending.get(0).completeExceptionally(new UaException(StatusCodes.Bad_SessionClosed));
+
+    // The value of the failed write must not replace the newer value.
+    assertEquals(1, buffer.getBufferedValueCount());
+    buffer.flush();
+    assertEquals(2, pending.size());
+    assertEquals(2.0, writtenValues.get(1).get(0).getValue().getValue());
+  }
+}
@@ -0,0 +1,148 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+
+/**
+ * Contention benchmark for the write path.
+ *
+ * <p>Compares the synchronized write path (each producer writes its value with a separate
+ * request while holding the client monitor) with the lock-free submission queue drained by
+ * the dedicated writer thread of {@link BatchingValueWriter}. The OPC UA server is replaced
+ * by a write function that simulates the cost of encoding a request.
+ *
+ * <p>This is not a unit test, run it manually via its main method.
+ */
+public class WriteContentionBenchmark {
+
+  /** Simulated cost per write request (in nanoseconds). */
+  private static final long REQUEST_COST_NANOS = 5000;
+
+  /** Simulated cost per value (in nanoseconds). */
+  private static final long VALUE_COST_NANOS = 200;
+
+  /** Total number of values written per run. */
+  private static final int VALUES_PER_RUN = 200000;
+
+  /** Number of nodes the values are written to. */
+  private static final int NODE_COUNT = 500;
+
+  /**
+   * Main method.
+   *
+   * @param args not used
+   * @throws InterruptedException interrupted exception
+   */
+  public static void main(String[] args) throws InterruptedException {
+    NodeId[] nodes = new NodeId[NODE_COUNT];
+    for (int i = 0; i < NODE_COUNT; ++i) {
+      nodes[i] = new NodeId(2, i);
+    }
+
+    // Warm-up.
+    run("synchronized", 4, nodes, true);
+    run("queued", 4, nodes, false);
+
+    System.out.println("path          producers   values/s");
+
+    for (int producers : new int[] {1, 4, 16}) {
+      double syncRate = run("synchronized", producers, nodes, true);
+      double queuedRate = run("queued", producers, nodes, false);
+
+      System.out.println(String.format("synchronized  %9d  %9.0f", producers, syncRate));
+      System.out.println(String.format("queued        %9d  %9.0f", producers, queuedRate));
+    }
+  }
+
+  /**
+   * Run the benchmark for one configuration.
+   *
+   * @param label label of the write path
+   * @param producers number of producer threads
+   * @param nodes node IDs to write to
+   * @param synchronizedPath use the synchronized write path
+   * @return number of values written per second
+   * @throws InterruptedException interrupted exception
+   */
+  private static double run(String label, int producers, NodeId[] nodes,
+      boolean synchronizedPath) throws InterruptedException {
+    final Object monitor = new Object();
+
+    BiFunction<List<NodeId>, List<DataValue>, CompletableFuture<List<StatusCode>>> server =
+        (ids, dvs) -> {
+          if (synchronizedPath) {
+            synchronized (monitor) {
+              return simulateWrite(ids);
+            }
+          }
+          return simulateWrite(ids);
+        };
+
+    IValueWriter writer = synchronizedPath
+        ? new AsyncValueWriter(server, 100)
+        : new BatchingValueWriter(server, 100, 1, 1000, false);
+
+    DataValue value = new DataValue(new Variant(1.0));
+    int valuesPerProducer = VALUES_PER_RUN / producers;
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[producers];
+
+    for (int p = 0; p < producers; ++p) {
+      final int offset = p;
+      threads[p] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+        for (int i = 0; i < valuesPerProducer; ++i) {
+          writer.write(nodes[(offset + i) % nodes.length], value);
+        }
+      }, label + "-producer-" + p);
+      threads[p].start();
+    }
+
+    long startTime = System.nanoTime();
+    start.countDown();
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    writer.close();
+
+    long elapsed = System.nanoTime() - startTime;
+
+    return (double) valuesPerProducer * producers / (elapsed / 1e9);
+  }
+
+  /**
+   * Simulate the cost of encoding and sending a write request.
+   *
+   * @param ids node IDs of the write request
+   * @return completed future with status codes
+   */
+  private static CompletableFuture<List<StatusCode>> simulateWrite(List<NodeId> ids) {
+    long end = System.nanoTime() + REQUEST_COST_NANOS + VALUE_COST_NANOS * ids.size();
+    while (System.nanoTime() < end) {
+      Thread.onSpinWait();
+    }
+    return CompletableFuture.completedFuture(Collections.nCopies(ids.size(), StatusCode.GOOD));
+  }
+}
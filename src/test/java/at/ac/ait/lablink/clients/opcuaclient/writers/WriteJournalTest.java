@@ -0,0 +1,262 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+//
+// This program and the accompanying materials are made
+// available under the terms of the Eclipse Public License 2.0
+// which is available at: https://www.eclipse.org/legal/epl-2.0/
+//
+
+package at.ac.ait.lablink.clients.opcuaclient.writers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.milo.opcua.stack.core.StatusCodes;
+import org.eclipse.milo.opcua.stack.core.UaException;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DateTime;
+import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for class WriteJournal.
+ */
+public class WriteJournalTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static DataValue value(Object val, long time) {
+    return new DataValue(new Variant(val), StatusCode.GOOD, new DateTime(time));
+  }
+
+  @Test
+  public void replayPendingValues_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, 1234);
+    NodeId nodeC = new NodeId(3, "c");
+
+    DataValue valueA = value(1.5, 1);
+    DataValue valueC = value("setpoint", 3);
+
+    WriteJournal journal = new WriteJournal(path, 4096, 4096);
+    journal.append(nodeA, valueA);
+    journal.append(nodeB, value(UInteger.valueOf(42), 2));
+    journal.append(nodeC, valueC);
+    journal.append(nodeA, value(2.5, 4));
+
+    // Acknowledges the first value of node A only.
+    journal.acknowledge(nodeA, valueA);
+    journal.acknowledge(nodeC, valueC);
+    assertEquals(2, journal.getPendingCount());
+
+    // Simulate a restart without closing the journal.
+    WriteJournal recovered = new WriteJournal(path, 4096, 4096);
+
+    List<NodeId> ids = recovered.getRecoveredIds();
+    List<DataValue> dvs = recovered.getRecoveredValues();
+
+    assertEquals(List.of(nodeB, nodeA), ids);
+    assertEquals(UInteger.valueOf(42), dvs.get(0).getValue().getValue());
+    assertEquals(2.5, dvs.get(1).getValue().getValue());
+    assertEquals(4L, dvs.get(1).getSourceTime().getUtcTime());
+  }
+
+  @Test
+  public void compaction_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+
+    // Small journal, which has to be compacted repeatedly.
+    WriteJournal journal = new WriteJournal(path, 512, 128);
+    journal.append(nodeB, value(-7L, 0));
+
+    for (int i = 1; i <= 1000; ++i) {
+      DataValue dv = value((double) i, i);
+      journal.append(nodeA, dv);
+      journal.acknowledge(nodeA, dv);
+    }
+    journal.append(nodeA, value(true, 1001));
+    // Wait for background compactions, which would otherwise race with the recovery below.
+    journal.close();
+
+    WriteJournal recovered = new WriteJournal(path, 512, 128);
+
+    assertEquals(List.of(nodeB, nodeA), recovered.getRecoveredIds());
+    assertEquals(-7L, recovered.getRecoveredValues().get(0).getValue().getValue());
+    assertEquals(true, recovered.getRecoveredValues().get(1).getValue().getValue());
+  }
+
+  @Test
+  public void backgroundCompaction_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+
+    // Large journal, compaction is only triggered by the acknowledgements.
+    WriteJournal journal = new WriteJournal(path, 1 << 20, 128);
+    journal.append(nodeB, value(-7L, 0));
+
+    for (int i = 1; i <= 100; ++i) {
+      DataValue dv = value((double) i, i);
+      journal.append(nodeA, dv);
+      journal.acknowledge(nodeA, dv);
+    }
+    journal.append(nodeA, value(101.0, 101));
+    journal.close();
+
+    assertFalse(Files.exists(Paths.get(path.toString() + ".tmp")));
+
+    WriteJournal recovered = new WriteJournal(path, 1 << 20, 128);
+
+    assertEquals(List.of(nodeB, nodeA), recovered.getRecoveredIds());
+    assertEquals(-7L, recovered.getRecoveredValues().get(0).getValue().getValue());
+    assertEquals(101.0, recovered.getRecoveredValues().get(1).getValue().getValue());
+  }
+
+  @Test
+  public void interruptedCompaction_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    Path tmpPath = Paths.get(path.toString() + ".tmp");
+    NodeId nodeA = new NodeId(2, "a");
+
+    WriteJournal journal = new WriteJournal(path, 4096, 4096);
+    DataValue acked = value(1.0, 1);
+    journal.append(nodeA, acked);
+    journal.acknowledge(nodeA, acked);
+    // The encoded value ends with a non-zero byte, the compacted records end there.
+    journal.append(nodeA, value(7L, 2));
+    assertTrue(journal.compact());
+
+    // Simulate a crash while the compacted journal was copied into the journal file.
+    Files.copy(path, tmpPath);
+    byte[] compacted = Files.readAllBytes(tmpPath);
+    int length = compacted.length;
+    while (length > 0 && compacted[length - 1] == 0) {
+      --length;
+    }
+    Files.write(tmpPath, Arrays.copyOf(compacted, length));
+    Files.write(path, new byte[4096]);
+
+    WriteJournal recovered = new WriteJournal(path, 4096, 4096);
+
+    assertFalse(Files.exists(tmpPath));
+    assertEquals(List.of(nodeA), recovered.getRecoveredIds());
+    assertEquals(7L, recovered.getRecoveredValues().get(0).getValue().getValue());
+  }
+
+  @Test
+  public void rejectedWritesAcknowledged_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    NodeId nodeA = new NodeId(2, "a");
+    NodeId nodeB = new NodeId(2, "b");
+    NodeId nodeC = new NodeId(2, "c");
+
+    WriteJournal journal = new WriteJournal(path, 4096, 4096);
+
+    List<NodeId> ids = List.of(nodeA, nodeB, nodeC);
+    List<DataValue> dvs = List.of(value(1.0, 1), value(2.0, 1), value(3.0, 1));
+    for (int i = 0; i < ids.size(); ++i) {
+      journal.append(ids.get(i), dvs.get(i));
+    }
+
+    journal.wrap((i, d) -> CompletableFuture.completedFuture(List.of(
+        new StatusCode(StatusCodes.Bad_TypeMismatch),
+        new StatusCode(StatusCodes.Bad_NotWritable),
+        new StatusCode(StatusCodes.Bad_SessionClosed)))).apply(ids, dvs);
+
+    // Only the value that failed due to a connection problem remains pending.
+    assertEquals(1, journal.getPendingCount());
+
+    NodeId nodeD = new NodeId(2, "d");
+    NodeId nodeE = new NodeId(2, "e");
+    DataValue valueD = value(4.0, 1);
+    DataValue valueE = value(5.0, 1);
+    journal.append(nodeD, valueD);
+    journal.append(nodeE, valueE);
+
+    CompletableFuture<List<StatusCode>> rejected = new CompletableFuture<>();
+    rejected.completeExceptionally(new UaException(StatusCodes.Bad_NodeIdUnknown));
+    journal.wrap((i, d) -> rejected).apply(List.of(nodeD), List.of(valueD));
+
+    CompletableFuture<List<StatusCode>> disconnected = new CompletableFuture<>();
+    disconnected.completeExceptionally(new UaException(StatusCodes.Bad_ConnectionClosed));
+    journal.wrap((i, d) -> disconnected).apply(List.of(nodeE), List.of(valueE));
+
+    assertEquals(2, journal.getPendingCount());
+    journal.close();
+
+    WriteJournal recovered = new WriteJournal(path, 4096, 4096);
+    assertEquals(List.of(nodeC, nodeE), recovered.getRecoveredIds());
+  }
+
+  @Test
+  public void sameTimestampNotAcknowledged_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    NodeId nodeA = new NodeId(2, "a");
+
+    // Two values written within the same millisecond.
+    DataValue first = value(1.0, 5);
+    DataValue second = value(2.0, 5);
+
+    WriteJournal journal = new WriteJournal(path, 4096, 4096);
+    journal.append(nodeA, first);
+    journal.append(nodeA, second);
+
+    // Acknowledging the first value must not acknowledge the second one.
+    journal.acknowledge(nodeA, first);
+    assertEquals(1, journal.getPendingCount());
+
+    // Acknowledging the second value acknowledges all values up to it.
+    DataValue third = value(3.0, 4);
+    journal.append(nodeA, third);
+    journal.acknowledge(nodeA, second);
+    assertEquals(1, journal.getPendingCount());
+    journal.close();
+
+    WriteJournal recovered = new WriteJournal(path, 4096, 4096);
+    assertEquals(3.0, recovered.getRecoveredValues().get(0).getValue().getValue());
+
+    // Recovered values are acknowledged by the replayed instances.
+    recovered.acknowledge(nodeA, recovered.getRecoveredValues().get(0));
+    assertEquals(0, recovered.getPendingCount());
+  }
+
+  @Test
+  public void notJournaledCounted_test() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("journal.bin");
+    NodeId nodeA = new NodeId(2, "a");
+    WriteStatistics statistics = new WriteStatistics();
+
+    // Room for the node record and a single value record only.
+    WriteJournal journal = new WriteJournal(path, 64, 64, statistics);
+    journal.append(nodeA, value(1.0, 1));
+    journal.append(nodeA, value(2.0, 2));
+    journal.append(nodeA, value(3.0, 3));
+    assertEquals(1, journal.getPendingCount());
+    assertEquals(2, statistics.getNotJournaledCount());
+
+    journal.close();
+    journal.append(nodeA, value(4.0, 4));
+    assertEquals(1, journal.getPendingCount());
+    assertEquals(3, statistics.getNotJournaledCount());
+  }
+}